@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart;
+
+import com.emxsys.chart.extension.LabelDeclutter;
+import com.emxsys.chart.extension.Subtitle;
+import com.emxsys.chart.extension.XYAnnotations;
+import com.emxsys.chart.extension.XYCanvasRenderer;
+import com.emxsys.chart.extension.XYDecimator;
+import com.emxsys.chart.extension.XYHoverTooltip;
+import com.emxsys.chart.extension.XYMarkers;
+import com.emxsys.chart.extension.XYPointIndex;
+import com.emxsys.chart.extension.XYSampleQueue;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.BooleanPropertyBase;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ObjectPropertyBase;
+import javafx.collections.ObservableList;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.XYChart;
+
+/**
+ * The extensions and rendering properties shared by the EnhancedLineChart and the
+ * EnhancedScatterChart. The charts extend different JavaFX chart classes, so each one owns an
+ * instance of this class and delegates to it.
+ *
+ * @author Bruce Schubert
+ * @param <X>
+ * @param <Y>
+ */
+final class EnhancedChartSupport<X, Y> {
+
+    private final XYChart<X, Y> chart;
+    private final Runnable chartLayout;
+    private final Runnable renderingChanged;
+    private final Subtitle subtitle;
+    private final XYMarkers<X, Y> markers;
+    private final XYAnnotations annotations;
+    private final XYCanvasRenderer<X, Y> renderer;
+    private final XYSampleQueue sampleQueue;
+    private final XYHoverTooltip hoverTooltip;
+    private final LabelDeclutter labelDeclutter;
+
+    /**
+     * When true the series are drawn into a single Canvas instead of creating nodes per series
+     * and data item. Use this mode for very large series.
+     */
+    private final BooleanProperty canvasRendering = new BooleanPropertyBase(false) {
+        @Override
+        protected void invalidated() {
+            renderer.setSeriesRendering(get());
+            renderingChanged.run();
+            chartLayout.run();
+        }
+
+
+        @Override
+        public Object getBean() {
+            return chart;
+        }
+
+
+        @Override
+        public String getName() {
+            return "canvasRendering";
+        }
+    };
+
+    /**
+     * The decimation stage applied to the canvas drawn line series, e.g., an M4Decimator or an
+     * LttbDecimator. When null every point is drawn.
+     */
+    private final ObjectProperty<XYDecimator> decimator = new ObjectPropertyBase<XYDecimator>() {
+        @Override
+        protected void invalidated() {
+            renderer.setDecimator(get());
+            chartLayout.run();
+        }
+
+
+        @Override
+        public Object getBean() {
+            return chart;
+        }
+
+
+        @Override
+        public String getName() {
+            return "decimator";
+        }
+    };
+
+    /**
+     * When true the plotted points are kept in a spatial index that answers nearest point queries
+     * and drives a single shared hover tooltip.
+     */
+    private final BooleanProperty pointIndexing = new BooleanPropertyBase(false) {
+        @Override
+        protected void invalidated() {
+            renderer.setPointIndexing(get());
+            if (get()) {
+                hoverTooltip.install();
+            }
+            else {
+                hoverTooltip.uninstall();
+            }
+            chartLayout.run();
+        }
+
+
+        @Override
+        public Object getBean() {
+            return chart;
+        }
+
+
+        @Override
+        public String getName() {
+            return "pointIndexing";
+        }
+    };
+
+    /**
+     * When true the overlapping text annotation and marker labels are nudged apart or hidden by
+     * priority after each layout, so that only readable labels are displayed.
+     */
+    private final BooleanProperty labelDecluttering = new BooleanPropertyBase(false) {
+        @Override
+        protected void invalidated() {
+            if (!get()) {
+                labelDeclutter.reset();
+            }
+            chartLayout.run();
+        }
+
+
+        @Override
+        public Object getBean() {
+            return chart;
+        }
+
+
+        @Override
+        public String getName() {
+            return "labelDecluttering";
+        }
+    };
+
+    /**
+     * Constructs the extensions of a chart.
+     *
+     * @param chart The chart.
+     * @param children The children of the chart, which display the subtitles.
+     * @param chartChildren The chart children, which display the annotations.
+     * @param plotChildren The plot children, which display the markers and the series canvas.
+     * @param legend The chart legend.
+     * @param style The style of the canvas drawn series.
+     * @param chartLayout Requests a layout of the chart content, i.e., Chart.requestChartLayout.
+     * @param renderingChanged Removes or recreates the series nodes when canvasRendering changes.
+     */
+    EnhancedChartSupport(XYChart<X, Y> chart, ObservableList<Node> children, ObservableList<Node> chartChildren,
+            ObservableList<Node> plotChildren, Node legend, XYCanvasRenderer.Style style,
+            Runnable chartLayout, Runnable renderingChanged) {
+        this.chart = chart;
+        this.chartLayout = chartLayout;
+        this.renderingChanged = renderingChanged;
+        this.subtitle = new Subtitle(chart, children, legend);
+        this.markers = new XYMarkers<>(chart, plotChildren);
+        this.annotations = new XYAnnotations(chart, chartChildren);
+        this.renderer = new XYCanvasRenderer<>(chart, plotChildren, style);
+        this.sampleQueue = new XYSampleQueue();
+        this.hoverTooltip = new XYHoverTooltip(chart, renderer);
+        this.labelDeclutter = new LabelDeclutter(chart, annotations, markers);
+    }
+
+    BooleanProperty canvasRenderingProperty() {
+        return canvasRendering;
+    }
+
+    ObjectProperty<XYDecimator> decimatorProperty() {
+        return decimator;
+    }
+
+    BooleanProperty pointIndexingProperty() {
+        return pointIndexing;
+    }
+
+    BooleanProperty labelDeclutteringProperty() {
+        return labelDecluttering;
+    }
+
+    Subtitle getSubtitle() {
+        return subtitle;
+    }
+
+    XYMarkers<X, Y> getMarkers() {
+        return markers;
+    }
+
+    XYAnnotations getAnnotations() {
+        return annotations;
+    }
+
+    XYCanvasRenderer<X, Y> getRenderer() {
+        return renderer;
+    }
+
+    XYSampleQueue getSampleQueue() {
+        return sampleQueue;
+    }
+
+    LabelDeclutter getLabelDeclutter() {
+        return labelDeclutter;
+    }
+
+    /**
+     * Finds the plotted point nearest to a scene position.
+     *
+     * @param sceneX The x position in the scene.
+     * @param sceneY The y position in the scene.
+     * @param maxDistance The search radius in pixels.
+     * @return The nearest point, or null if none is within the radius.
+     */
+    XYPointIndex.Hit findNearestPoint(double sceneX, double sceneY, double maxDistance) {
+        final Point2D point = renderer.getCanvas().sceneToLocal(sceneX, sceneY);
+        return renderer.findNearest(point.getX(), point.getY(), maxDistance);
+    }
+
+    /**
+     * Lays out the canvas drawn series, the annotations and the markers after the chart has laid
+     * out its series nodes, then declutters the labels.
+     */
+    void layoutPlotChildren() {
+        renderer.layoutSeries();
+        annotations.layoutAnnotations();
+        markers.layoutMarkers();
+        if (labelDecluttering.get()) {
+            labelDeclutter.declutter();
+        }
+    }
+
+    /**
+     * Updates the axis ranges with the chart's series and the extents of the data sources.
+     */
+    void updateAxisRange() {
+        final Axis<X> xa = chart.getXAxis();
+        final Axis<Y> ya = chart.getYAxis();
+        final List<X> xData = xa.isAutoRanging() ? new ArrayList<>() : null;
+        final List<Y> yData = ya.isAutoRanging() ? new ArrayList<>() : null;
+        if (xData != null || yData != null) {
+            if (chart.getData() != null) {
+                for (XYChart.Series<X, Y> series : chart.getData()) {
+                    for (XYChart.Data<X, Y> data : series.getData()) {
+                        if (xData != null) {
+                            xData.add(data.getXValue());
+                        }
+                        if (yData != null) {
+                            yData.add(data.getYValue());
+                        }
+                    }
+                }
+            }
+            renderer.addDataSourceExtents(xData, yData);
+            // RT-32838: No need to invalidate range if there is one data item whose value is zero.
+            if (xData != null && !(xData.size() == 1 && xa.toNumericValue(xData.get(0)) == 0)) {
+                xa.invalidateRange(xData);
+            }
+            if (yData != null && !(yData.size() == 1 && ya.toNumericValue(yData.get(0)) == 0)) {
+                ya.invalidateRange(yData);
+            }
+        }
+        else {
+            renderer.addDataSourceExtents(null, null);
+        }
+    }
+
+}
@@ -30,15 +30,26 @@
 package com.emxsys.chart;
 
 import com.emxsys.chart.extension.AnnotationExtension;
+import com.emxsys.chart.extension.LabelDeclutter;
 import com.emxsys.chart.extension.MarkerExtension;
-import com.emxsys.chart.extension.Subtitle;
 import com.emxsys.chart.extension.SubtitleExtension;
 import com.emxsys.chart.extension.XYAnnotations;
+import com.emxsys.chart.extension.XYCanvasRenderer;
+import com.emxsys.chart.extension.XYDataSource;
+import com.emxsys.chart.extension.XYDecimator;
 import com.emxsys.chart.extension.XYMarkers;
+import com.emxsys.chart.extension.XYPointIndex;
+import com.emxsys.chart.extension.XYSampleQueue;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import javafx.beans.NamedArg;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.scene.Node;
 import javafx.scene.chart.Axis;
 import javafx.scene.chart.LineChart;
 
@@ -52,9 +63,10 @@ import javafx.scene.chart.LineChart;
 public class EnhancedLineChart<X, Y> extends LineChart<X, Y>
         implements SubtitleExtension, MarkerExtension, AnnotationExtension {
 
-    private Subtitle subtitle;
-    private XYMarkers<X, Y> markers;
-    private XYAnnotations annotations;
+    /**
+     * The extensions and rendering properties; null while the superclass is being constructed.
+     */
+    private final EnhancedChartSupport<X, Y> support;
 
     public EnhancedLineChart(@NamedArg("xAxis") Axis<X> xAxis, @NamedArg("yAxis") Axis<Y> yAxis) {
         this(xAxis, yAxis, FXCollections.<Series<X, Y>>observableArrayList());
@@ -64,9 +76,100 @@ public class EnhancedLineChart<X, Y> extends LineChart<X, Y>
     public EnhancedLineChart(@NamedArg("xAxis") Axis<X> xAxis, @NamedArg("yAxis") Axis<Y> yAxis, @NamedArg("data") ObservableList<Series<X, Y>> data) {
         super(xAxis, yAxis, data);
 
-        subtitle = new Subtitle(this, getChildren(), getLegend());
-        markers = new XYMarkers<>(this, getPlotChildren());
-        annotations = new XYAnnotations(this, getChartChildren());
+        support = new EnhancedChartSupport<>(this, getChildren(), getChartChildren(), getPlotChildren(), getLegend(),
+                XYCanvasRenderer.Style.LINES, this::requestChartLayout, this::rebuildSeriesNodes);
+        support.getRenderer().setCreateSymbols(getCreateSymbols());
+        createSymbolsProperty().addListener(observable -> {
+            support.getRenderer().setCreateSymbols(getCreateSymbols());
+            if (isCanvasRendering()) {
+                // The LineChart has just created the symbol nodes, which the canvas draws instead
+                rebuildSeriesNodes();
+            }
+        });
+    }
+
+    /**
+     * When true the series are drawn into a single Canvas instead of a Path and symbol nodes per
+     * series. Use this mode for very large series. If createSymbols is set, the symbols are
+     * stamped at the drawn points, i.e., after decimation.
+     *
+     * @return True if the series are drawn on a canvas.
+     */
+    public final boolean isCanvasRendering() {
+        // Note: the series callbacks are invoked by the superclass constructor
+        return support != null && support.canvasRenderingProperty().get();
+    }
+
+    public final void setCanvasRendering(boolean value) {
+        support.canvasRenderingProperty().set(value);
+    }
+
+    public final BooleanProperty canvasRenderingProperty() {
+        return support.canvasRenderingProperty();
+    }
+
+    /**
+     * When true the plotted points are kept in a spatial index that answers nearest point queries
+     * and drives a single shared hover tooltip.
+     *
+     * @return True if the plotted points are indexed.
+     */
+    public final boolean isPointIndexing() {
+        return support.pointIndexingProperty().get();
+    }
+
+    public final void setPointIndexing(boolean value) {
+        support.pointIndexingProperty().set(value);
+    }
+
+    public final BooleanProperty pointIndexingProperty() {
+        return support.pointIndexingProperty();
+    }
+
+    /**
+     * When true the overlapping text annotation and marker labels are nudged apart or hidden by
+     * priority after each layout, so that only readable labels are displayed.
+     *
+     * @return True if the labels are decluttered.
+     */
+    public final boolean isLabelDecluttering() {
+        return support.labelDeclutteringProperty().get();
+    }
+
+    public final void setLabelDecluttering(boolean value) {
+        support.labelDeclutteringProperty().set(value);
+    }
+
+    public final BooleanProperty labelDeclutteringProperty() {
+        return support.labelDeclutteringProperty();
+    }
+
+    /**
+     * Gets the label declutter used when labelDecluttering is enabled, e.g., to set its padding
+     * and maximum nudge distance.
+     *
+     * @return The label declutter for this chart.
+     */
+    public LabelDeclutter getLabelDeclutter() {
+        return support.getLabelDeclutter();
+    }
+
+    /**
+     * The decimation stage applied to the canvas drawn series, e.g., an M4Decimator or an
+     * LttbDecimator. When null every point is drawn.
+     *
+     * @return The decimator; may be null.
+     */
+    public final XYDecimator getDecimator() {
+        return support.decimatorProperty().get();
+    }
+
+    public final void setDecimator(XYDecimator value) {
+        support.decimatorProperty().set(value);
+    }
+
+    public final ObjectProperty<XYDecimator> decimatorProperty() {
+        return support.decimatorProperty();
     }
 
     /**
@@ -76,7 +179,7 @@ public class EnhancedLineChart<X, Y> extends LineChart<X, Y>
      */
     @Override
     public List<String> getSubtitles() {
-        return this.subtitle.getSubtitles();
+        return support.getSubtitle().getSubtitles();
     }
 
     /**
@@ -85,36 +188,175 @@ public class EnhancedLineChart<X, Y> extends LineChart<X, Y>
      */
     @Override
     public void addSubtitle(String subtitle) {
-        this.subtitle.addSubtitle(subtitle);
+        support.getSubtitle().addSubtitle(subtitle);
         this.requestLayout();
     }
 
     @Override
     public void clearSubtitles() {
-        this.subtitle.clearSubtitles();
+        support.getSubtitle().clearSubtitles();
     }
 
     @Override
     public XYAnnotations getAnnotations() {
-        return this.annotations;
+        return support.getAnnotations();
     }
 
     @Override
     public XYMarkers<X, Y> getMarkers() {
-        return this.markers;
+        return support.getMarkers();
+    }
+
+    /**
+     * Gets the primitive data sources plotted on this chart, e.g., XYDoubleSeries. The data
+     * sources are drawn on a canvas without creating XYChart.Data objects.
+     *
+     * @return A modifiable list of data sources.
+     */
+    public ObservableList<XYDataSource> getDataSources() {
+        return support.getRenderer().getDataSources();
+    }
+
+    /**
+     * Gets the thread-safe queue used to stream samples into the XYDoubleSeries data sources. The
+     * queued samples are appended once per pulse, followed by a single layout of the chart.
+     *
+     * @return The sample queue for this chart.
+     */
+    public XYSampleQueue getSampleQueue() {
+        return support.getSampleQueue();
+    }
+
+    /**
+     * Finds the plotted point nearest to a scene position, e.g., for click-to-inspect. The traces
+     * are numbered with the chart series first, followed by the data sources. Requires
+     * pointIndexing.
+     *
+     * @param sceneX The x position in the scene, e.g., MouseEvent.getSceneX().
+     * @param sceneY The y position in the scene, e.g., MouseEvent.getSceneY().
+     * @param maxDistance The search radius in pixels.
+     * @return The nearest point, or null if none is within the radius.
+     */
+    public XYPointIndex.Hit findNearestPoint(double sceneX, double sceneY, double maxDistance) {
+        return support.findNearestPoint(sceneX, sceneY, maxDistance);
     }
 
     @Override
     protected void layoutChildren() {
+        if (!support.getRenderer().isRangeValid()) {
+            updateAxisRange();
+        }
         super.layoutChildren();
-        subtitle.layoutSubtitles();
+        support.getSubtitle().layoutSubtitles();
     }
 
     @Override
     protected void layoutPlotChildren() {
-        super.layoutPlotChildren();
-        this.annotations.layoutAnnotations();
-        this.markers.layoutMarkers();
+        if (!isCanvasRendering()) {
+            super.layoutPlotChildren();
+        }
+        support.layoutPlotChildren();
+    }
+
+    /**
+     * Updates the axis ranges with the chart's series and the extents of the data sources.
+     */
+    @Override
+    protected void updateAxisRange() {
+        if (support != null) {
+            support.updateAxisRange();
+        }
+        else {
+            super.updateAxisRange();
+        }
+    }
+
+    @Override
+    protected void seriesAdded(Series<X, Y> series, int seriesIndex) {
+        // In canvas mode no Path or symbol nodes are created for the series
+        if (!isCanvasRendering()) {
+            super.seriesAdded(series, seriesIndex);
+        }
+    }
+
+    @Override
+    protected void seriesRemoved(Series<X, Y> series) {
+        if (isCanvasRendering()) {
+            removeSeriesFromDisplay(series);
+        }
+        else {
+            super.seriesRemoved(series);
+        }
+    }
+
+    @Override
+    protected void dataItemAdded(Series<X, Y> series, int itemIndex, Data<X, Y> item) {
+        if (support != null) {
+            support.getRenderer().dataItemAdded(series, itemIndex, item);
+        }
+        if (!isCanvasRendering()) {
+            super.dataItemAdded(series, itemIndex, item);
+        }
+    }
+
+    @Override
+    protected void dataItemRemoved(Data<X, Y> item, Series<X, Y> series) {
+        if (support != null) {
+            support.getRenderer().dataItemRemoved(item, series);
+        }
+        if (isCanvasRendering()) {
+            removeDataItemFromDisplay(series, item);
+        }
+        else {
+            super.dataItemRemoved(item, series);
+        }
+    }
+
+    @Override
+    protected void dataItemChanged(Data<X, Y> item) {
+        super.dataItemChanged(item);
+        if (support != null) {
+            support.getRenderer().dataItemChanged(item);
+        }
+    }
+
+    /**
+     * Removes or recreates the series nodes after the rendering mode has changed.
+     */
+    private void rebuildSeriesNodes() {
+        final ObservableList<Series<X, Y>> data = getData();
+        if (isCanvasRendering()) {
+            if (data != null) {
+                // Remove all the nodes with a single change to the plot children
+                final Set<Node> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Series<X, Y> series : data) {
+                    removeSeriesNodes(series, nodes);
+                }
+                getPlotChildren().removeAll(nodes);
+            }
+        }
+        else {
+            support.getRenderer().clear();
+            if (data != null) {
+                for (int i = 0; i < data.size(); i++) {
+                    super.seriesAdded(data.get(i), i);
+                }
+            }
+        }
+    }
+
+    private void removeSeriesNodes(Series<X, Y> series, Set<Node> nodes) {
+        if (series.getNode() != null) {
+            nodes.add(series.getNode());
+            series.setNode(null);
+        }
+        for (Data<X, Y> item : series.getData()) {
+            final Node symbol = item.getNode();
+            if (symbol != null) {
+                nodes.add(symbol);
+                item.setNode(null);
+            }
+        }
     }
 
 }
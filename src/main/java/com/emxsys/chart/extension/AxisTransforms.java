@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import javafx.scene.chart.Axis;
+
+
+/**
+ * Bulk conversions between data values and display positions for any chart axis. A NumericAxis
+ * (or LogarithmicAxis) converts the values in a single primitive loop; other axes convert them
+ * one at a time.
+ *
+ * @author Bruce Schubert
+ */
+public final class AxisTransforms {
+
+    private AxisTransforms() {
+    }
+
+
+    /**
+     * Converts data values to display positions.
+     *
+     * @param <T> The axis data type.
+     * @param axis The axis.
+     * @param values The numeric data values.
+     * @param positions Receives the display positions; may be the values array.
+     * @param count The number of values to convert.
+     */
+    public static <T> void getDisplayPositions(Axis<T> axis, double[] values, double[] positions, int count) {
+        if (axis instanceof NumericAxis) {
+            ((NumericAxis) axis).getDisplayPositions(values, positions, count);
+        }
+        else {
+            for (int i = 0; i < count; i++) {
+                positions[i] = axis.getDisplayPosition(axis.toRealValue(values[i]));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+
+
+/**
+ * JavaFX Chart Extension that hides or nudges overlapping XYTextAnnotation and ValueMarker labels
+ * so that only readable labels are displayed.
+ * <p>
+ * The declutter runs after the annotations and markers have been laid out. The labels are placed
+ * in order of priority, highest first, and then in the order of the foreground annotations, the
+ * background annotations, the domain markers and the range markers. Each label is tested against
+ * the labels already placed using a screen space spatial hash, so a pass takes expected linear
+ * time. A colliding label is nudged clear of the labels it overlaps if the move is within the
+ * maximum nudge distance; text annotation and domain marker labels are nudged vertically, range
+ * marker labels horizontally along their line. Otherwise the label is detached from the scene
+ * graph until a later pass finds room for it.
+ * <p>
+ * Text drawn on an annotation canvas is not decluttered.
+ *
+ * @author Bruce Schubert
+ */
+public class LabelDeclutter {
+
+    private static final double DEFAULT_PADDING = 2;
+    private static final double DEFAULT_MAX_NUDGE = 12;
+
+    /**
+     * Orders the candidates by descending priority, then by collection order.
+     */
+    private static final Comparator<Candidate> PLACEMENT_ORDER = (a, b) -> {
+        int result = Integer.compare(b.priority, a.priority);
+        return result != 0 ? result : Integer.compare(a.order, b.order);
+    };
+
+    private final XYChart<?, ?> chart;
+    private final XYAnnotations annotations;
+    private final XYMarkers<?, ?> markers;
+    private double padding = DEFAULT_PADDING;
+    private double maxNudge = DEFAULT_MAX_NUDGE;
+
+    private final List<XYTextAnnotation> textAnnotations = new ArrayList<>();
+    private final List<ValueMarker> labeledMarkers = new ArrayList<>();
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final Set<XYAnnotation> hidden = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final SpatialHash placed = new SpatialHash();
+
+    /**
+     * The labels awaiting their first size, which re-run the declutter once they are measured.
+     */
+    private final Set<Label> unmeasured = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final InvalidationListener sizeListener = new InvalidationListener() {
+        @Override
+        public void invalidated(Observable observable) {
+            observable.removeListener(this);
+            unmeasured.remove((Label) ((ReadOnlyProperty<?>) observable).getBean());
+            chart.requestLayout();
+        }
+    };
+
+    /**
+     * A label to be placed.
+     */
+    private static final class Candidate {
+
+        Label label;
+        XYTextAnnotation annotation;
+        ValueMarker marker;
+        int priority;
+        int order;
+        boolean nudgeHorizontally;
+
+
+        void clear() {
+            label = null;
+            annotation = null;
+            marker = null;
+        }
+    }
+
+
+    /**
+     * Constructs a label declutter for the annotations and markers of a chart.
+     *
+     * @param chart The chart displaying the labels.
+     * @param annotations The chart's annotations.
+     * @param markers The chart's markers.
+     */
+    public LabelDeclutter(XYChart<?, ?> chart, XYAnnotations annotations, XYMarkers<?, ?> markers) {
+        this.chart = Objects.requireNonNull(chart, getClass().getSimpleName() + ": chart must not be null");
+        this.annotations = Objects.requireNonNull(annotations, getClass().getSimpleName() + ": annotations must not be null");
+        this.markers = Objects.requireNonNull(markers, getClass().getSimpleName() + ": markers must not be null");
+    }
+
+
+    /**
+     * Gets the clearance kept around each label.
+     *
+     * @return The padding in pixels.
+     */
+    public double getPadding() {
+        return padding;
+    }
+
+
+    /**
+     * Sets the clearance kept around each label. Labels closer than twice the padding are treated
+     * as overlapping.
+     *
+     * @param padding The padding in pixels.
+     */
+    public void setPadding(double padding) {
+        if (!(padding >= 0)) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": padding must not be negative.");
+        }
+        this.padding = padding;
+    }
+
+
+    /**
+     * Gets the maximum distance a colliding label is moved before it is hidden instead.
+     *
+     * @return The maximum nudge distance in pixels.
+     */
+    public double getMaxNudge() {
+        return maxNudge;
+    }
+
+
+    /**
+     * Sets the maximum distance a colliding label is moved before it is hidden instead. A value of
+     * zero hides colliding labels without nudging them.
+     *
+     * @param maxNudge The maximum nudge distance in pixels.
+     */
+    public void setMaxNudge(double maxNudge) {
+        if (!(maxNudge >= 0)) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": maxNudge must not be negative.");
+        }
+        this.maxNudge = maxNudge;
+    }
+
+
+    /**
+     * Places the labels of the visible text annotations and the markers, hiding those that cannot
+     * be displayed without overlapping a label of equal or higher priority. Invoke after the
+     * annotations and markers have been laid out.
+     */
+    public void declutter() {
+        final int count = collectCandidates();
+        if (count == 0) {
+            annotations.setSuppressed(hidden);
+            return;
+        }
+
+        // Size the hash cells to the average label, so a label spans only a few cells
+        double sumWidth = 0;
+        double sumHeight = 0;
+        int measured = 0;
+        int minPriority = Integer.MAX_VALUE;
+        int maxPriority = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            final Candidate candidate = candidates.get(i);
+            if (candidate.label.getWidth() > 0 && candidate.label.getHeight() > 0) {
+                sumWidth += candidate.label.getWidth();
+                sumHeight += candidate.label.getHeight();
+                measured++;
+            }
+            minPriority = Math.min(minPriority, candidate.priority);
+            maxPriority = Math.max(maxPriority, candidate.priority);
+        }
+        if (minPriority != maxPriority) {
+            candidates.subList(0, count).sort(PLACEMENT_ORDER);
+        }
+        placed.reset(measured > 0 ? sumWidth / measured + 2 * padding : 1,
+            measured > 0 ? sumHeight / measured + 2 * padding : 1);
+
+        for (int i = 0; i < count; i++) {
+            place(candidates.get(i));
+        }
+        annotations.setSuppressed(hidden);
+        hidden.clear();
+        for (int i = 0; i < count; i++) {
+            candidates.get(i).clear();
+        }
+    }
+
+
+    /**
+     * Displays all the labels at their laid out positions. Invoke when decluttering is turned
+     * off.
+     */
+    public void reset() {
+        final int count = collectCandidates();
+        for (int i = 0; i < count; i++) {
+            final Candidate candidate = candidates.get(i);
+            show(candidate, 0, 0);
+            candidate.clear();
+        }
+        hidden.clear();
+        annotations.setSuppressed(hidden);
+    }
+
+
+    /**
+     * Gathers the labels into the candidate list in collection order.
+     *
+     * @return The number of candidates.
+     */
+    private int collectCandidates() {
+        textAnnotations.clear();
+        labeledMarkers.clear();
+        annotations.collectTextAnnotations(textAnnotations);
+        markers.collectLabeledMarkers(labeledMarkers);
+        int count = 0;
+        for (XYTextAnnotation annotation : textAnnotations) {
+            final Candidate candidate = candidate(count);
+            candidate.label = annotation.getLabelNode();
+            candidate.annotation = annotation;
+            candidate.priority = annotation.getPriority();
+            candidate.order = count++;
+            candidate.nudgeHorizontally = false;
+        }
+        for (ValueMarker marker : labeledMarkers) {
+            final Candidate candidate = candidate(count);
+            candidate.label = marker.getLabelNode();
+            candidate.marker = marker;
+            candidate.priority = marker.getPriority();
+            candidate.order = count++;
+            candidate.nudgeHorizontally = !marker.isDomainMarker();
+        }
+        textAnnotations.clear();
+        labeledMarkers.clear();
+        return count;
+    }
+
+
+    private Candidate candidate(int index) {
+        if (index == candidates.size()) {
+            candidates.add(new Candidate());
+        }
+        return candidates.get(index);
+    }
+
+
+    private void place(Candidate candidate) {
+        final Label label = candidate.label;
+        final double width = label.getWidth();
+        final double height = label.getHeight();
+        if (width <= 0 || height <= 0) {
+            // Not sized until its first layout; display it and run again when it is measured
+            show(candidate, 0, 0);
+            if (unmeasured.add(label)) {
+                label.widthProperty().addListener(sizeListener);
+            }
+            return;
+        }
+        final double x0 = label.getLayoutX() - padding;
+        final double y0 = label.getLayoutY() - padding;
+        final double x1 = x0 + width + 2 * padding;
+        final double y1 = y0 + height + 2 * padding;
+        if (!placed.intersects(x0, y0, x1, y1)) {
+            placed.insert(x0, y0, x1, y1);
+            show(candidate, 0, 0);
+            return;
+        }
+
+        // Try the shorter move that clears the overlapped labels, then the other
+        final double lower = candidate.nudgeHorizontally ? placed.hitMinX - x1 : placed.hitMinY - y1;
+        final double upper = candidate.nudgeHorizontally ? placed.hitMaxX - x0 : placed.hitMaxY - y0;
+        final double first = (-lower <= upper) ? lower : upper;
+        final double second = (-lower <= upper) ? upper : lower;
+        if (!nudge(candidate, first, x0, y0, x1, y1) && !nudge(candidate, second, x0, y0, x1, y1)) {
+            hide(candidate);
+        }
+    }
+
+
+    private boolean nudge(Candidate candidate, double distance, double x0, double y0, double x1, double y1) {
+        if (Math.abs(distance) > maxNudge) {
+            return false;
+        }
+        final double dx = candidate.nudgeHorizontally ? distance : 0;
+        final double dy = candidate.nudgeHorizontally ? 0 : distance;
+        if (placed.intersects(x0 + dx, y0 + dy, x1 + dx, y1 + dy)) {
+            return false;
+        }
+        placed.insert(x0 + dx, y0 + dy, x1 + dx, y1 + dy);
+        show(candidate, dx, dy);
+        return true;
+    }
+
+
+    private void show(Candidate candidate, double dx, double dy) {
+        candidate.label.setTranslateX(dx);
+        candidate.label.setTranslateY(dy);
+        if (candidate.marker != null) {
+            candidate.marker.setLabelShown(true);
+        }
+    }
+
+
+    private void hide(Candidate candidate) {
+        candidate.label.setTranslateX(0);
+        candidate.label.setTranslateY(0);
+        if (candidate.marker != null) {
+            candidate.marker.setLabelShown(false);
+        }
+        else {
+            hidden.add(candidate.annotation);
+        }
+    }
+
+
+    /**
+     * A uniform grid of cells, hashed by cell coordinates, holding the bounds of the placed
+     * labels. Each label is entered in every cell it overlaps; a label spanning more than
+     * MAX_CELLS_PER_AXIS cells is kept in a list that every query scans instead. The storage is
+     * reused from pass to pass. Package-private for testing.
+     */
+    static final class SpatialHash {
+
+        private static final int EMPTY = -1;
+        private static final int MAX_CELLS_PER_AXIS = 64;
+
+        private double cellWidth = 1;
+        private double cellHeight = 1;
+
+        // Open addressing table of cell keys and the head of each cell's entry chain
+        private long[] keys = new long[64];
+        private int[] heads = new int[64];
+        private int cellCount;
+
+        // Entry chains linking cells to boxes
+        private int[] next = new int[64];
+        private int[] entryBox = new int[64];
+        private int entryCount;
+
+        // The placed boxes as minX, minY, maxX, maxY
+        private double[] boxes = new double[64];
+        private int boxCount;
+
+        // The boxes too large to enter in the grid
+        private int[] largeBoxes = new int[16];
+        private int largeCount;
+
+        /**
+         * The union of the boxes found by the last intersects query.
+         */
+        double hitMinX;
+        double hitMinY;
+        double hitMaxX;
+        double hitMaxY;
+
+
+        SpatialHash() {
+            Arrays.fill(heads, EMPTY);
+        }
+
+
+        void reset(double cellWidth, double cellHeight) {
+            this.cellWidth = cellWidth;
+            this.cellHeight = cellHeight;
+            Arrays.fill(heads, EMPTY);
+            cellCount = 0;
+            entryCount = 0;
+            boxCount = 0;
+            largeCount = 0;
+        }
+
+
+        void insert(double x0, double y0, double x1, double y1) {
+            if ((boxCount + 1) * 4 > boxes.length) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            }
+            final int box = boxCount++;
+            boxes[box * 4] = x0;
+            boxes[box * 4 + 1] = y0;
+            boxes[box * 4 + 2] = x1;
+            boxes[box * 4 + 3] = y1;
+            final int cx0 = cellX(x0);
+            final int cx1 = cellX(x1);
+            final int cy0 = cellY(y0);
+            final int cy1 = cellY(y1);
+            if (isLarge(cx0, cy0, cx1, cy1)) {
+                if (largeCount == largeBoxes.length) {
+                    largeBoxes = Arrays.copyOf(largeBoxes, largeCount * 2);
+                }
+                largeBoxes[largeCount++] = box;
+                return;
+            }
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    addEntry(key(cx, cy), box);
+                }
+            }
+        }
+
+
+        boolean intersects(double x0, double y0, double x1, double y1) {
+            boolean found = false;
+            hitMinX = Double.POSITIVE_INFINITY;
+            hitMinY = Double.POSITIVE_INFINITY;
+            hitMaxX = Double.NEGATIVE_INFINITY;
+            hitMaxY = Double.NEGATIVE_INFINITY;
+            final int cx0 = cellX(x0);
+            final int cx1 = cellX(x1);
+            final int cy0 = cellY(y0);
+            final int cy1 = cellY(y1);
+            if (isLarge(cx0, cy0, cx1, cy1)) {
+                // Scanning all the boxes is cheaper than visiting the cells of a large query
+                for (int box = 0; box < boxCount; box++) {
+                    found |= hit(box, x0, y0, x1, y1);
+                }
+                return found;
+            }
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    final int slot = find(key(cx, cy));
+                    if (slot == EMPTY) {
+                        continue;
+                    }
+                    for (int entry = heads[slot]; entry != EMPTY; entry = next[entry]) {
+                        found |= hit(entryBox[entry], x0, y0, x1, y1);
+                    }
+                }
+            }
+            for (int i = 0; i < largeCount; i++) {
+                found |= hit(largeBoxes[i], x0, y0, x1, y1);
+            }
+            return found;
+        }
+
+
+        /**
+         * Tests whether a placed box overlaps a query box, adding it to the hit union if it does.
+         */
+        private boolean hit(int box, double x0, double y0, double x1, double y1) {
+            final int i = box * 4;
+            if (boxes[i] < x1 && boxes[i + 2] > x0 && boxes[i + 1] < y1 && boxes[i + 3] > y0) {
+                hitMinX = Math.min(hitMinX, boxes[i]);
+                hitMinY = Math.min(hitMinY, boxes[i + 1]);
+                hitMaxX = Math.max(hitMaxX, boxes[i + 2]);
+                hitMaxY = Math.max(hitMaxY, boxes[i + 3]);
+                return true;
+            }
+            return false;
+        }
+
+
+        private static boolean isLarge(int cx0, int cy0, int cx1, int cy1) {
+            // Note: compared as longs, since the cell coordinates of extreme values may overflow
+            return (long) cx1 - cx0 >= MAX_CELLS_PER_AXIS || (long) cy1 - cy0 >= MAX_CELLS_PER_AXIS;
+        }
+
+
+        private int cellX(double x) {
+            return (int) Math.floor(x / cellWidth);
+        }
+
+
+        private int cellY(double y) {
+            return (int) Math.floor(y / cellHeight);
+        }
+
+
+        private static long key(int cx, int cy) {
+            return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+        }
+
+
+        private int slotOf(long key) {
+            final long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+        }
+
+
+        /**
+         * Finds the table slot of a cell.
+         *
+         * @return The slot, or EMPTY if the cell holds no boxes.
+         */
+        private int find(long key) {
+            for (int slot = slotOf(key);; slot = (slot + 1) & (keys.length - 1)) {
+                if (heads[slot] == EMPTY) {
+                    return EMPTY;
+                }
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+        }
+
+
+        private void addEntry(long key, int box) {
+            if ((cellCount + 1) * 2 > keys.length) {
+                grow();
+            }
+            if (entryCount == next.length) {
+                next = Arrays.copyOf(next, next.length * 2);
+                entryBox = Arrays.copyOf(entryBox, entryBox.length * 2);
+            }
+            int slot = slotOf(key);
+            while (heads[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (heads[slot] == EMPTY) {
+                keys[slot] = key;
+                cellCount++;
+            }
+            entryBox[entryCount] = box;
+            next[entryCount] = heads[slot];
+            heads[slot] = entryCount++;
+        }
+
+
+        private void grow() {
+            final long[] oldKeys = keys;
+            final int[] oldHeads = heads;
+            keys = new long[oldKeys.length * 2];
+            heads = new int[oldHeads.length * 2];
+            Arrays.fill(heads, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] != EMPTY) {
+                    int slot = slotOf(oldKeys[i]);
+                    while (heads[slot] != EMPTY) {
+                        slot = (slot + 1) & (keys.length - 1);
+                    }
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+    }
+
+}
@@ -29,7 +29,8 @@
  */
 package com.emxsys.chart.extension;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import javafx.animation.Timeline;
 import javafx.beans.binding.DoubleBinding;
@@ -56,6 +57,33 @@ public class LogarithmicAxis extends NumericAxis {
     private final Timeline upperRangeTimeline = new Timeline();
     private final DoubleProperty logUpperBound = new SimpleDoubleProperty();
     private final DoubleProperty logLowerBound = new SimpleDoubleProperty();
+    private final TickBuffer ticks = new TickBuffer();
+
+    /**
+     * Powers of ten for the decade boundaries of the base 10 scale, indexed by exponent offset by
+     * MIN_POW10_EXPONENT.
+     */
+    private static final int MIN_POW10_EXPONENT = -323;
+    private static final double[] POW10 = new double[308 - MIN_POW10_EXPONENT + 1];
+
+    static {
+        for (int i = 0; i < POW10.length; i++) {
+            POW10[i] = Double.parseDouble("1e" + (i + MIN_POW10_EXPONENT));
+        }
+    }
+
+    /**
+     * The positive data extremes handed to ValueAxis.invalidateRange.
+     */
+    private final Number[] dataExtremes = new Number[2];
+    private final List<Number> dataExtremesList = Arrays.asList(dataExtremes);
+
+    /**
+     * The minor tick multipliers within one tick unit, recomputed when the unit or the minor tick
+     * count changes.
+     */
+    private double[] multipliers = new double[0];
+    private double multipliersFactor = Double.NaN;
 
     /**
      * The logarithm base.
@@ -72,6 +100,7 @@ public class LogarithmicAxis extends NumericAxis {
      */
     public LogarithmicAxis() {
         super();
+        bindLogBoundsToDefaultBounds();
     }
 
     /**
@@ -92,7 +121,7 @@ public class LogarithmicAxis extends NumericAxis {
      * @param tickUnit The tick unit, ie space between tickmarks
      */
     public LogarithmicAxis(double lowerBound, double upperBound, double tickUnit) {
-        this(null, lowerBound, upperBound, 1);
+        this(null, lowerBound, upperBound, tickUnit);
     }
 
     /**
@@ -124,32 +153,48 @@ public class LogarithmicAxis extends NumericAxis {
     }
 
     /**
-     * Binds our logarithmic bounds with the super class bounds. 
+     * Binds our logarithmic bounds to the current range of the super class, i.e., the current
+     * lower bound and scale, so that animated and live eased ranges are followed. The current
+     * upper bound is derived from the scale and the axis length; the upper bound property is
+     * used until a scale has been established.
      */
     private void bindLogBoundsToDefaultBounds() {
         // TODO: consider other than the base 10 logarithmic scale.
         logLowerBound.bind(new DoubleBinding() {
             {
-                super.bind(lowerBoundProperty());
+                super.bind(currentLowerBound);
             }
 
             @Override
             protected double computeValue() {
-                return calculateLog(getLowerBound());
+                return calculateLog(currentLowerBound.get());
             }
         });
         logUpperBound.bind(new DoubleBinding() {
             {
-                super.bind(upperBoundProperty());
+                super.bind(currentLowerBound, scaleProperty(), upperBoundProperty(),
+                        widthProperty(), heightProperty(), sideProperty());
             }
 
             @Override
             protected double computeValue() {
-                return calculateLog(getUpperBound());
+                return calculateLog(getCurrentUpperBound());
             }
         });
     }
 
+    /**
+     * Gets the upper bound of the current, possibly animated, range.
+     */
+    private double getCurrentUpperBound() {
+        final double scale = Math.abs(getScale());
+        final double length = getEffectiveSide().isVertical() ? getHeight() : getWidth();
+        if (scale == 0 || Double.isNaN(scale) || length <= 0) {
+            return getUpperBound();
+        }
+        return currentLowerBound.get() + length / scale;
+    }
+
     private void validateBounds(double lowerBound, double upperBound) {
         if (lowerBound >= upperBound) {
             throw new IllegalArgumentException(
@@ -157,6 +202,141 @@ public class LogarithmicAxis extends NumericAxis {
         }
     }
 
+    /**
+     * Updates the data range from the positive data values in a single pass. Non-positive values
+     * cannot be plotted on a logarithmic scale and are ignored; if there are no positive values
+     * the current bounds are retained.
+     *
+     * @param data The data values of all the series plotted on this axis.
+     */
+    @Override
+    public void invalidateRange(List<Number> data) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0, n = data.size(); i < n; i++) {
+            final Number number = data.get(i);
+            if (number == null) {
+                continue;
+            }
+            final double value = number.doubleValue();
+            if (value > 0 && value < Double.POSITIVE_INFINITY) {
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+        }
+        if (min > max) {
+            super.invalidateRange(Collections.<Number>emptyList());
+        }
+        else {
+            dataExtremes[0] = min;
+            dataExtremes[1] = max;
+            super.invalidateRange(dataExtremesList);
+        }
+    }
+
+    /**
+     * Pads the positive data extremes by the auto-range headroom in the logarithmic scale. Zero
+     * is never forced into a logarithmic range.
+     *
+     * @param extremes The data minimum and maximum, padded in place.
+     */
+    @Override
+    protected void padDataRange(double[] extremes) {
+        final double headroom = getAutoRangeHeadroom() * (calculateLog(extremes[1]) - calculateLog(extremes[0]));
+        final double factor = calculateValue(headroom);
+        extremes[0] /= factor;
+        extremes[1] *= factor;
+    }
+
+    /**
+     * Auto-ranges the axis to whole powers of the base that enclose the data. The tick unit is
+     * the smallest whole number of decades whose labels fit along the axis.
+     *
+     * @param minValue The min data value that needs to be plotted on this axis
+     * @param maxValue The max data value that needs to be plotted on this axis
+     * @param length The length of the axis in display coordinates
+     * @param labelSize The approximate average size a label takes along the axis
+     * @return The calculated range
+     */
+    @Override
+    protected Object autoRange(double minValue, double maxValue, double length, double labelSize) {
+        if (!(maxValue > 0)) {
+            maxValue = base;
+        }
+        if (!(minValue > 0) || minValue > maxValue) {
+            minValue = maxValue / base;
+        }
+        final int lowerExponent = (int) Math.floor(calculateLog(minValue));
+        int upperExponent = (int) Math.ceil(calculateLog(maxValue));
+        if (upperExponent <= lowerExponent) {
+            upperExponent = lowerExponent + 1;
+        }
+        final int decades = upperExponent - lowerExponent;
+        // calculate the number of tick-marks we can fit in the given length
+        final int numOfTickMarks = Math.max((int) Math.floor(length / labelSize), 2);
+        final int decadesPerTick = Math.max(1, (decades + numOfTickMarks - 2) / (numOfTickMarks - 1));
+
+        final double lowerBound = powerOfBase(lowerExponent);
+        final double upperBound = powerOfBase(upperExponent);
+        final double newScale = calculateNewScale(length, lowerBound, upperBound);
+        return new Object[]{lowerBound, upperBound, (double) decadesPerTick, newScale, getFormatPattern(lowerBound)};
+    }
+
+    /**
+     * Gets a number format pattern with enough fraction digits for the smallest tick value.
+     */
+    private static String getFormatPattern(double lowerBound) {
+        final int digits = (int) Math.ceil(-Math.log10(lowerBound) - 1e-9);
+        if (digits <= 0) {
+            return "#,##0";
+        }
+        final StringBuilder pattern = new StringBuilder("0.");
+        for (int i = 0; i < digits; i++) {
+            pattern.append('0');
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * Gets the base raised to a whole exponent, using the precomputed powers of ten on the base
+     * 10 scale.
+     *
+     * @param exponent The exponent.
+     * @return The power of the base.
+     */
+    private double powerOfBase(int exponent) {
+        final int index = exponent - MIN_POW10_EXPONENT;
+        if (base == 10.0 && index >= 0 && index < POW10.length) {
+            return POW10[index];
+        }
+        return Math.pow(base, exponent);
+    }
+
+    /**
+     * Gets the minor tick multipliers for one tick unit, i.e., the offsets of the minor ticks
+     * relative to the major tick that starts the unit.
+     *
+     * @param factor The ratio between adjacent major ticks.
+     * @param minorTickCount The number of minor divisions per unit.
+     * @return The multipliers, beginning with 1 for the major tick.
+     */
+    private double[] getMultipliers(double factor, int minorTickCount) {
+        final int count = Math.max(minorTickCount, 1);
+        if (factor != multipliersFactor || count != multipliers.length) {
+            final double[] table = new double[count];
+            for (int i = 0; i < count; i++) {
+                table[i] = 1 + i * ((factor - 1) / count);
+            }
+            multipliers = table;
+            multipliersFactor = factor;
+        }
+        return multipliers;
+    }
+
     /**
      * Calculates a list of all the data values for each tick mark in range.
      *
@@ -171,36 +351,39 @@ public class LogarithmicAxis extends NumericAxis {
         final double lowerBound = (Double) rangeProps[0];
         final double upperBound = (Double) rangeProps[1];
         final double tickUnit = (Double) rangeProps[2];
-        List<Number> tickValues = new ArrayList<>();
+        final TickBuffer tickValues = ticks;
+        tickValues.clear();
 
-        int minorTickCount = this.getTickUnitImpl().getMinorTickCount();
+        final int minorTickCount = this.getTickUnitImpl().getMinorTickCount();
+        final int unit = (int) Math.max(1, Math.round(tickUnit));
 
-        double start = Math.floor(calculateLog(getLowerBound()));
-        double end = Math.ceil(calculateLog(getUpperBound()));
-        double current = start;
-        boolean hasTicks = (this.getTickUnitImpl().getSize() > 0.0) && !Double.isInfinite(start);
-        while (hasTicks && current <= end) {
-            double v = calculateValue(current);
+        final double logLower = calculateLog(lowerBound);
+        final double logUpper = calculateLog(upperBound);
+        if (Double.isInfinite(logLower) || Double.isNaN(logLower) || Double.isNaN(logUpper)) {
+            return tickValues.toList();
+        }
+        final int start = (int) Math.floor(logLower);
+        final int end = (int) Math.ceil(logUpper);
+        // Major ticks are exact powers of the base; minor ticks come from the multiplier table.
+        final double[] table = getMultipliers(powerOfBase(unit), minorTickCount);
+        for (int exponent = start; exponent <= end; exponent += unit) {
+            final double v = powerOfBase(exponent);
             tickValues.add(v);
-
-            double next = Math.pow(this.base, current + this.getTickUnitImpl().getSize());
-            for (int i = 1; i < minorTickCount; i++) {
-                double minorV = v + i * ((next - v) / minorTickCount);
+            for (int i = 1; i < table.length; i++) {
+                final double minorV = v * table[i];
                 if (minorV >= lowerBound && minorV <= upperBound) {
                     tickValues.add(minorV);
                 }
             }
-            current = current + this.getTickUnitImpl().getSize();
         }
-
-        return tickValues;
+        return tickValues.toList();
     }
 
     // This logic is modeled after JFreeChart LogAxis class
     @Override
     protected List<Number> calculateMinorTickMarks() {
-        final Object[] range = (Object[]) getRange();
-        List<Number> minorTickMarksPositions = new ArrayList<>();
+        // The minor values are included in calculateTickValues
+        final List<Number> minorTickMarksPositions = Collections.emptyList();
         
 // JFree: This logic is modeled after JFreeChart LogAxis class:
 //        
@@ -250,6 +433,27 @@ public class LogarithmicAxis extends NumericAxis {
     }
 
 
+    /**
+     * Converts data values to display positions in bulk. The log bounds and the axis length are
+     * read once, reducing each conversion to a logarithm and a multiply-add.
+     *
+     * @param values The data values.
+     * @param positions Receives the display positions; may be the values array.
+     * @param count The number of values to convert.
+     */
+    @Override
+    public void getDisplayPositions(double[] values, double[] positions, int count) {
+        final double lower = logLowerBound.get();
+        final double delta = logUpperBound.get() - lower;
+        final boolean vertical = getSide().isVertical();
+        final double length = vertical ? getHeight() : getWidth();
+        // position = origin + ln(value) * slope
+        final double slope = (vertical ? -length : length) / (delta * baseLog);
+        final double origin = vertical ? length + lower * length / delta : -lower * length / delta;
+        VectorOps.logAffine(values, positions, count, origin, slope);
+    }
+
+
     @Override
     protected void layoutChildren() {
         super.layoutChildren();
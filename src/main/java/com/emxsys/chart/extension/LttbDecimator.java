@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+
+/**
+ * A decimator based on the Largest-Triangle-Three-Buckets algorithm (Steinarsson, 2013). The
+ * points are divided into equally sized buckets and the point in each bucket that forms the
+ * largest triangle with the previously selected point and the average of the next bucket is
+ * retained. LTTB preserves the visual shape of an x-ordered series with fewer points than M4, but
+ * it is not pixel exact.
+ *
+ * @author Bruce Schubert
+ */
+public class LttbDecimator implements XYDecimator {
+
+    private final double pointsPerPixel;
+
+
+    /**
+     * Constructs a decimator that retains two points per pixel column.
+     */
+    public LttbDecimator() {
+        this(2);
+    }
+
+
+    /**
+     * Constructs a decimator that retains the given number of points per pixel column.
+     *
+     * @param pointsPerPixel The number of points per pixel; must be greater than zero.
+     */
+    public LttbDecimator(double pointsPerPixel) {
+        if (pointsPerPixel <= 0) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": pointsPerPixel must be greater than zero.");
+        }
+        this.pointsPerPixel = pointsPerPixel;
+    }
+
+
+    @Override
+    public int decimate(double[] xPixels, double[] yValues, int count, double width) {
+        final int threshold = (int) Math.max(3, Math.ceil(width * pointsPerPixel));
+        if (count <= threshold) {
+            return count;
+        }
+        // The first and last points are always retained; the rest are divided into buckets.
+        final double bucketSize = (double) (count - 2) / (threshold - 2);
+
+        // The previously selected point (kept in locals since the arrays are compacted in place)
+        double ax = xPixels[0];
+        double ay = yValues[0];
+        int retained = 1;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, excluding NaN values
+            final int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            final int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            double avgX = 0;
+            double avgY = 0;
+            int nextCount = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                if (!Double.isNaN(yValues[i])) {
+                    avgX += xPixels[i];
+                    avgY += yValues[i];
+                    nextCount++;
+                }
+            }
+            if (nextCount > 0) {
+                avgX /= nextCount;
+                avgY /= nextCount;
+            }
+            else {
+                avgX = xPixels[count - 1];
+                avgY = yValues[count - 1];
+            }
+
+            // The point in this bucket forming the largest triangle
+            final int start = (int) (bucket * bucketSize) + 1;
+            final int end = nextStart;
+            int selected = start;
+            double maxArea = -1;
+            for (int i = start; i < end; i++) {
+                final double area = Math.abs((ax - avgX) * (yValues[i] - ay) - (ax - xPixels[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+            ax = xPixels[selected];
+            ay = yValues[selected];
+            xPixels[retained] = ax;
+            yValues[retained++] = ay;
+        }
+        xPixels[retained] = xPixels[count - 1];
+        yValues[retained++] = yValues[count - 1];
+        return retained;
+    }
+
+}
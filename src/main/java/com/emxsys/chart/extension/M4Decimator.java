@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+
+/**
+ * A decimator that retains the first, last, minimum and maximum points of each pixel column (the
+ * M4 aggregation). A line drawn through the retained points is rasterized identically to a line
+ * drawn through all the points.
+ *
+ * @author Bruce Schubert
+ */
+public class M4Decimator implements XYDecimator {
+
+    @Override
+    public int decimate(double[] xPixels, double[] yValues, int count, double width) {
+        if (count <= 4) {
+            return count;
+        }
+        int retained = 0;
+        int first = 0;
+        int min = 0;
+        int max = 0;
+        long column = (long) Math.floor(xPixels[0]);
+        for (int i = 1; i < count; i++) {
+            final long col = (long) Math.floor(xPixels[i]);
+            if (col != column) {
+                // Flush the previous column; note: i - 1 is the column's last point.
+                retained = flush(xPixels, yValues, retained, first, min, max, i - 1);
+                column = col;
+                first = min = max = i;
+            }
+            else {
+                // A NaN extreme, e.g., from a NaN first point, yields to any value
+                final double y = yValues[i];
+                if (y < yValues[min] || Double.isNaN(yValues[min])) {
+                    min = i;
+                }
+                if (y > yValues[max] || Double.isNaN(yValues[max])) {
+                    max = i;
+                }
+            }
+        }
+        return flush(xPixels, yValues, retained, first, min, max, count - 1);
+    }
+
+
+    /**
+     * Copies the distinct first, min, max and last points of a column to the retained position, in
+     * their original order. The retained position never exceeds the column's first index, so the
+     * copy is safe to perform in place.
+     */
+    private static int flush(double[] xPixels, double[] yValues, int retained, int first, int min, int max, int last) {
+        final int lo = Math.min(min, max);
+        final int hi = Math.max(min, max);
+        // Read all the candidates before any are overwritten
+        final double x0 = xPixels[first], y0 = yValues[first];
+        final double x1 = xPixels[lo], y1 = yValues[lo];
+        final double x2 = xPixels[hi], y2 = yValues[hi];
+        final double x3 = xPixels[last], y3 = yValues[last];
+
+        xPixels[retained] = x0;
+        yValues[retained++] = y0;
+        if (lo != first) {
+            xPixels[retained] = x1;
+            yValues[retained++] = y1;
+        }
+        if (hi != lo && hi != first) {
+            xPixels[retained] = x2;
+            yValues[retained++] = y2;
+        }
+        if (last != hi && last != first) {
+            xPixels[retained] = x3;
+            yValues[retained++] = y3;
+        }
+        return retained;
+    }
+
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javafx.beans.InvalidationListener;
+
+
+/**
+ * A read-only XYDataSource backed by a memory-mapped binary file of fixed-width little-endian
+ * records. Opening a file maps it without reading it, so even multi-gigabyte captures open
+ * instantly; the operating system pages in only the records that are read. When the x values are
+ * sorted, the charts binary search the visible range, so the resident memory follows the
+ * viewport. For example:
+ * <pre>{@code
+ * chart.getDataSources().add(new MappedXYDataSource("Capture", Paths.get("capture.bin")));
+ * }</pre>
+ * <p>
+ * The default record is an x double followed by a y double (16 bytes). The x extents of a sorted
+ * file are read from its first and last records, and the y extents (and the x extents of an
+ * unsorted file) are estimated from an evenly spaced sample of the records. Opening a file never
+ * reads it in full.
+ * <p>
+ * The aggregate pyramid of the y values and the exact extents are taken from a sidecar file,
+ * named after the data file with an {@value #AGGREGATE_SUFFIX} suffix, when one matching the data
+ * file exists. writeAggregates() reads the file once to create the sidecar, e.g., when a capture
+ * is complete; it should be called off the JavaFX application thread, and the sidecar is used
+ * the next time the file is opened. The finest level of the pyramid is coarsened for very large
+ * files so that it stays within a few tens of megabytes.
+ * <p>
+ * The file must not be truncated while it is mapped. close() releases the source; the mappings
+ * themselves are unmapped when they are garbage collected.
+ *
+ * @author Bruce Schubert
+ */
+public class MappedXYDataSource implements XYDataSource, Closeable {
+
+    /**
+     * The size of the default record: an x double followed by a y double.
+     */
+    public static final int DEFAULT_RECORD_SIZE = 16;
+
+    /**
+     * The suffix appended to the name of a data file to name its aggregate sidecar file.
+     */
+    public static final String AGGREGATE_SUFFIX = ".lod";
+
+    /**
+     * The maximum number of buckets in the finest level of the aggregate pyramid.
+     */
+    private static final int MAX_PYRAMID_BUCKETS = 1 << 20;
+
+    /**
+     * The number of records read to estimate the extents without a sidecar.
+     */
+    private static final int EXTENT_SAMPLES = 1 << 16;
+
+    /**
+     * The number of bytes read at once when building the aggregates.
+     */
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Identifies an aggregate sidecar file ("LOD1").
+     */
+    private static final int AGGREGATE_MAGIC = 0x4C4F4431;
+
+    private final String name;
+    private final Path file;
+    private final long headerSize;
+    private final long fileSize;
+    private final long lastModified;
+    private final int recordsPerChunk;
+    private final int recordSize;
+    private final int xOffset;
+    private final int yOffset;
+    private final boolean xSorted;
+    private ByteBuffer[] chunks;
+    private int size;
+
+    private double minX, maxX, minY, maxY;
+    private boolean extentsValid = false;
+    private boolean closed = false;
+    private XYAggregatePyramid pyramid;
+    private final List<InvalidationListener> listeners = new ArrayList<>();
+
+
+    /**
+     * Maps a file of x,y double records sorted by x.
+     *
+     * @param name The series name; may be null.
+     * @param file The binary file.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public MappedXYDataSource(String name, Path file) throws IOException {
+        this(name, file, 0, DEFAULT_RECORD_SIZE, 0, 8, true);
+    }
+
+
+    /**
+     * Maps a file of fixed-width records.
+     *
+     * @param name The series name; may be null.
+     * @param file The binary file.
+     * @param headerSize The number of bytes preceding the first record.
+     * @param recordSize The size of a record in bytes.
+     * @param xOffset The offset of the little-endian x double within a record.
+     * @param yOffset The offset of the little-endian y double within a record.
+     * @param xSorted True if the records are in ascending x order.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @throws IllegalArgumentException if the file holds more than Integer.MAX_VALUE records.
+     */
+    public MappedXYDataSource(String name, Path file, long headerSize, int recordSize, int xOffset,
+                              int yOffset, boolean xSorted) throws IOException {
+        Objects.requireNonNull(file, getClass().getSimpleName() + ": file must not be null");
+        if (headerSize < 0) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": headerSize cannot be negative.");
+        }
+        if (xOffset < 0 || xOffset + Double.BYTES > recordSize
+            || yOffset < 0 || yOffset + Double.BYTES > recordSize) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": the x and y values must lie within the record.");
+        }
+        this.name = name;
+        this.file = file;
+        this.headerSize = headerSize;
+        this.recordSize = recordSize;
+        this.xOffset = xOffset;
+        this.yOffset = yOffset;
+        this.xSorted = xSorted;
+        this.lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        // A mapping is limited to 2 GB, so the file is mapped in chunks of whole records.
+        this.recordsPerChunk = Integer.MAX_VALUE / recordSize;
+        final long chunkBytes = (long) recordsPerChunk * recordSize;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.fileSize = channel.size();
+            final long records = Math.max(0, fileSize - headerSize) / recordSize;
+            if (records > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(getClass().getSimpleName() + ": the file holds "
+                    + records + " records; an XYDataSource is limited to " + Integer.MAX_VALUE + ".");
+            }
+            this.size = (int) records;
+            final int chunkCount = (int) ((size + (long) recordsPerChunk - 1) / recordsPerChunk);
+            this.chunks = new ByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                final long position = headerSize + i * chunkBytes;
+                final long length = Math.min(chunkBytes, (long) size * recordSize - i * chunkBytes);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        readAggregates();
+    }
+
+
+    /**
+     * Gets the aggregate sidecar file of a data file.
+     *
+     * @param file The data file.
+     * @return The file named after the data file with the AGGREGATE_SUFFIX.
+     */
+    public static Path getAggregateFile(Path file) {
+        return file.resolveSibling(file.getFileName() + AGGREGATE_SUFFIX);
+    }
+
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public double getX(int index) {
+        return read(index, xOffset);
+    }
+
+
+    @Override
+    public double getY(int index) {
+        return read(index, yOffset);
+    }
+
+
+    @Override
+    public boolean isXSorted() {
+        return xSorted;
+    }
+
+
+    @Override
+    public double getMinX() {
+        validateExtents();
+        return minX;
+    }
+
+
+    @Override
+    public double getMaxX() {
+        validateExtents();
+        return maxX;
+    }
+
+
+    @Override
+    public double getMinY() {
+        validateExtents();
+        return minY;
+    }
+
+
+    @Override
+    public double getMaxY() {
+        validateExtents();
+        return maxY;
+    }
+
+
+    /**
+     * Gets the aggregate pyramid of the y values.
+     *
+     * @return The pyramid read from the sidecar file; null if there is no matching sidecar.
+     */
+    @Override
+    public XYAggregatePyramid getAggregatePyramid() {
+        return pyramid;
+    }
+
+
+    /**
+     * The values are immutable; the listeners are notified only when the source is closed.
+     */
+    @Override
+    public void addListener(InvalidationListener listener) {
+        Objects.requireNonNull(listener, getClass().getSimpleName() + ": listener must not be null");
+        listeners.add(listener);
+    }
+
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * Reads the whole file once to build the aggregate pyramid and the exact extents, and writes
+     * them to the sidecar file, replacing any previous one. The file is read through the channel
+     * rather than the mapping, so the records do not remain resident. The sidecar is used when
+     * the file is next opened.
+     *
+     * @throws IOException if the file cannot be read or the sidecar cannot be written.
+     * @throws IllegalStateException if the source is closed.
+     */
+    public void writeAggregates() throws IOException {
+        if (closed) {
+            throw new IllegalStateException(getClass().getSimpleName() + ": the source is closed.");
+        }
+        int shift = XYAggregatePyramid.BASE_SHIFT;
+        while ((size >> shift) > MAX_PYRAMID_BUCKETS) {
+            shift++;
+        }
+        final XYAggregatePyramid built = new XYAggregatePyramid(shift);
+        double lowX = Double.NaN;
+        double highX = Double.NaN;
+        final int recordsPerRead = Math.max(1, READ_BUFFER_SIZE / recordSize);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(recordsPerRead * recordSize)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int index = 0;
+            while (index < size) {
+                final int count = Math.min(recordsPerRead, size - index);
+                buffer.clear();
+                buffer.limit(count * recordSize);
+                long position = headerSize + (long) index * recordSize;
+                while (buffer.hasRemaining()) {
+                    final int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException(getClass().getSimpleName() + ": the file was truncated.");
+                    }
+                    position += read;
+                }
+                for (int i = 0; i < count; i++) {
+                    built.append(buffer.getDouble(i * recordSize + yOffset));
+                    final double x = buffer.getDouble(i * recordSize + xOffset);
+                    // Note: NaN values are skipped by the comparisons
+                    if (!(x >= lowX) && !Double.isNaN(x)) {
+                        lowX = x;
+                    }
+                    if (!(x <= highX) && !Double.isNaN(x)) {
+                        highX = x;
+                    }
+                }
+                index += count;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(getAggregateFile(file))))) {
+            out.writeInt(AGGREGATE_MAGIC);
+            writeLayout(out);
+            out.writeDouble(lowX);
+            out.writeDouble(highX);
+            built.write(out);
+        }
+    }
+
+
+    /**
+     * Closes the source: the records, extents and pyramid are released and the listeners are
+     * notified, so it should be called on the JavaFX application thread while the source is
+     * charted. The source is empty afterwards.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunks = new ByteBuffer[0];
+        size = 0;
+        pyramid = null;
+        extentsValid = true;
+        minX = maxX = minY = maxY = Double.NaN;
+        for (InvalidationListener listener : new ArrayList<>(listeners)) {
+            listener.invalidated(this);
+        }
+    }
+
+
+    private double read(int index, int offset) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        final ByteBuffer chunk = chunks[index / recordsPerChunk];
+        return chunk.getDouble((index % recordsPerChunk) * recordSize + offset);
+    }
+
+
+    /**
+     * Writes the layout and state of the data file that a sidecar belongs to.
+     */
+    private void writeLayout(DataOutputStream out) throws IOException {
+        out.writeLong(lastModified);
+        out.writeLong(fileSize);
+        out.writeLong(headerSize);
+        out.writeInt(recordSize);
+        out.writeInt(xOffset);
+        out.writeInt(yOffset);
+    }
+
+
+    /**
+     * Takes the pyramid and the exact extents from the sidecar file, if it exists and was written
+     * for this file in its current state. A stale or unreadable sidecar is ignored.
+     */
+    private void readAggregates() {
+        final Path aggregateFile = getAggregateFile(file);
+        if (size == 0 || !Files.isRegularFile(aggregateFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(aggregateFile)))) {
+            if (in.readInt() != AGGREGATE_MAGIC
+                || in.readLong() != lastModified
+                || in.readLong() != fileSize
+                || in.readLong() != headerSize
+                || in.readInt() != recordSize
+                || in.readInt() != xOffset
+                || in.readInt() != yOffset) {
+                return;
+            }
+            final double exactMinX = in.readDouble();
+            final double exactMaxX = in.readDouble();
+            final XYAggregatePyramid stored = XYAggregatePyramid.read(in);
+            if (stored.size() != size) {
+                return;
+            }
+            pyramid = stored;
+            minX = exactMinX;
+            maxX = exactMaxX;
+            minY = stored.getMinY();
+            maxY = stored.getMaxY();
+            extentsValid = true;
+        }
+        catch (IOException ex) {
+            // The sidecar is only an optimization; fall back to the sampled extents
+        }
+    }
+
+
+    /**
+     * Estimates the extents from an evenly spaced sample of the records, including the first and
+     * last.
+     */
+    private void validateExtents() {
+        if (extentsValid) {
+            return;
+        }
+        extentsValid = true;
+        minX = maxX = minY = maxY = Double.NaN;
+        final long stride = Math.max(1, size / EXTENT_SAMPLES);
+        for (long i = 0; i < size; i += stride) {
+            includeExtents((int) i);
+        }
+        if (size > 0) {
+            includeExtents(size - 1);
+        }
+        if (xSorted && size > 0) {
+            minX = getX(0);
+            maxX = getX(size - 1);
+        }
+    }
+
+
+    private void includeExtents(int index) {
+        final double x = getX(index);
+        final double y = getY(index);
+        // Note: NaN values are skipped by the comparisons
+        if (!(x >= minX) && !Double.isNaN(x)) {
+            minX = x;
+        }
+        if (!(x <= maxX) && !Double.isNaN(x)) {
+            maxX = x;
+        }
+        if (!(y >= minY) && !Double.isNaN(y)) {
+            minY = y;
+        }
+        if (!(y <= maxY) && !Double.isNaN(y)) {
+            maxY = y;
+        }
+    }
+
+}
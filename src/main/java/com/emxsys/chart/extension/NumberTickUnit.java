@@ -63,6 +63,15 @@ public class NumberTickUnit extends TickUnit {
         this.formatter = formatter;
     }
 
+    /**
+     * Gets the number formatter used for the tick labels.
+     *
+     * @return The formatter; null if the default formatter is used.
+     */
+    public NumberFormat getNumberFormatter() {
+        return formatter == defaultFormatter ? null : formatter;
+    }
+
     /**
      * Get the string label name for a tick mark with the given value
      *
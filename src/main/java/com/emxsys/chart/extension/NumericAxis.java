@@ -30,19 +30,29 @@
 package com.emxsys.chart.extension;
 
 import com.sun.javafx.charts.ChartLayoutAnimator;
+import java.text.DecimalFormat;
 import java.text.NumberFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.BooleanPropertyBase;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.DoublePropertyBase;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ObjectPropertyBase;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Orientation;
 import javafx.geometry.Side;
 import javafx.scene.chart.ValueAxis;
 import javafx.util.Duration;
-import javafx.util.StringConverter;
 
 
 /**
@@ -52,11 +62,65 @@ import javafx.util.StringConverter;
  */
 public class NumericAxis extends ValueAxis<Number> {
 
+    /**
+     * The maximum number of major tick marks selected by autoRange.
+     */
+    private static final int MAX_TICK_COUNT = 20;
+    /**
+     * The minimum gap between adjacent tick labels.
+     */
+    private static final double TICK_LABEL_GAP = 6;
+    /**
+     * The maximum number of estimation steps taken by autoRange.
+     */
+    private static final int MAX_ESTIMATES = 4;
+    /**
+     * The distance, in pixels, below which an eased live range snaps to its target.
+     */
+    private static final double LIVE_SNAP_DISTANCE = 0.5;
+    /**
+     * The fraction of the axis length that must be free at one end before a held range shrinks.
+     */
+    private static final double SHRINK_FRACTION = 0.25;
+
     private Object currentAnimationID;
     private final ChartLayoutAnimator animator = new ChartLayoutAnimator(this);
-    private TickUnitSource standardTickUnits;
+    private TickUnitSource standardTickUnits = createStandardTickUnits();
     
     private NumberTickUnit tickUnit;
+    private NumberFormat customFormatter;
+    private final Map<String, NumberFormat> rangeFormats = new HashMap<>();
+    private final TickLabelSizeCache.Measurer labelMeasurer = this::measureTickMarkLabelSize;
+    private final TickBuffer majorTicks = new TickBuffer();
+    private final TickBuffer minorTicks = new TickBuffer();
+
+    /**
+     * The range most recently set in live mode, approached by the eased current range.
+     */
+    private double liveTargetLowerBound;
+    private double liveTargetScale;
+    private boolean liveEasing;
+    /**
+     * Requests one axis layout per pulse while a live range is easing.
+     */
+    private final AnimationTimer livePulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            requestAxisLayout();
+        }
+    };
+
+    /**
+     * The auto-ranged bounds held while the data stays within them, and the padded extremes of
+     * the latest data.
+     */
+    private double heldLowerBound;
+    private double heldUpperBound;
+    private boolean heldRangeValid;
+    private final double[] dataRange = new double[2];
+    private final Number[] dataExtremes = new Number[2];
+    private final List<Number> dataExtremesList = Arrays.asList(dataExtremes);
+    private PauseTransition shrinkTimer;
 
 
     /**
@@ -64,6 +128,7 @@ public class NumericAxis extends ValueAxis<Number> {
      */
     public NumericAxis() {
         this.tickUnit = new NumberTickUnit();
+        invalidateLabelSizesOnFontChange();
     }
 
 
@@ -76,6 +141,7 @@ public class NumericAxis extends ValueAxis<Number> {
     public NumericAxis(double lowerBound, double upperBound) {
         super(lowerBound, upperBound);
         this.tickUnit = new NumberTickUnit();
+        invalidateLabelSizesOnFontChange();
     }
 
 
@@ -90,6 +156,7 @@ public class NumericAxis extends ValueAxis<Number> {
     public NumericAxis(double lowerBound, double upperBound, double tickUnit) {
         super(lowerBound, upperBound);
         this.tickUnit = new NumberTickUnit(tickUnit);
+        invalidateLabelSizesOnFontChange();
     }
 
 
@@ -105,6 +172,7 @@ public class NumericAxis extends ValueAxis<Number> {
         super(lowerBound, upperBound);
         this.tickUnit = new NumberTickUnit(tickUnit);
         setLabel(axisLabel);
+        invalidateLabelSizesOnFontChange();
     }
 
 
@@ -112,13 +180,54 @@ public class NumericAxis extends ValueAxis<Number> {
         return tickUnit.getSize();
     }
 
+
+    /**
+     * Creates the standard tick units, a 1, 2, 5 sequence from 1e-10 to 5e12. The units have no
+     * formatter of their own, so their labels are formatted with a pattern that suits the unit.
+     *
+     * @return A new tick unit source.
+     */
+    public static TickUnitSource createStandardTickUnits() {
+        final TickUnitSource units = new TickUnitSource();
+        for (int exp = -10; exp <= 12; exp++) {
+            final double decade = Double.parseDouble("1e" + exp);
+            units.add(new NumberTickUnit(decade));
+            units.add(new NumberTickUnit(2 * decade));
+            units.add(new NumberTickUnit(5 * decade));
+        }
+        return units;
+    }
+
+
+    public final TickUnitSource getStandardTickUnits() {
+        return standardTickUnits;
+    }
+
+
+    /**
+     * Sets the tick units selected from when auto-ranging.
+     *
+     * @param source A source of NumberTickUnits.
+     */
+    public final void setStandardTickUnits(TickUnitSource source) {
+        this.standardTickUnits = Objects.requireNonNull(source,
+            getClass().getSimpleName() + ": source must not be null");
+        if (isAutoRanging()) {
+            invalidateRange();
+            requestAxisLayout();
+        }
+    }
+
     
     protected NumberTickUnit getTickUnitImpl() {
         return tickUnit;
     }
 
     public final void setNumberFormatter(NumberFormat formatter) {
+        this.customFormatter = formatter;
         this.tickUnit.setNumberFormatter(formatter);
+        invalidateRange();
+        requestAxisLayout();
     }
 
 
@@ -168,6 +277,180 @@ public class NumericAxis extends ValueAxis<Number> {
         return forceZeroInRange;
     }
 
+    /**
+     * When true, range changes are applied directly in layout instead of by an animation
+     * timeline. Use live mode for charts receiving a continuous stream of data, where animated
+     * range changes would restart on every update.
+     */
+    private final BooleanProperty live = new BooleanPropertyBase(false) {
+        @Override
+        protected void invalidated() {
+            if (get()) {
+                animator.stop(currentAnimationID);
+            }
+            else {
+                stopLiveEasing();
+            }
+        }
+
+
+        @Override
+        public Object getBean() {
+            return NumericAxis.this;
+        }
+
+
+        @Override
+        public String getName() {
+            return "live";
+        }
+    };
+
+
+    public final boolean isLive() {
+        return live.get();
+    }
+
+
+    public final void setLive(boolean value) {
+        live.set(value);
+    }
+
+
+    public final BooleanProperty liveProperty() {
+        return live;
+    }
+
+    /**
+     * The fraction of the remaining distance to a new range covered on each pulse in live mode. A
+     * value of 1 applies range changes immediately; smaller values ease the range exponentially
+     * towards its target.
+     */
+    private final DoubleProperty liveEasingFactor = new DoublePropertyBase(1) {
+        @Override
+        protected void invalidated() {
+            final double value = get();
+            if (!(value > 0 && value <= 1)) {
+                throw new IllegalArgumentException(NumericAxis.class.getSimpleName()
+                    + ": liveEasingFactor must be in the range (0, 1]: " + value);
+            }
+        }
+
+
+        @Override
+        public Object getBean() {
+            return NumericAxis.this;
+        }
+
+
+        @Override
+        public String getName() {
+            return "liveEasingFactor";
+        }
+    };
+
+
+    public final double getLiveEasingFactor() {
+        return liveEasingFactor.get();
+    }
+
+
+    public final void setLiveEasingFactor(double value) {
+        liveEasingFactor.set(value);
+    }
+
+
+    public final DoubleProperty liveEasingFactorProperty() {
+        return liveEasingFactor;
+    }
+
+    /**
+     * The fraction of the data span added above and below the data when an auto-ranging axis
+     * expands. A positive headroom enables hysteresis: the range is held while new data falls
+     * within it, and only shrinks after the data has stayed within a smaller range for the
+     * autoRangeShrinkDelay. Zero, the default, re-ranges on every data change.
+     */
+    private final DoubleProperty autoRangeHeadroom = new DoublePropertyBase(0) {
+        @Override
+        protected void invalidated() {
+            if (get() < 0) {
+                throw new IllegalArgumentException(NumericAxis.class.getSimpleName()
+                    + ": autoRangeHeadroom must not be negative: " + get());
+            }
+            heldRangeValid = false;
+            stopShrinkTimer();
+            if (isAutoRanging()) {
+                invalidateRange();
+                requestAxisLayout();
+            }
+        }
+
+
+        @Override
+        public Object getBean() {
+            return NumericAxis.this;
+        }
+
+
+        @Override
+        public String getName() {
+            return "autoRangeHeadroom";
+        }
+    };
+
+
+    public final double getAutoRangeHeadroom() {
+        return autoRangeHeadroom.get();
+    }
+
+
+    public final void setAutoRangeHeadroom(double value) {
+        autoRangeHeadroom.set(value);
+    }
+
+
+    public final DoubleProperty autoRangeHeadroomProperty() {
+        return autoRangeHeadroom;
+    }
+
+    /**
+     * How long the data must stay within a smaller range before a held range shrinks to fit it.
+     */
+    private final ObjectProperty<Duration> autoRangeShrinkDelay = new ObjectPropertyBase<Duration>(Duration.seconds(5)) {
+        @Override
+        protected void invalidated() {
+            stopShrinkTimer();
+            shrinkTimer = null;
+        }
+
+
+        @Override
+        public Object getBean() {
+            return NumericAxis.this;
+        }
+
+
+        @Override
+        public String getName() {
+            return "autoRangeShrinkDelay";
+        }
+    };
+
+
+    public final Duration getAutoRangeShrinkDelay() {
+        return autoRangeShrinkDelay.get();
+    }
+
+
+    public final void setAutoRangeShrinkDelay(Duration value) {
+        autoRangeShrinkDelay.set(value);
+    }
+
+
+    public final ObjectProperty<Duration> autoRangeShrinkDelayProperty() {
+        return autoRangeShrinkDelay;
+    }
+
     private Orientation effectiveOrientation;
 
 
@@ -187,29 +470,6 @@ public class NumericAxis extends ValueAxis<Number> {
     }
 
 
-    /**
-     * Measure the size of the label for given tick mark value. This uses the font that is set for
-     * the tick marks
-     *
-     * @param value tick mark value
-     * @param rotation The text rotation
-     * @param numFormatter The number formatter
-     * @return size of tick mark label for given value
-     */
-    private Dimension2D measureTickMarkSize(Number value, double rotation, String numFormatter) {
-        String labelText;
-        StringConverter<Number> formatter = getTickLabelFormatter();
-        //if (formatter == null) formatter = defaultFormatter;
-//        if(formatter instanceof NumberAxis.DefaultFormatter) {
-//            labelText = ((NumberAxis.DefaultFormatter)formatter).toString(value, numFormatter);
-//        } else {
-//            labelText = formatter.toString(value);
-//        }
-        labelText = formatter.toString(value);
-        return measureTickMarkLabelSize(labelText, rotation);
-    }
-
-
     /**
      * Called to set the upper and lower bound and anything else that needs to be auto-ranged
      *
@@ -251,83 +511,267 @@ public class NumericAxis extends ValueAxis<Number> {
         int numOfTickMarks = (int) Math.floor(length / labelSize);
         // can never have less than 2 tick marks one for each end
         numOfTickMarks = Math.max(numOfTickMarks, 2);
-        // calculate tick unit for the number of ticks can have in the given data range
-        double tickUnit = paddedRange / (double) numOfTickMarks;
-        // search for the best tick unit that fits
-        double tickUnitRounded = 0;
-        double minRounded = 0;
-        double maxRounded = 0;
-        int count = 0;
-        double reqLength = Double.MAX_VALUE;
-        String formatter = "0.00000000";
-
-        // loop till we find a set of ticks that fit length and result in a total of less than 20 tick marks
-        while (reqLength > length || count > 20) {
-            int exp = (int) Math.floor(Math.log10(tickUnit));
-            final double mant = tickUnit / Math.pow(10, exp);
-            double ratio = mant;
-            if (mant > 5d) {
-                exp++;
-                ratio = 1;
-            }
-            else if (mant > 1d) {
-                ratio = mant > 2.5 ? 5 : 2.5;
-            }
-            if (exp > 1) {
-                formatter = "#,##0";
-            }
-            else if (exp == 1) {
-                formatter = "0";
-            }
-            else {
-                final boolean ratioHasFrac = Math.rint(ratio) != ratio;
-                final StringBuilder formatterB = new StringBuilder("0");
-                int n = ratioHasFrac ? Math.abs(exp) + 1 : Math.abs(exp);
-                if (n > 0) {
-                    formatterB.append(".");
-                }
-                for (int i = 0; i < n; ++i) {
-                    formatterB.append("0");
-                }
-                formatter = formatterB.toString();
 
+        // Select the tick unit in closed form from the estimated label sizes. Each step either
+        // accepts the unit or jumps directly to the unit whose labels fit the length.
+        final boolean vertical = side.isVertical();
+        final double rotation = getTickLabelRotation();
+        final TickLabelMetrics metrics = TickLabelMetrics.forFont(getTickLabelFont());
+        final TickUnitSource units = standardTickUnits;
+        TickUnit unit = units.getCeilingTickUnit(paddedRange / numOfTickMarks);
+        for (int step = 0; step < MAX_ESTIMATES; step++) {
+            final double unitSize = unit.getSize();
+            final NumberFormat format = getUnitFormat(unit);
+            final double minRounded = Math.floor(paddedMin / unitSize) * unitSize;
+            final double maxRounded = Math.ceil(paddedMax / unitSize) * unitSize;
+            final double gap = TICK_LABEL_GAP + Math.max(
+                metrics.estimateSize(format.format(minRounded), rotation, vertical),
+                metrics.estimateSize(format.format(maxRounded), rotation, vertical));
+            final long count = Math.round((maxRounded - minRounded) / unitSize) + 1;
+            if ((count - 1) * gap <= length && count <= MAX_TICK_COUNT) {
+                break;
             }
-            tickUnitRounded = ratio * Math.pow(10, exp);
-            // move min and max to nearest tick mark
-            minRounded = Math.floor(paddedMin / tickUnitRounded) * tickUnitRounded;
-            maxRounded = Math.ceil(paddedMax / tickUnitRounded) * tickUnitRounded;
-            // calculate the required length to display the chosen tick marks for real, this will handle if there are
-            // huge numbers involved etc or special formatting of the tick mark label text
-            double maxReqTickGap = 0;
-            double last = 0;
-            count = 0;
-            for (double major = minRounded; major <= maxRounded; major += tickUnitRounded, count++) {
-                double size = side.isVertical() ? measureTickMarkSize(major, getTickLabelRotation(), formatter).getHeight()
-                    : measureTickMarkSize(major, getTickLabelRotation(), formatter).getWidth();
-                if (major == minRounded) { // first
-                    last = size / 2;
-                }
-                else {
-                    maxReqTickGap = Math.max(maxReqTickGap, last + 6 + (size / 2));
-                }
-            }
-            reqLength = (count - 1) * maxReqTickGap;
-            tickUnit = tickUnitRounded;
+            final double fit = Math.max(2, Math.min(MAX_TICK_COUNT, Math.floor(length / gap) + 1));
+            final TickUnit fitUnit = units.getCeilingTickUnit(paddedRange / (fit - 1));
+            final TickUnit larger = units.getLargerTickUnit(unit);
+            unit = fitUnit.getSize() > larger.getSize() ? fitUnit : larger;
+        }
 
-            // fix for RT-35600 where a massive tick unit was being selected
-            // unnecessarily. There is probably a better solution, but this works
-            // well enough for now.
-            if (numOfTickMarks == 2 && reqLength > length) {
+        // Verify the final choice with the real label sizes, widening the unit once if needed.
+        double minRounded;
+        double maxRounded;
+        for (int step = 0;; step++) {
+            final double unitSize = unit.getSize();
+            final NumberFormat format = getUnitFormat(unit);
+            minRounded = Math.floor(paddedMin / unitSize) * unitSize;
+            maxRounded = Math.ceil(paddedMax / unitSize) * unitSize;
+            final double gap = TICK_LABEL_GAP + Math.max(
+                measureTickLabel(format.format(minRounded), rotation, vertical),
+                measureTickLabel(format.format(maxRounded), rotation, vertical));
+            final long count = Math.round((maxRounded - minRounded) / unitSize) + 1;
+            // fix for RT-35600 where a massive tick unit was being selected unnecessarily
+            if (step > 0 || numOfTickMarks == 2 || (count - 1) * gap <= length) {
                 break;
             }
-            if (reqLength > length || count > 20) {
-                tickUnit *= 2; // This is just for the while loop, if there are still too many ticks
-            }
+            unit = units.getLargerTickUnit(unit);
         }
+        final double tickUnitRounded = unit.getSize();
+        final String formatter = getFormatPattern(tickUnitRounded);
         // calculate new scale
         final double newScale = calculateNewScale(length, minRounded, maxRounded);
         // return new range
-        return new Object[]{minRounded, maxRounded, tickUnitRounded, newScale, formatter};
+        return new Object[]{minRounded, maxRounded, tickUnitRounded, newScale, formatter, unit};
+    }
+
+
+    /**
+     * Gets the number format pattern for the labels of a tick unit.
+     *
+     * @param unit The tick unit.
+     * @return A DecimalFormat pattern.
+     */
+    private static String getFormatPattern(double unit) {
+        final int exp = (int) Math.floor(Math.log10(unit));
+        if (exp > 1) {
+            return "#,##0";
+        }
+        else if (exp == 1) {
+            return "0";
+        }
+        final double ratio = unit / Math.pow(10, exp);
+        final boolean ratioHasFrac = Math.abs(Math.rint(ratio) - ratio) > 1e-9;
+        final int n = ratioHasFrac ? Math.abs(exp) + 1 : Math.abs(exp);
+        final StringBuilder formatterB = new StringBuilder("0");
+        if (n > 0) {
+            formatterB.append(".");
+        }
+        for (int i = 0; i < n; ++i) {
+            formatterB.append("0");
+        }
+        return formatterB.toString();
+    }
+
+
+    /**
+     * Gets the number format for the labels of a tick unit: the custom formatter, if any, or a
+     * cached DecimalFormat with the unit's pattern.
+     */
+    private NumberFormat getRangeFormat(double unit) {
+        return customFormatter != null ? customFormatter : getPatternFormat(getFormatPattern(unit));
+    }
+
+
+    /**
+     * Gets the number format for the labels of a tick unit from the tick unit source: the
+     * custom formatter, the unit's own formatter, or a cached DecimalFormat with the unit's
+     * pattern.
+     */
+    private NumberFormat getUnitFormat(TickUnit unit) {
+        if (customFormatter == null && unit instanceof NumberTickUnit) {
+            final NumberFormat format = ((NumberTickUnit) unit).getNumberFormatter();
+            if (format != null) {
+                return format;
+            }
+        }
+        return getRangeFormat(unit.getSize());
+    }
+
+
+    private NumberFormat getPatternFormat(String pattern) {
+        return rangeFormats.computeIfAbsent(pattern, DecimalFormat::new);
+    }
+
+
+    /**
+     * Measures the size of a tick label along the axis using the tick label font.
+     *
+     * @param label The label text.
+     * @param rotation The text rotation.
+     * @param vertical True if the axis is vertical.
+     * @return The size of the label along the axis.
+     */
+    private double measureTickLabel(String label, double rotation, boolean vertical) {
+        final Dimension2D size = TickLabelSizeCache.getShared().getSize(label, getTickLabelFont(), rotation, labelMeasurer);
+        return vertical ? size.getHeight() : size.getWidth();
+    }
+
+
+    /**
+     * Measures the size of the label for a tick mark value, using the shared TickLabelSizeCache.
+     *
+     * @param value The tick mark value.
+     * @param range The range the tick mark belongs to.
+     * @return The size of the tick mark label.
+     */
+    @Override
+    protected Dimension2D measureTickMarkSize(Number value, Object range) {
+        return TickLabelSizeCache.getShared().getSize(getTickMarkLabel(value), getTickLabelFont(),
+            getTickLabelRotation(), labelMeasurer);
+    }
+
+
+    /**
+     * Discards the shared label sizes of the previous font when the tick label font changes,
+     * e.g., when a stylesheet is applied.
+     */
+    private void invalidateLabelSizesOnFontChange() {
+        tickLabelFontProperty().addListener((observable, oldFont, newFont) -> {
+            if (oldFont != null) {
+                TickLabelSizeCache.getShared().invalidate(oldFont);
+            }
+        });
+    }
+
+
+    /**
+     * Updates the data range. With a positive autoRangeHeadroom the range is only invalidated
+     * when the data leaves the held bounds, or when it has stayed within a smaller range for the
+     * shrink delay; data changes inside the held bounds do not relayout the axis.
+     *
+     * @param data The data values of all the series plotted on this axis.
+     */
+    @Override
+    public void invalidateRange(List<Number> data) {
+        if (!(getAutoRangeHeadroom() > 0) || !isAutoRanging()) {
+            super.invalidateRange(data);
+            return;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0, n = data.size(); i < n; i++) {
+            final Number number = data.get(i);
+            if (number == null) {
+                continue;
+            }
+            final double value = number.doubleValue();
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        if (!(min <= max)) {
+            stopShrinkTimer();
+            super.invalidateRange(data);
+            return;
+        }
+        dataRange[0] = min;
+        dataRange[1] = max;
+        padDataRange(dataRange);
+        if (!heldRangeValid || dataRange[0] < heldLowerBound || dataRange[1] > heldUpperBound) {
+            // Expand now, with headroom
+            stopShrinkTimer();
+            rangeToData();
+        }
+        else if (isShrinkable(dataRange[0], dataRange[1])) {
+            startShrinkTimer();
+        }
+        else {
+            stopShrinkTimer();
+        }
+    }
+
+
+    /**
+     * Pads the data extremes to the range the axis displays them in: the auto-range headroom
+     * plus zero, if it is forced into range. Subclasses with a non-linear scale pad in their own
+     * scale.
+     *
+     * @param extremes The data minimum and maximum, padded in place.
+     */
+    protected void padDataRange(double[] extremes) {
+        final double headroom = getAutoRangeHeadroom() * (extremes[1] - extremes[0]);
+        extremes[0] -= headroom;
+        extremes[1] += headroom;
+        if (isForceZeroInRange()) {
+            extremes[0] = Math.min(extremes[0], 0);
+            extremes[1] = Math.max(extremes[1], 0);
+        }
+    }
+
+
+    /**
+     * Tests whether padded data within the held range leaves a large part of the axis empty.
+     */
+    private boolean isShrinkable(double min, double max) {
+        final double length = getEffectiveSide().isVertical() ? getHeight() : getWidth();
+        final double lowerFree = Math.abs(getDisplayPosition(min) - getDisplayPosition(heldLowerBound));
+        final double upperFree = Math.abs(getDisplayPosition(heldUpperBound) - getDisplayPosition(max));
+        return Math.max(lowerFree, upperFree) > length * SHRINK_FRACTION;
+    }
+
+
+    /**
+     * Passes the padded data extremes to ValueAxis, invalidating the range.
+     */
+    private void rangeToData() {
+        dataExtremes[0] = dataRange[0];
+        dataExtremes[1] = dataRange[1];
+        super.invalidateRange(dataExtremesList);
+    }
+
+
+    private void startShrinkTimer() {
+        if (shrinkTimer == null) {
+            shrinkTimer = new PauseTransition(getAutoRangeShrinkDelay());
+            shrinkTimer.setOnFinished(event -> {
+                // The data has stayed within a smaller range for the delay
+                if (heldRangeValid && isAutoRanging()) {
+                    rangeToData();
+                }
+            });
+        }
+        if (shrinkTimer.getStatus() != Animation.Status.RUNNING) {
+            shrinkTimer.playFromStart();
+        }
+    }
+
+
+    private void stopShrinkTimer() {
+        if (shrinkTimer != null) {
+            shrinkTimer.stop();
+        }
     }
 
 
@@ -342,8 +786,9 @@ public class NumericAxis extends ValueAxis<Number> {
             getLowerBound(),
             getUpperBound(),
             getTickUnit(),
-            //this.tickUnit,  // TODO: Select from TickUnitSource
-            getScale(), //currentFormatterProperty.get()
+            getScale(),
+            null,
+            this.tickUnit
         };
     }
 
@@ -362,18 +807,55 @@ public class NumericAxis extends ValueAxis<Number> {
         final double newUpperBound = (Double) rangeProps[1];
         final double newTickUnit = (Double) rangeProps[2];
         final double newScale = (Double) rangeProps[3];
-        //final String formatter = (String) rangeProps[4];
-        //currentFormatterProperty.set(formatter);
+        final String formatter = (rangeProps.length > 4) ? (String) rangeProps[4] : null;
+        final NumberTickUnit unit = (rangeProps.length > 5 && rangeProps[5] instanceof NumberTickUnit)
+            ? (NumberTickUnit) rangeProps[5] : null;
 
-        // TODO: determine the TickUnit this axis to it
+        // Replace the tick unit with the auto-ranged unit, retaining the minor tick count
+        if (unit != this.tickUnit) {
+            final NumberFormat format;
+            if (customFormatter != null) {
+                format = customFormatter;
+            }
+            else if (unit != null && unit.getNumberFormatter() != null) {
+                format = unit.getNumberFormatter();
+            }
+            else if (formatter != null) {
+                format = getPatternFormat(formatter);
+            }
+            else {
+                format = this.tickUnit.getNumberFormatter();
+            }
+            if (newTickUnit != this.tickUnit.getSize() || format != this.tickUnit.getNumberFormatter()) {
+                this.tickUnit = new NumberTickUnit(newTickUnit, format, this.tickUnit.getMinorTickCount());
+            }
+        }
         final int minorTickUnits = this.tickUnit.getMinorTickCount() + 1;
         this.setMinorTickCount(minorTickUnits);
 
         final double oldLowerBound = getLowerBound();
         setLowerBound(newLowerBound);
         setUpperBound(newUpperBound);
-        setTickUnit(newTickUnit);
-        if (animate) {
+        heldLowerBound = newLowerBound;
+        heldUpperBound = newUpperBound;
+        heldRangeValid = isAutoRanging();
+        if (isLive()) {
+            // Record the target; the current range follows it in layoutChildren
+            liveTargetLowerBound = newLowerBound;
+            liveTargetScale = newScale;
+            if (animate && getLiveEasingFactor() < 1 && getScale() != 0) {
+                if (!liveEasing) {
+                    liveEasing = true;
+                    livePulse.start();
+                }
+            }
+            else {
+                stopLiveEasing();
+                currentLowerBound.set(newLowerBound);
+                setScale(newScale);
+            }
+        }
+        else if (animate) {
             animator.stop(currentAnimationID);
             currentAnimationID = animator.animate(
                 new KeyFrame(Duration.ZERO,
@@ -395,7 +877,58 @@ public class NumericAxis extends ValueAxis<Number> {
 
 
     /**
-     * Calculate a list of all the data values for each tick mark in range
+     * Advances an eased live range one step towards its target before laying out the axis.
+     */
+    @Override
+    protected void layoutChildren() {
+        if (liveEasing) {
+            if (isAutoRanging()) {
+                stepLiveEasing();
+            }
+            else {
+                stopLiveEasing();
+            }
+        }
+        super.layoutChildren();
+    }
+
+
+    /**
+     * Moves the current lower bound and scale a fixed fraction of the way to the live target,
+     * snapping to the target once the remaining movement is under a pixel.
+     */
+    private void stepLiveEasing() {
+        final double lower = currentLowerBound.get();
+        final double scale = getScale();
+        final double length = getEffectiveSide().isVertical() ? getHeight() : getWidth();
+        final double lowerShift = Math.abs((liveTargetLowerBound - lower) * scale);
+        final double scaleShift = liveTargetScale == 0 ? 0
+            : Math.abs(liveTargetScale - scale) * length / Math.abs(liveTargetScale);
+        if (lowerShift < LIVE_SNAP_DISTANCE && scaleShift < LIVE_SNAP_DISTANCE) {
+            stopLiveEasing();
+            currentLowerBound.set(liveTargetLowerBound);
+            setScale(liveTargetScale);
+        }
+        else {
+            final double factor = getLiveEasingFactor();
+            currentLowerBound.set(lower + (liveTargetLowerBound - lower) * factor);
+            setScale(scale + (liveTargetScale - scale) * factor);
+        }
+    }
+
+
+    private void stopLiveEasing() {
+        if (liveEasing) {
+            liveEasing = false;
+            livePulse.stop();
+        }
+    }
+
+
+    /**
+     * Calculate a list of all the data values for each tick mark in range. The values are
+     * generated into a reusable primitive buffer; the returned list is only recreated when the
+     * tick values change.
      *
      * @param length The length of the axis in display units
      * @param range A range object returned from autoRange()
@@ -407,7 +940,8 @@ public class NumericAxis extends ValueAxis<Number> {
         final double lowerBound = (Double) rangeProps[0];
         final double upperBound = (Double) rangeProps[1];
         final double tickUnit = (Double) rangeProps[2];
-        List<Number> tickValues = new ArrayList<>();
+        final TickBuffer tickValues = majorTicks;
+        tickValues.clear();
         if (lowerBound == upperBound) {
             tickValues.add(lowerBound);
         }
@@ -433,7 +967,7 @@ public class NumericAxis extends ValueAxis<Number> {
             }
             tickValues.add(upperBound);
         }
-        return tickValues;
+        return tickValues.toList();
     }
 
 
@@ -444,7 +978,8 @@ public class NumericAxis extends ValueAxis<Number> {
      */
     @Override
     protected List<Number> calculateMinorTickMarks() {
-        final List<Number> minorTickMarks = new ArrayList<>();
+        final TickBuffer minorTickMarks = minorTicks;
+        minorTickMarks.clear();
         final double lowerBound = this.getLowerBound();
         final double upperBound = this.getUpperBound();
         final double tickUnitSize = this.getTickUnit();
@@ -458,7 +993,7 @@ public class NumericAxis extends ValueAxis<Number> {
                 // This is a ridiculous amount of major tick marks, something has probably gone wrong
                 System.err.println("Warning we tried to create more than 10000 minor tick marks on a NumberAxis. "
                     + "Lower Bound=" + this.getLowerBound() + ", Upper Bound=" + this.getUpperBound() + ", Tick Unit=" + tickUnitSize);
-                return minorTickMarks;
+                return minorTickMarks.toList();
             }
             final boolean tickUnitIsInteger = Math.rint(tickUnitSize) == tickUnitSize;
             if (tickUnitIsInteger) {
@@ -478,7 +1013,23 @@ public class NumericAxis extends ValueAxis<Number> {
                 }
             }
         }
-        return minorTickMarks;
+        return minorTickMarks.toList();
+    }
+
+
+    /**
+     * Converts data values to display positions in bulk. The transform is captured once, so
+     * projecting a large array of values is a tight primitive loop.
+     *
+     * @param values The data values.
+     * @param positions Receives the display positions; may be the values array.
+     * @param count The number of values to convert.
+     */
+    public void getDisplayPositions(double[] values, double[] positions, int count) {
+        final double lower = currentLowerBound.get();
+        final double offset = getDisplayPosition(lower);
+        final double scale = getScale();
+        VectorOps.affine(values, positions, count, offset - lower * scale, scale);
     }
 
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Arrays;
+
+
+/**
+ * Display space polygon operations used to reduce large polygon annotations to what can be seen:
+ * Douglas-Peucker simplification of a closed ring to a pixel tolerance, and Sutherland-Hodgman
+ * clipping to a rectangle.
+ *
+ * @author Bruce Schubert
+ */
+final class PolygonGeometry {
+
+    private PolygonGeometry() {
+    }
+
+
+    /**
+     * Simplifies a closed ring with the Douglas-Peucker algorithm. The ring is split at the first
+     * vertex and the vertex farthest from it, and each half is simplified iteratively.
+     *
+     * @param xs The x coordinates of the vertices.
+     * @param ys The y coordinates of the vertices.
+     * @param count The number of vertices.
+     * @param tolerance The maximum distance of a removed vertex from the simplified ring.
+     * @return The indices of the retained vertices, in ascending order.
+     */
+    static int[] simplify(double[] xs, double[] ys, int count, double tolerance) {
+        if (count < 4) {
+            final int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        final boolean[] keep = new boolean[count];
+        int far = 0;
+        double farthest = -1;
+        for (int i = 1; i < count; i++) {
+            final double dx = xs[i] - xs[0];
+            final double dy = ys[i] - ys[0];
+            final double d = dx * dx + dy * dy;
+            if (d > farthest) {
+                farthest = d;
+                far = i;
+            }
+        }
+        keep[0] = true;
+        keep[far] = true;
+        keep[count - 1] = true;
+
+        final double tolerance2 = tolerance * tolerance;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = far;
+        stack[top++] = far;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            final int last = stack[--top];
+            final int first = stack[--top];
+            int index = -1;
+            double max = tolerance2;
+            for (int i = first + 1; i < last; i++) {
+                final double d = segmentDistance2(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (d > max) {
+                    max = d;
+                    index = i;
+                }
+            }
+            if (index >= 0) {
+                keep[index] = true;
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+        int retained = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                retained++;
+            }
+        }
+        final int[] indices = new int[retained];
+        for (int i = 0, j = 0; i < count; i++) {
+            if (keep[i]) {
+                indices[j++] = i;
+            }
+        }
+        return indices;
+    }
+
+
+    /**
+     * Computes the squared distance from a point to a line segment.
+     */
+    private static double segmentDistance2(double px, double py, double x0, double y0, double x1, double y1) {
+        final double dx = x1 - x0;
+        final double dy = y1 - y0;
+        final double length2 = dx * dx + dy * dy;
+        double t = length2 > 0 ? ((px - x0) * dx + (py - y0) * dy) / length2 : 0;
+        t = t < 0 ? 0 : t > 1 ? 1 : t;
+        final double ex = x0 + t * dx - px;
+        final double ey = y0 + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+
+    /**
+     * A reusable Sutherland-Hodgman clipper of polygons to a rectangle.
+     */
+    static final class Clipper {
+
+        private double[] xs = new double[0];
+        private double[] ys = new double[0];
+        private double[] xTemp = new double[0];
+        private double[] yTemp = new double[0];
+
+
+        /**
+         * Clips a polygon to a rectangle.
+         *
+         * @param inX The x coordinates of the vertices; not modified.
+         * @param inY The y coordinates of the vertices; not modified.
+         * @param count The number of vertices.
+         * @param minX The left of the rectangle.
+         * @param minY The top of the rectangle.
+         * @param maxX The right of the rectangle.
+         * @param maxY The bottom of the rectangle.
+         * @return The number of vertices of the clipped polygon, returned by getX and getY.
+         */
+        int clip(double[] inX, double[] inY, int count, double minX, double minY, double maxX, double maxY) {
+            // Each edge can add at most one vertex per input vertex
+            final int capacity = count * 2 + 8;
+            if (xs.length < capacity) {
+                xs = new double[capacity];
+                ys = new double[capacity];
+                xTemp = new double[capacity];
+                yTemp = new double[capacity];
+            }
+            System.arraycopy(inX, 0, xs, 0, count);
+            System.arraycopy(inY, 0, ys, 0, count);
+            int n = count;
+            for (int edge = 0; edge < 4 && n > 0; edge++) {
+                if (xTemp.length < n * 2) {
+                    xTemp = new double[n * 2];
+                    yTemp = new double[n * 2];
+                }
+                n = clipEdge(n, edge, edge == 0 ? minX : edge == 1 ? maxX : edge == 2 ? minY : maxY);
+                final double[] swapX = xs;
+                final double[] swapY = ys;
+                xs = xTemp;
+                ys = yTemp;
+                xTemp = swapX;
+                yTemp = swapY;
+            }
+            return n;
+        }
+
+
+        /**
+         * Clips the current polygon against one edge into the temporary buffers.
+         *
+         * @param edge 0 = left, 1 = right, 2 = top, 3 = bottom.
+         */
+        private int clipEdge(int count, int edge, double bound) {
+            int n = 0;
+            double px = xs[count - 1];
+            double py = ys[count - 1];
+            boolean pIn = inside(px, py, edge, bound);
+            for (int i = 0; i < count; i++) {
+                final double cx = xs[i];
+                final double cy = ys[i];
+                final boolean cIn = inside(cx, cy, edge, bound);
+                if (cIn != pIn) {
+                    // Add the intersection with the edge
+                    if (edge < 2) {
+                        xTemp[n] = bound;
+                        yTemp[n] = py + (cy - py) * (bound - px) / (cx - px);
+                    }
+                    else {
+                        xTemp[n] = px + (cx - px) * (bound - py) / (cy - py);
+                        yTemp[n] = bound;
+                    }
+                    n++;
+                }
+                if (cIn) {
+                    xTemp[n] = cx;
+                    yTemp[n] = cy;
+                    n++;
+                }
+                px = cx;
+                py = cy;
+                pIn = cIn;
+            }
+            return n;
+        }
+
+
+        private static boolean inside(double x, double y, int edge, double bound) {
+            switch (edge) {
+                case 0:
+                    return x >= bound;
+                case 1:
+                    return x <= bound;
+                case 2:
+                    return y >= bound;
+                default:
+                    return y <= bound;
+            }
+        }
+
+
+        double[] getX() {
+            return xs;
+        }
+
+
+        double[] getY() {
+            return ys;
+        }
+    }
+
+}
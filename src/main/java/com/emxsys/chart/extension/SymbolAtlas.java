@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.List;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+
+/**
+ * An image atlas of pre-rasterized series symbols. Each symbol is a styled Region (e.g., a
+ * "chart-symbol seriesN default-colorN" StackPane) that is rendered once into a shared image; the
+ * atlas then stamps the symbol image at each point instead of creating a node per point.
+ * <p>
+ * Rasterizing requires a snapshot, which must not be taken during a layout pass; rebuild()
+ * therefore defers the work to the JavaFX Application Thread's next cycle and invokes the given
+ * callback when the atlas is ready. Until then isValid() returns false.
+ *
+ * @author Bruce Schubert
+ */
+public class SymbolAtlas {
+
+    private WritableImage image;
+    private double[] offsets = new double[0];   // x offset of each symbol in the atlas
+    private double[] widths = new double[0];
+    private double[] heights = new double[0];
+    private boolean valid = false;
+    private boolean rebuildPending = false;
+
+
+    /**
+     * Determines if the atlas contains the current symbols.
+     *
+     * @return True if the symbols can be stamped.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+
+    /**
+     * Gets the number of symbols in the atlas.
+     *
+     * @return The symbol count.
+     */
+    public int size() {
+        return valid ? offsets.length : 0;
+    }
+
+
+    /**
+     * Marks the atlas as stale, e.g., after the symbol styles have changed.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+
+    /**
+     * Schedules the rasterization of the given symbols into the atlas.
+     *
+     * @param symbols The styled symbol Regions, one per series.
+     * @param onReady Invoked on the JavaFX Application Thread after the atlas has been rebuilt.
+     */
+    public void rebuild(List<Node> symbols, Runnable onReady) {
+        if (rebuildPending) {
+            return;
+        }
+        rebuildPending = true;
+        Platform.runLater(() -> {
+            rebuildPending = false;
+            rasterize(symbols);
+            onReady.run();
+        });
+    }
+
+
+    /**
+     * Draws a symbol centered at each of the given display positions.
+     *
+     * @param gc The drawing surface.
+     * @param index The symbol (series) index within the atlas.
+     * @param xs The x display positions.
+     * @param ys The y display positions.
+     * @param count The number of positions.
+     */
+    public void stamp(GraphicsContext gc, int index, double[] xs, double[] ys, int count) {
+        final double sx = offsets[index];
+        final double w = widths[index];
+        final double h = heights[index];
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        final double halfW = w / 2;
+        final double halfH = h / 2;
+        for (int i = 0; i < count; i++) {
+            gc.drawImage(image, sx, 0, w, h, xs[i] - halfW, ys[i] - halfH, w, h);
+        }
+    }
+
+
+    private void rasterize(List<Node> symbols) {
+        final int count = symbols.size();
+        final Image[] images = new Image[count];
+        offsets = new double[count];
+        widths = new double[count];
+        heights = new double[count];
+
+        final SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+
+        double atlasWidth = 0;
+        double atlasHeight = 0;
+        for (int i = 0; i < count; i++) {
+            final Region symbol = (Region) symbols.get(i);
+            symbol.applyCss();
+            symbol.resize(symbol.prefWidth(-1), symbol.prefHeight(-1));
+            symbol.layout();
+            images[i] = symbol.snapshot(params, null);
+            offsets[i] = atlasWidth;
+            widths[i] = images[i].getWidth();
+            heights[i] = images[i].getHeight();
+            atlasWidth += widths[i];
+            atlasHeight = Math.max(atlasHeight, heights[i]);
+        }
+
+        // Pack the symbols side by side into a single image
+        image = new WritableImage((int) Math.max(1, atlasWidth), (int) Math.max(1, atlasHeight));
+        final PixelWriter writer = image.getPixelWriter();
+        for (int i = 0; i < count; i++) {
+            writer.setPixels((int) offsets[i], 0, (int) widths[i], (int) heights[i],
+                images[i].getPixelReader(), 0, 0);
+        }
+        valid = true;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A reusable primitive buffer of tick values. The ticks are generated into the buffer on every
+ * layout without allocation; the boxed list required by the ValueAxis API is only created when
+ * the tick values differ from the previous set.
+ *
+ * @author Bruce Schubert
+ */
+final class TickBuffer {
+
+    private double[] values = new double[32];
+    private double[] previous = new double[32];
+    private int size;
+    private int previousSize = -1;
+    private List<Number> list = Collections.emptyList();
+
+
+    /**
+     * Begins a new set of tick values.
+     */
+    void clear() {
+        size = 0;
+    }
+
+
+    /**
+     * Appends a tick value.
+     *
+     * @param value The tick value.
+     */
+    void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+
+    /**
+     * @return The number of tick values in the current set.
+     */
+    int size() {
+        return size;
+    }
+
+
+    /**
+     * Gets the current set of tick values as a boxed list.
+     *
+     * @return An unmodifiable list; the same instance as the previous call if the values have not
+     * changed.
+     */
+    List<Number> toList() {
+        boolean same = size == previousSize;
+        for (int i = 0; same && i < size; i++) {
+            same = Double.doubleToLongBits(values[i]) == Double.doubleToLongBits(previous[i]);
+        }
+        if (same) {
+            return list;
+        }
+        final List<Number> boxed = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            boxed.add(values[i]);
+        }
+        list = Collections.unmodifiableList(boxed);
+
+        // Retain the current values for the next comparison
+        final double[] swap = previous;
+        previous = values;
+        values = (swap.length >= previous.length) ? swap : new double[previous.length];
+        previousSize = size;
+        return list;
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+
+/**
+ * A per-font table of glyph widths used to estimate the extents of tick labels without laying
+ * out a Text node for every candidate label. The printable ASCII glyphs are measured once per
+ * font; other characters are estimated with the width of the widest digit.
+ *
+ * @author Bruce Schubert
+ */
+final class TickLabelMetrics {
+
+    private static final int FIRST_GLYPH = 32;
+    private static final int LAST_GLYPH = 126;
+    private static final int MAX_FONTS = 32;
+    private static final Map<Font, TickLabelMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final double[] widths = new double[LAST_GLYPH - FIRST_GLYPH + 1];
+    private final double digitWidth;
+    private final double height;
+
+
+    /**
+     * Gets the glyph metrics for a font, measuring the glyphs on first use.
+     *
+     * @param font The tick label font.
+     * @return The shared metrics for the font.
+     */
+    static TickLabelMetrics forFont(Font font) {
+        final Font key = (font == null) ? Font.getDefault() : font;
+        TickLabelMetrics result = metrics.get(key);
+        if (result == null) {
+            if (metrics.size() >= MAX_FONTS) {
+                metrics.clear();
+            }
+            result = new TickLabelMetrics(key);
+            metrics.put(key, result);
+        }
+        return result;
+    }
+
+
+    private TickLabelMetrics(Font font) {
+        final Text text = new Text();
+        text.setFont(font);
+        double widest = 0;
+        for (int c = FIRST_GLYPH; c <= LAST_GLYPH; c++) {
+            text.setText(String.valueOf((char) c));
+            widths[c - FIRST_GLYPH] = text.getLayoutBounds().getWidth();
+            if (c >= '0' && c <= '9') {
+                widest = Math.max(widest, widths[c - FIRST_GLYPH]);
+            }
+        }
+        this.digitWidth = widest;
+        text.setText("0");
+        this.height = text.getLayoutBounds().getHeight();
+    }
+
+
+    /**
+     * Estimates the unrotated width of a label.
+     *
+     * @param label The label text.
+     * @return The sum of the glyph widths.
+     */
+    double estimateWidth(String label) {
+        double width = 0;
+        for (int i = 0; i < label.length(); i++) {
+            final char c = label.charAt(i);
+            width += (c >= FIRST_GLYPH && c <= LAST_GLYPH) ? widths[c - FIRST_GLYPH] : digitWidth;
+        }
+        return width;
+    }
+
+
+    /**
+     * Estimates the extent of a rotated label along an axis.
+     *
+     * @param label The label text.
+     * @param rotation The label rotation in degrees.
+     * @param vertical True if the axis is vertical.
+     * @return The estimated size of the label along the axis.
+     */
+    double estimateSize(String label, double rotation, boolean vertical) {
+        final double width = estimateWidth(label);
+        final double radians = Math.toRadians(rotation);
+        final double cos = Math.abs(Math.cos(radians));
+        final double sin = Math.abs(Math.sin(radians));
+        return vertical ? width * sin + height * cos : width * cos + height * sin;
+    }
+
+}
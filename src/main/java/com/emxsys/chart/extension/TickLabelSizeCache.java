@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javafx.geometry.Dimension2D;
+import javafx.scene.text.Font;
+
+
+/**
+ * A process-wide, bounded LRU cache of tick label sizes keyed by the label text, font and
+ * rotation. Axes that display the same labels in the same font share the measurements instead
+ * of laying out a Text node for every label on every layout.
+ * <p>
+ * A NumericAxis discards the entries of its previous font when its tick label font changes,
+ * e.g., when a stylesheet is applied. The hit and miss counters can be monitored to tune the
+ * capacity.
+ *
+ * @author Bruce Schubert
+ */
+public final class TickLabelSizeCache {
+
+    /**
+     * Measures a tick label that is not in the cache.
+     */
+    @FunctionalInterface
+    public interface Measurer {
+
+        /**
+         * Measures the label.
+         *
+         * @param text The label text.
+         * @param rotation The label rotation in degrees.
+         * @return The size of the rotated label.
+         */
+        Dimension2D measure(String text, double rotation);
+    }
+
+    /**
+     * The default number of cached label sizes.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final TickLabelSizeCache shared = new TickLabelSizeCache(DEFAULT_CAPACITY);
+
+    private static final class Key {
+
+        final String text;
+        final Font font;
+        final double rotation;
+
+
+        Key(String text, Font font, double rotation) {
+            this.text = text;
+            this.font = font;
+            this.rotation = rotation;
+        }
+
+
+        @Override
+        public int hashCode() {
+            int hash = text.hashCode();
+            hash = 31 * hash + Objects.hashCode(font);
+            hash = 31 * hash + Double.hashCode(rotation);
+            return hash;
+        }
+
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return rotation == other.rotation && text.equals(other.text) && Objects.equals(font, other.font);
+        }
+    }
+
+    private final Map<Key, Dimension2D> sizes;
+    private long hits;
+    private long misses;
+
+
+    /**
+     * Gets the cache shared by all the axes.
+     *
+     * @return The process-wide cache.
+     */
+    public static TickLabelSizeCache getShared() {
+        return shared;
+    }
+
+
+    /**
+     * Constructs a cache with the given capacity.
+     *
+     * @param capacity The maximum number of cached sizes.
+     */
+    public TickLabelSizeCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": capacity must be positive.");
+        }
+        this.sizes = new LinkedHashMap<Key, Dimension2D>(Math.min(capacity, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Dimension2D> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+
+    /**
+     * Gets the size of a tick label, measuring it on a cache miss.
+     *
+     * @param text The label text.
+     * @param font The tick label font.
+     * @param rotation The label rotation in degrees.
+     * @param measurer Measures the label on a cache miss.
+     * @return The size of the rotated label.
+     */
+    public synchronized Dimension2D getSize(String text, Font font, double rotation, Measurer measurer) {
+        final Key key = new Key(text == null ? "" : text, font, rotation);
+        Dimension2D size = sizes.get(key);
+        if (size != null) {
+            hits++;
+            return size;
+        }
+        misses++;
+        size = measurer.measure(key.text, rotation);
+        sizes.put(key, size);
+        return size;
+    }
+
+
+    /**
+     * Discards the sizes measured with a font.
+     *
+     * @param font The font that is no longer used.
+     */
+    public synchronized void invalidate(Font font) {
+        sizes.keySet().removeIf(key -> Objects.equals(key.font, font));
+    }
+
+
+    /**
+     * Discards all the sizes and resets the counters.
+     */
+    public synchronized void clear() {
+        sizes.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+
+    /**
+     * @return The number of cached sizes.
+     */
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+
+    /**
+     * @return The number of lookups that measured a label.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+}
@@ -29,9 +29,8 @@
  */
 package com.emxsys.chart.extension;
 
-import com.emxsys.chart.extension.TickUnit;
-import com.emxsys.chart.extension.NumberTickUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -39,16 +38,42 @@ import java.util.List;
  * A JFreeChart-based class used by the DateAxis and NumericAxis classes to
  * obtain a suitable {@link TickUnit}.
  *
+ * The units are kept sorted by size as they are added. Lookups by size use a
+ * table indexed by the decimal exponent of the size, so selecting a unit on
+ * the layout path is constant time and allocation free.
+ *
  * @author Bruce Schubert
  */
 public class TickUnitSource {
 
     List<TickUnit> tickUnits = new ArrayList<>();
 
+    /**
+     * The unit sizes, in ascending order, and the index of the first unit of
+     * each decade from minExponent; rebuilt on the first lookup after an add.
+     */
+    private double[] sizes = new double[0];
+    private int[] decadeIndex = new int[0];
+    private int minExponent;
+    private boolean indexValid;
+
     @SuppressWarnings("unchecked")
     public void add(TickUnit tickUnit) {
-        tickUnits.add(tickUnit);
-        Collections.sort(tickUnits);
+        int index = Collections.binarySearch(this.tickUnits, tickUnit, null);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        tickUnits.add(index, tickUnit);
+        indexValid = false;
+    }
+
+    /**
+     * Returns the number of tick units.
+     *
+     * @return The number of units in the collection.
+     */
+    public int size() {
+        return tickUnits.size();
     }
 
     /**
@@ -59,13 +84,12 @@ public class TickUnitSource {
      * @return A tick unit that is larger than the supplied unit.
      */
     public TickUnit getLargerTickUnit(TickUnit unit) {
-        int index = Collections.binarySearch(this.tickUnits, unit, null);
-        if (index >= 0) {
-            index = index + 1;
-        } else {
-            index = -index;
+        final double size = unit.getSize();
+        int index = getCeilingIndex(size);
+        if (index < sizes.length - 1 && sizes[index] <= size) {
+            index++;
         }
-        return this.tickUnits.get(Math.min(index, this.tickUnits.size() - 1));
+        return this.tickUnits.get(index);
     }
 
     /**
@@ -77,14 +101,7 @@ public class TickUnitSource {
      * @return A unit from the collection.
      */
     public TickUnit getCeilingTickUnit(TickUnit unit) {
-        int index = Collections.binarySearch(this.tickUnits, unit, null);
-        if (index >= 0) {
-            return this.tickUnits.get(index);
-        } else {
-            index = -(index + 1);
-            return this.tickUnits.get(Math.min(index, this.tickUnits.size() - 1));
-        }
-
+        return getCeilingTickUnit(unit.getSize());
     }
 
     /**
@@ -96,6 +113,63 @@ public class TickUnitSource {
      * @return A unit from the collection.
      */
     public TickUnit getCeilingTickUnit(double size) {
-        return getCeilingTickUnit(new NumberTickUnit(size));
+        return this.tickUnits.get(getCeilingIndex(size));
+    }
+
+    /**
+     * Gets the index of the smallest unit greater than or equal to a size, or
+     * the largest unit if none is. The decade table gives the first candidate;
+     * at most the units within one decade are scanned from there.
+     */
+    private int getCeilingIndex(double size) {
+        if (!indexValid) {
+            buildIndex();
+        }
+        final int last = sizes.length - 1;
+        if (last < 0) {
+            throw new IllegalStateException(getClass().getSimpleName() + ": no tick units");
+        }
+        if (!(size > sizes[0])) {
+            return 0;
+        }
+        if (size >= sizes[last]) {
+            return last;
+        }
+        if (decadeIndex.length == 0) {
+            final int index = Arrays.binarySearch(sizes, size);
+            return index >= 0 ? index : -(index + 1);
+        }
+        final int decade = (int) Math.floor(Math.log10(size)) - minExponent;
+        int index = decade < 0 ? 0 : decade >= decadeIndex.length ? last : decadeIndex[decade];
+        while (index < last && sizes[index] < size) {
+            index++;
+        }
+        return index;
+    }
+
+    private void buildIndex() {
+        final int count = tickUnits.size();
+        sizes = new double[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = tickUnits.get(i).getSize();
+        }
+        if (count == 0 || !(sizes[0] > 0)) {
+            decadeIndex = new int[0];
+            minExponent = 0;
+        } else {
+            minExponent = (int) Math.floor(Math.log10(sizes[0]));
+            final int maxExponent = (int) Math.floor(Math.log10(sizes[count - 1]));
+            decadeIndex = new int[maxExponent - minExponent + 1];
+            int index = 0;
+            for (int decade = 0; decade < decadeIndex.length; decade++) {
+                final double decadeStart = Math.pow(10, decade + minExponent);
+                while (index < count - 1 && sizes[index] < decadeStart) {
+                    index++;
+                }
+                // The first unit of the decade may lie below a slightly inexact power of ten
+                decadeIndex[decade] = Math.max(0, index - 1);
+            }
+        }
+        indexValid = true;
     }
 }
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ObjectPropertyBase;
+
+
+/**
+ * A NumericAxis for times in epoch milliseconds. The tick unit is selected from a
+ * {@link TickUnitSource} of {@link TimeTickUnit}s and the ticks are aligned to calendar
+ * boundaries, e.g., to midnight or the first of the month, in the axis time zone.
+ *
+ * @author Bruce Schubert
+ */
+public class TimeAxis extends NumericAxis {
+
+    /**
+     * The minimum gap between adjacent tick labels.
+     */
+    private static final double TICK_LABEL_GAP = 6;
+    /**
+     * The maximum number of major tick marks generated for a range.
+     */
+    private static final int MAX_TICK_COUNT = 1000;
+    /**
+     * The span used for a range of a single time.
+     */
+    private static final double MIN_SPAN = 1000;
+
+    private TickUnitSource tickUnitSource = TimeTickUnit.createStandardTickUnits();
+    private TimeTickUnit timeUnit;
+    private final TickBuffer ticks = new TickBuffer();
+
+
+    /**
+     * Constructs an auto-ranging time axis.
+     */
+    public TimeAxis() {
+        setForceZeroInRange(false);
+    }
+
+
+    /**
+     * Constructs a non-auto-ranging time axis.
+     *
+     * @param lowerBound The lower bound in epoch milliseconds.
+     * @param upperBound The upper bound in epoch milliseconds.
+     */
+    public TimeAxis(long lowerBound, long upperBound) {
+        super(lowerBound, upperBound);
+        setForceZeroInRange(false);
+    }
+
+
+    /**
+     * Constructs a non-auto-ranging time axis with the given label.
+     *
+     * @param axisLabel The name to display for this axis
+     * @param lowerBound The lower bound in epoch milliseconds.
+     * @param upperBound The upper bound in epoch milliseconds.
+     */
+    public TimeAxis(String axisLabel, long lowerBound, long upperBound) {
+        this(lowerBound, upperBound);
+        setLabel(axisLabel);
+    }
+
+    /**
+     * The time zone of the calendar used to align and label the ticks.
+     */
+    private final ObjectProperty<ZoneId> zone = new ObjectPropertyBase<ZoneId>(ZoneId.systemDefault()) {
+        @Override
+        protected void invalidated() {
+            invalidateRange();
+            requestAxisLayout();
+        }
+
+
+        @Override
+        public Object getBean() {
+            return TimeAxis.this;
+        }
+
+
+        @Override
+        public String getName() {
+            return "zone";
+        }
+    };
+
+
+    public final ZoneId getZone() {
+        final ZoneId value = zone.get();
+        return value == null ? ZoneId.systemDefault() : value;
+    }
+
+
+    public final void setZone(ZoneId value) {
+        zone.set(value);
+    }
+
+
+    public final ObjectProperty<ZoneId> zoneProperty() {
+        return zone;
+    }
+
+
+    public TickUnitSource getTickUnitSource() {
+        return tickUnitSource;
+    }
+
+
+    /**
+     * Sets the tick units the axis selects from.
+     *
+     * @param source A source of TimeTickUnits.
+     */
+    public void setTickUnitSource(TickUnitSource source) {
+        this.tickUnitSource = Objects.requireNonNull(source,
+            getClass().getSimpleName() + ": source must not be null");
+        invalidateRange();
+        requestAxisLayout();
+    }
+
+
+    /**
+     * Gets the current tick unit.
+     *
+     * @return The tick unit; null before the first layout.
+     */
+    public TimeTickUnit getTimeTickUnit() {
+        return timeUnit;
+    }
+
+
+    /**
+     * Auto-ranges the axis to the data extent, snapped outwards to the ticks of the smallest
+     * calendar unit whose labels fit. The unit is found by a binary search of the tick unit source on the span per
+     * tick; the label size is estimated from glyph metrics rather than measured.
+     *
+     * @param minValue The min data value that needs to be plotted on this axis
+     * @param maxValue The max data value that needs to be plotted on this axis
+     * @param length The length of the axis in display coordinates
+     * @param labelSize The approximate average size a label takes along the axis
+     * @return The calculated range
+     */
+    @Override
+    protected Object autoRange(double minValue, double maxValue, double length, double labelSize) {
+        if (!(maxValue - minValue > 0)) {
+            minValue -= MIN_SPAN / 2;
+            maxValue += MIN_SPAN / 2;
+        }
+        // Snap the bounds to the ticks of the unit; reselect once if the wider span needs a larger unit
+        TimeTickUnit unit = selectTickUnit(minValue, maxValue, length, labelSize);
+        double lowerBound = snapLowerBound(minValue, unit);
+        double upperBound = snapUpperBound(maxValue, unit);
+        final TimeTickUnit snappedUnit = selectTickUnit(lowerBound, upperBound, length, labelSize);
+        if (snappedUnit != unit) {
+            unit = snappedUnit;
+            lowerBound = snapLowerBound(minValue, unit);
+            upperBound = snapUpperBound(maxValue, unit);
+        }
+        final double newScale = calculateNewScale(length, lowerBound, upperBound);
+        return new Object[]{lowerBound, upperBound, unit.getSize(), newScale, null, unit};
+    }
+
+
+    /**
+     * Gets the last tick of a unit at or before a value.
+     */
+    private double snapLowerBound(double value, TimeTickUnit unit) {
+        return unit.floor((long) Math.floor(value), getZone()).toInstant().toEpochMilli();
+    }
+
+
+    /**
+     * Gets the first tick of a unit at or after a value.
+     */
+    private double snapUpperBound(double value, TimeTickUnit unit) {
+        return unit.ceil((long) Math.ceil(value), getZone()).toInstant().toEpochMilli();
+    }
+
+
+    /**
+     * Selects the tick unit for a range. The first guess uses the given label size; the guess is
+     * refined once with the estimated size of the selected unit's labels.
+     */
+    private TimeTickUnit selectTickUnit(double lowerBound, double upperBound, double length, double labelSize) {
+        final boolean vertical = getEffectiveSide().isVertical();
+        final double rotation = getTickLabelRotation();
+        final TickLabelMetrics metrics = TickLabelMetrics.forFont(getTickLabelFont());
+        final double span = upperBound - lowerBound;
+        TimeTickUnit unit = getCeilingTickUnit(span, length, labelSize);
+        for (int step = 0; step < 2; step++) {
+            final double size = TICK_LABEL_GAP + metrics.estimateSize(
+                unit.getTickMarkLabel(upperBound, getZone()), rotation, vertical);
+            final TimeTickUnit next = getCeilingTickUnit(span, length, size);
+            if (next == unit) {
+                break;
+            }
+            unit = next;
+        }
+        return unit;
+    }
+
+
+    private TimeTickUnit getCeilingTickUnit(double span, double length, double labelSize) {
+        final double count = Math.max(2, Math.floor(length / Math.max(labelSize, 1)));
+        return (TimeTickUnit) tickUnitSource.getCeilingTickUnit(span / (count - 1));
+    }
+
+
+    /**
+     * Called to get the current axis range. A non-auto-ranging axis selects its tick unit from
+     * the current bounds.
+     *
+     * @return A range object that can be passed to setRange() and calculateTickValues()
+     */
+    @Override
+    protected Object getRange() {
+        final Object[] range = (Object[]) super.getRange();
+        if (!isAutoRanging() || timeUnit == null) {
+            final double length = getEffectiveSide().isVertical() ? getHeight() : getWidth();
+            final double labelSize = getTickLabelFont().getSize() * 2;
+            timeUnit = selectTickUnit(getLowerBound(), getUpperBound(), length, labelSize);
+        }
+        return new Object[]{range[0], range[1], timeUnit.getSize(), range[3], null, timeUnit};
+    }
+
+
+    /**
+     * Called to set the current axis range to the given range.
+     *
+     * @param range A range object returned from autoRange()
+     * @param animate If true animate the change in range
+     */
+    @Override
+    protected void setRange(Object range, boolean animate) {
+        final Object[] rangeProps = (Object[]) range;
+        if (rangeProps.length > 5 && rangeProps[5] instanceof TimeTickUnit) {
+            timeUnit = (TimeTickUnit) rangeProps[5];
+        }
+        super.setRange(range, animate);
+    }
+
+
+    /**
+     * Calculates the tick values on the calendar boundaries of the tick unit.
+     *
+     * @param length The length of the axis in display units
+     * @param range A range object returned from autoRange()
+     * @return A list of tick marks that fit along the axis if it was the given length
+     */
+    @Override
+    protected List<Number> calculateTickValues(double length, Object range) {
+        final Object[] rangeProps = (Object[]) range;
+        final double lowerBound = (Double) rangeProps[0];
+        final double upperBound = (Double) rangeProps[1];
+        TimeTickUnit unit = (rangeProps.length > 5 && rangeProps[5] instanceof TimeTickUnit)
+            ? (TimeTickUnit) rangeProps[5] : timeUnit;
+        final TickBuffer tickValues = ticks;
+        tickValues.clear();
+        if (unit == null || !(upperBound > lowerBound)) {
+            return tickValues.toList();
+        }
+        if ((upperBound - lowerBound) / unit.getSize() > MAX_TICK_COUNT) {
+            // Fall back to the smallest larger unit that yields few enough ticks; label with it too
+            final TickUnit larger = tickUnitSource.getCeilingTickUnit((upperBound - lowerBound) / MAX_TICK_COUNT);
+            if (!(larger instanceof TimeTickUnit)
+                || (upperBound - lowerBound) / larger.getSize() > MAX_TICK_COUNT) {
+                return tickValues.toList();
+            }
+            unit = (TimeTickUnit) larger;
+            timeUnit = unit;
+        }
+        final ZoneId zone = getZone();
+        ZonedDateTime time = unit.floor((long) Math.floor(lowerBound), zone);
+        if (unit.isFixedLength(zone)) {
+            // The ticks are equally spaced in epoch time
+            final long step = (long) unit.getSize();
+            for (long value = time.toInstant().toEpochMilli(); value <= upperBound; value += step) {
+                if (value >= lowerBound) {
+                    tickValues.add(value);
+                }
+            }
+        }
+        else {
+            // Each tick is aligned on its own, so the ticks follow the calendar across months of
+            // different lengths and daylight saving transitions
+            for (long value = time.toInstant().toEpochMilli(); value <= upperBound;
+                 value = unit.ceil(value + 1, zone).toInstant().toEpochMilli()) {
+                if (value >= lowerBound) {
+                    tickValues.add(value);
+                }
+            }
+        }
+        return tickValues.toList();
+    }
+
+
+    /**
+     * Calendar units are not evenly divisible, so the time axis has no minor tick marks.
+     *
+     * @return An empty list.
+     */
+    @Override
+    protected List<Number> calculateMinorTickMarks() {
+        return Collections.emptyList();
+    }
+
+
+    @Override
+    protected String getTickMarkLabel(Number t) {
+        return timeUnit != null ? timeUnit.getTickMarkLabel(t, getZone()) : super.getTickMarkLabel(t);
+    }
+
+}
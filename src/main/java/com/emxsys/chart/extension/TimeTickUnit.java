@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+
+/**
+ * A tick unit of a whole number of calendar units, e.g., 15 minutes or 3 months, for an axis of
+ * epoch milliseconds. The size of the unit is its nominal duration in milliseconds, which orders
+ * the units in a {@link TickUnitSource}; the ticks themselves are aligned to calendar boundaries.
+ *
+ * Immutable. The label formatters are cached and thread-safe.
+ *
+ * @author Bruce Schubert
+ */
+public class TimeTickUnit extends TickUnit {
+
+    /**
+     * The shared formatters, by pattern.
+     */
+    private static final Map<String, DateTimeFormatter> patternFormatters = new ConcurrentHashMap<>();
+
+    private final ChronoUnit unit;
+    private final int multiple;
+    private final String pattern;
+    private final DateTimeFormatter formatter;
+    private final Map<ZoneId, DateTimeFormatter> zoneFormatters = new ConcurrentHashMap<>();
+    private final Function<ZoneId, DateTimeFormatter> zoneFormatterFactory;
+
+
+    /**
+     * Constructs a tick unit with the default label pattern for the calendar unit.
+     *
+     * @param unit The calendar unit, from MILLIS to YEARS.
+     * @param multiple The number of calendar units between ticks.
+     */
+    public TimeTickUnit(ChronoUnit unit, int multiple) {
+        this(unit, multiple, getDefaultPattern(unit));
+    }
+
+
+    /**
+     * Constructs a tick unit.
+     *
+     * @param unit The calendar unit, from MILLIS to YEARS.
+     * @param multiple The number of calendar units between ticks.
+     * @param pattern The DateTimeFormatter pattern for the tick labels.
+     */
+    public TimeTickUnit(ChronoUnit unit, int multiple, String pattern) {
+        super(getNominalSize(unit, multiple), 0);
+        Objects.requireNonNull(pattern, getClass().getSimpleName() + ": pattern must not be null");
+        this.unit = unit;
+        this.multiple = multiple;
+        this.pattern = pattern;
+        this.formatter = patternFormatters.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+        this.zoneFormatterFactory = formatter::withZone;
+    }
+
+
+    /**
+     * Validates the constructor arguments and gets the nominal size of the unit. Called before the
+     * super constructor, so unsupported units such as FOREVER are rejected before their duration
+     * is converted to milliseconds.
+     *
+     * @param unit The calendar unit, from MILLIS to YEARS.
+     * @param multiple The number of calendar units between ticks.
+     * @return The nominal size in milliseconds.
+     */
+    private static double getNominalSize(ChronoUnit unit, int multiple) {
+        Objects.requireNonNull(unit, TimeTickUnit.class.getSimpleName() + ": unit must not be null");
+        if (unit.compareTo(ChronoUnit.MILLIS) < 0 || unit.compareTo(ChronoUnit.YEARS) > 0) {
+            throw new IllegalArgumentException(TimeTickUnit.class.getSimpleName() + ": unsupported unit: " + unit);
+        }
+        if (multiple < 1) {
+            throw new IllegalArgumentException(TimeTickUnit.class.getSimpleName() + ": multiple must be positive: " + multiple);
+        }
+        return unit.getDuration().toMillis() * (double) multiple;
+    }
+
+
+    /**
+     * Creates the standard calendar tick units, from 1 millisecond to 1000 years.
+     *
+     * @return A new tick unit source.
+     */
+    public static TickUnitSource createStandardTickUnits() {
+        final TickUnitSource units = new TickUnitSource();
+        for (int multiple : new int[]{1, 2, 5, 10, 20, 50, 100, 200, 500}) {
+            units.add(new TimeTickUnit(ChronoUnit.MILLIS, multiple));
+        }
+        for (int multiple : new int[]{1, 2, 5, 10, 15, 30}) {
+            units.add(new TimeTickUnit(ChronoUnit.SECONDS, multiple));
+            units.add(new TimeTickUnit(ChronoUnit.MINUTES, multiple));
+        }
+        for (int multiple : new int[]{1, 2, 3, 6, 12}) {
+            units.add(new TimeTickUnit(ChronoUnit.HOURS, multiple));
+        }
+        units.add(new TimeTickUnit(ChronoUnit.DAYS, 1));
+        units.add(new TimeTickUnit(ChronoUnit.DAYS, 2));
+        units.add(new TimeTickUnit(ChronoUnit.WEEKS, 1));
+        units.add(new TimeTickUnit(ChronoUnit.WEEKS, 2));
+        for (int multiple : new int[]{1, 3, 6}) {
+            units.add(new TimeTickUnit(ChronoUnit.MONTHS, multiple));
+        }
+        for (int multiple : new int[]{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000}) {
+            units.add(new TimeTickUnit(ChronoUnit.YEARS, multiple));
+        }
+        return units;
+    }
+
+
+    /**
+     * Gets the default label pattern for a calendar unit.
+     *
+     * @param unit The calendar unit.
+     * @return A DateTimeFormatter pattern.
+     */
+    public static String getDefaultPattern(ChronoUnit unit) {
+        switch (unit) {
+            case MILLIS:
+                return "HH:mm:ss.SSS";
+            case SECONDS:
+                return "HH:mm:ss";
+            case MINUTES:
+            case HOURS:
+            case HALF_DAYS:
+                return "HH:mm";
+            case DAYS:
+            case WEEKS:
+                return "MMM d";
+            case MONTHS:
+                return "MMM yyyy";
+            default:
+                return "yyyy";
+        }
+    }
+
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+
+    public int getMultiple() {
+        return multiple;
+    }
+
+
+    public String getPattern() {
+        return pattern;
+    }
+
+
+    /**
+     * Gets the first tick at or before a time, i.e., the time truncated to a multiple of this
+     * unit within the next larger calendar unit.
+     *
+     * @param epochMillis The time in epoch milliseconds.
+     * @param zone The time zone of the calendar.
+     * @return The aligned time.
+     */
+    public ZonedDateTime floor(long epochMillis, ZoneId zone) {
+        final ZonedDateTime time = Instant.ofEpochMilli(epochMillis).atZone(zone);
+        switch (unit) {
+            case MILLIS:
+                return time.withNano(floor(time.get(ChronoField.MILLI_OF_SECOND)) * 1_000_000);
+            case SECONDS:
+                return time.truncatedTo(ChronoUnit.SECONDS).withSecond(floor(time.getSecond()));
+            case MINUTES:
+                return time.truncatedTo(ChronoUnit.MINUTES).withMinute(floor(time.getMinute()));
+            case HOURS:
+            case HALF_DAYS:
+                return time.truncatedTo(ChronoUnit.HOURS).withHour(floor(time.getHour()));
+            case DAYS:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(floor(time.getDayOfMonth() - 1) + 1);
+            case WEEKS:
+                return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHS:
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).withMonth(floor(time.getMonthValue() - 1) + 1);
+            default:
+                final int year = time.getYear();
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1).withYear(Math.floorDiv(year, multiple) * multiple);
+        }
+    }
+
+
+    private int floor(int value) {
+        return value - value % multiple;
+    }
+
+
+    /**
+     * Gets the first tick at or after a time. The tick following a tick is therefore the ceiling
+     * of the tick's time plus one millisecond.
+     *
+     * @param epochMillis The time in epoch milliseconds.
+     * @param zone The time zone of the calendar.
+     * @return The aligned time.
+     */
+    public ZonedDateTime ceil(long epochMillis, ZoneId zone) {
+        final ZonedDateTime time = floor(epochMillis, zone);
+        final long floorMillis = time.toInstant().toEpochMilli();
+        if (floorMillis >= epochMillis) {
+            return time;
+        }
+        // The floor of the following step is the next tick, even across a larger unit boundary
+        final ZonedDateTime next = floor(time.plus(multiple, unit).toInstant().toEpochMilli(), zone);
+        if (next.toInstant().toEpochMilli() > floorMillis) {
+            return next;
+        }
+        // The step ended in the hour repeated by a daylight saving transition, which floors to the
+        // same tick; step the local time instead
+        final ZonedDateTime local = ZonedDateTime.of(time.toLocalDateTime().plus(multiple, unit), zone);
+        return floor(local.toInstant().toEpochMilli(), zone);
+    }
+
+
+    /**
+     * Tests whether the ticks of this unit can be stepped with plain arithmetic in a time zone.
+     * Units shorter than an hour are always equally spaced in epoch milliseconds; hourly units
+     * are too, provided the zone has a fixed offset, i.e., no daylight saving transitions.
+     *
+     * @param zone The time zone of the calendar.
+     * @return True if the ticks are equally spaced in epoch milliseconds.
+     */
+    public boolean isFixedLength(ZoneId zone) {
+        if (unit.compareTo(ChronoUnit.HOURS) < 0) {
+            return true;
+        }
+        return unit.compareTo(ChronoUnit.HALF_DAYS) <= 0 && zone.getRules().isFixedOffset();
+    }
+
+
+    /**
+     * Formats a tick label in a time zone.
+     *
+     * @param value The time in epoch milliseconds.
+     * @param zone The time zone.
+     * @return The formatted label.
+     */
+    public String getTickMarkLabel(Number value, ZoneId zone) {
+        return zoneFormatters.computeIfAbsent(zone, zoneFormatterFactory)
+            .format(Instant.ofEpochMilli(value.longValue()));
+    }
+
+
+    /**
+     * Formats a tick label in the system default time zone.
+     *
+     * @param value The time in epoch milliseconds.
+     * @return The formatted label.
+     */
+    @Override
+    public String getTickMarkLabel(Number value) {
+        return getTickMarkLabel(value, ZoneId.systemDefault());
+    }
+
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + unit.hashCode();
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && this.unit == ((TimeTickUnit) obj).unit
+            && this.pattern.equals(((TimeTickUnit) obj).pattern);
+    }
+
+
+    @Override
+    public String toString() {
+        return multiple + " " + unit;
+    }
+
+}
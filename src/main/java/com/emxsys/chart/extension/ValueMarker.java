@@ -60,6 +60,8 @@ public class ValueMarker {
     private final Line line = new Line();
     private final Label label = new Label();
     private Pos textAnchor = Pos.TOP_LEFT;
+    private int priority;
+    private boolean labelShown = true;
 
     private enum MarkerType {
         DOMAIN, RANGE
@@ -180,6 +182,61 @@ public class ValueMarker {
         this.textAnchor = textAnchor;
     }
 
+    /**
+     * Gets the priority of the label when overlapping labels are decluttered.
+     *
+     * @return The current priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the label when overlapping labels are decluttered.
+     * Labels with a higher priority are placed first and are the last to be
+     * hidden. The default is zero.
+     *
+     * @param priority The new priority.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the label node drawn on the line.
+     *
+     * @return The label.
+     */
+    Label getLabelNode() {
+        return label;
+    }
+
+    /**
+     * Gets whether this marker was last laid out on the X (domain) axis.
+     *
+     * @return True for a domain marker, false for a range marker.
+     */
+    boolean isDomainMarker() {
+        return markerType == MarkerType.DOMAIN;
+    }
+
+    /**
+     * Attaches or detaches the label, leaving the line displayed.
+     *
+     * @param shown True to display the label.
+     */
+    void setLabelShown(boolean shown) {
+        if (shown == labelShown) {
+            return;
+        }
+        labelShown = shown;
+        if (shown) {
+            group.getChildren().add(label);
+        } else {
+            group.getChildren().remove(label);
+        }
+    }
+
     /**
      * Lays out this marker on the X (domain) axis.
      *
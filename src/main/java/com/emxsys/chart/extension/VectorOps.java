@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+
+/**
+ * Primitive array kernels used to project coordinates and to scan the extents of a series. This
+ * is the scalar implementation for Java 8; the multi-release JAR replaces it on Java 17 and later
+ * with an implementation that uses the Vector API when the jdk.incubator.vector module is
+ * present (see the jdk17-simd profile in the pom).
+ *
+ * @author Bruce Schubert
+ */
+final class VectorOps {
+
+    private VectorOps() {
+    }
+
+
+    /**
+     * Computes {@code out[i] = origin + values[i] * scale}.
+     *
+     * @param values The input values.
+     * @param out Receives the results; may be the values array.
+     * @param count The number of values.
+     * @param origin The constant term.
+     * @param scale The coefficient.
+     */
+    static void affine(double[] values, double[] out, int count, double origin, double scale) {
+        for (int i = 0; i < count; i++) {
+            out[i] = origin + values[i] * scale;
+        }
+    }
+
+
+    /**
+     * Computes {@code out[i] = origin + ln(values[i]) * scale}.
+     *
+     * @param values The input values.
+     * @param out Receives the results; may be the values array.
+     * @param count The number of values.
+     * @param origin The constant term.
+     * @param scale The coefficient of the natural logarithm.
+     */
+    static void logAffine(double[] values, double[] out, int count, double origin, double scale) {
+        for (int i = 0; i < count; i++) {
+            out[i] = origin + Math.log(values[i]) * scale;
+        }
+    }
+
+
+    /**
+     * Finds the minimum and maximum of a range of values, ignoring NaN values.
+     *
+     * @param values The values.
+     * @param from The index of the first value.
+     * @param count The number of values.
+     * @param result Receives the minimum and the maximum; NaN if there are no values.
+     */
+    static void minMax(double[] values, int from, int count, double[] result) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < from + count; i++) {
+            final double value = values[i];
+            // Note: NaN values fail both comparisons
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        result[0] = (min <= max) ? min : Double.NaN;
+        result[1] = (min <= max) ? max : Double.NaN;
+    }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A multi-resolution level-of-detail pyramid over the y values of a series. Each level divides
+ * the series into buckets of a power-of-two number of points and holds the minimum, maximum and
+ * mean y of each bucket together with the indices of the minimum and maximum points. The pyramid
+ * is maintained incrementally as points are appended.
+ * <p>
+ * The finest level has buckets of 2^BASE_SHIFT points by default; with 36 bytes per bucket, all
+ * the levels together cost a little over one byte per point of the series. Very large series may
+ * use a coarser finest level to bound the memory. The buckets are index ranges, so a pyramid represents x ranges
+ * only for a series whose x values are sorted.
+ * <p>
+ * A pyramid can be written and read back, e.g., to persist the aggregates of a large file next to
+ * it; only the finest level is stored, and the coarser levels are rebuilt from it.
+ *
+ * @author Bruce Schubert
+ */
+public class XYAggregatePyramid {
+
+    /**
+     * The log2 of the number of points in a bucket of the finest level.
+     */
+    public static final int BASE_SHIFT = 6;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The aggregates of one level.
+     */
+    private static final class Level {
+
+        final int shift;
+        int count;
+        double[] minY = new double[INITIAL_CAPACITY];
+        double[] maxY = new double[INITIAL_CAPACITY];
+        double[] sumY = new double[INITIAL_CAPACITY];
+        int[] argMin = new int[INITIAL_CAPACITY];
+        int[] argMax = new int[INITIAL_CAPACITY];
+        int[] valid = new int[INITIAL_CAPACITY];
+
+
+        Level(int shift) {
+            this.shift = shift;
+        }
+
+
+        void startBucket() {
+            if (count == minY.length) {
+                final int capacity = count + (count >> 1);
+                minY = Arrays.copyOf(minY, capacity);
+                maxY = Arrays.copyOf(maxY, capacity);
+                sumY = Arrays.copyOf(sumY, capacity);
+                argMin = Arrays.copyOf(argMin, capacity);
+                argMax = Arrays.copyOf(argMax, capacity);
+                valid = Arrays.copyOf(valid, capacity);
+            }
+            minY[count] = Double.NaN;
+            maxY[count] = Double.NaN;
+            sumY[count] = 0;
+            argMin[count] = -1;
+            argMax[count] = -1;
+            valid[count] = 0;
+            count++;
+        }
+
+
+        void include(int bucket, int index, double y) {
+            if (Double.isNaN(y)) {
+                return;
+            }
+            if (!(y >= minY[bucket])) {
+                minY[bucket] = y;
+                argMin[bucket] = index;
+            }
+            if (!(y <= maxY[bucket])) {
+                maxY[bucket] = y;
+                argMax[bucket] = index;
+            }
+            sumY[bucket] += y;
+            valid[bucket]++;
+        }
+
+
+        /**
+         * Merges a bucket of a finer level into a bucket of this level.
+         */
+        void merge(int bucket, Level finer, int source) {
+            if (finer.valid[source] == 0) {
+                return;
+            }
+            if (!(finer.minY[source] >= minY[bucket])) {
+                minY[bucket] = finer.minY[source];
+                argMin[bucket] = finer.argMin[source];
+            }
+            if (!(finer.maxY[source] <= maxY[bucket])) {
+                maxY[bucket] = finer.maxY[source];
+                argMax[bucket] = finer.argMax[source];
+            }
+            sumY[bucket] += finer.sumY[source];
+            valid[bucket] += finer.valid[source];
+        }
+    }
+
+    private final List<Level> levels = new ArrayList<>();
+    private final int baseShift;
+    private int size;
+
+
+    /**
+     * Constructs a pyramid whose finest level has buckets of 2^BASE_SHIFT points.
+     */
+    public XYAggregatePyramid() {
+        this(BASE_SHIFT);
+    }
+
+
+    /**
+     * Constructs a pyramid with the given finest level.
+     *
+     * @param baseShift The log2 of the number of points in a bucket of the finest level, from 0
+     * to 30.
+     */
+    public XYAggregatePyramid(int baseShift) {
+        if (baseShift < 0 || baseShift > 30) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": baseShift must be between 0 and 30.");
+        }
+        this.baseShift = baseShift;
+    }
+
+
+    /**
+     * Appends the y value of the next point of the series.
+     *
+     * @param y The y value; NaN values are excluded from the aggregates.
+     */
+    public void append(double y) {
+        final int index = size++;
+        if (levels.isEmpty()) {
+            levels.add(new Level(baseShift));
+        }
+        // Add a coarser level when the coarsest level spills into a second bucket
+        final Level top = levels.get(levels.size() - 1);
+        if (index == (1 << top.shift)) {
+            final Level coarser = new Level(top.shift + 1);
+            coarser.startBucket();
+            coarser.merge(0, top, 0);
+            levels.add(coarser);
+        }
+        for (int i = 0; i < levels.size(); i++) {
+            final Level level = levels.get(i);
+            final int bucket = index >> level.shift;
+            if (bucket == level.count) {
+                level.startBucket();
+            }
+            level.include(bucket, index, y);
+        }
+    }
+
+
+    /**
+     * Writes the pyramid. Only the finest level is written; read() rebuilds the coarser levels.
+     *
+     * @param out The destination.
+     * @throws IOException if the pyramid cannot be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        final Level finest = levels.isEmpty() ? null : levels.get(0);
+        final int count = (finest == null) ? 0 : finest.count;
+        out.writeInt(baseShift);
+        out.writeInt(size);
+        out.writeInt(count);
+        for (int bucket = 0; bucket < count; bucket++) {
+            out.writeDouble(finest.minY[bucket]);
+            out.writeDouble(finest.maxY[bucket]);
+            out.writeDouble(finest.sumY[bucket]);
+            out.writeInt(finest.argMin[bucket]);
+            out.writeInt(finest.argMax[bucket]);
+            out.writeInt(finest.valid[bucket]);
+        }
+    }
+
+
+    /**
+     * Reads a pyramid written by write(). Points may be appended to it as usual.
+     *
+     * @param in The source.
+     * @return A new pyramid.
+     * @throws IOException if the pyramid cannot be read or is inconsistent.
+     */
+    public static XYAggregatePyramid read(DataInput in) throws IOException {
+        final int baseShift = in.readInt();
+        final int size = in.readInt();
+        final int count = in.readInt();
+        if (baseShift < 0 || baseShift > 30 || size < 0
+            || count != (int) ((size + (1L << baseShift) - 1) >> baseShift)) {
+            throw new IOException(XYAggregatePyramid.class.getSimpleName() + ": the stored pyramid is inconsistent.");
+        }
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid(baseShift);
+        if (count == 0) {
+            return pyramid;
+        }
+        Level level = new Level(baseShift);
+        for (int bucket = 0; bucket < count; bucket++) {
+            level.startBucket();
+            level.minY[bucket] = in.readDouble();
+            level.maxY[bucket] = in.readDouble();
+            level.sumY[bucket] = in.readDouble();
+            level.argMin[bucket] = in.readInt();
+            level.argMax[bucket] = in.readInt();
+            level.valid[bucket] = in.readInt();
+        }
+        pyramid.levels.add(level);
+        // Merge pairs of buckets up to a single bucket, as append() does
+        while (level.count > 1) {
+            final Level coarser = new Level(level.shift + 1);
+            for (int bucket = 0; bucket < level.count; bucket++) {
+                if ((bucket & 1) == 0) {
+                    coarser.startBucket();
+                }
+                coarser.merge(bucket >> 1, level, bucket);
+            }
+            pyramid.levels.add(coarser);
+            level = coarser;
+        }
+        pyramid.size = size;
+        return pyramid;
+    }
+
+
+    /**
+     * Removes all the aggregates.
+     */
+    public void clear() {
+        levels.clear();
+        size = 0;
+    }
+
+
+    /**
+     * @return The number of points aggregated by the pyramid.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * @return The minimum y value of the series; NaN if it has no values.
+     */
+    public double getMinY() {
+        double min = Double.NaN;
+        if (!levels.isEmpty()) {
+            final Level top = levels.get(levels.size() - 1);
+            for (int bucket = 0; bucket < top.count; bucket++) {
+                if (top.valid[bucket] > 0 && !(top.minY[bucket] >= min)) {
+                    min = top.minY[bucket];
+                }
+            }
+        }
+        return min;
+    }
+
+
+    /**
+     * @return The maximum y value of the series; NaN if it has no values.
+     */
+    public double getMaxY() {
+        double max = Double.NaN;
+        if (!levels.isEmpty()) {
+            final Level top = levels.get(levels.size() - 1);
+            for (int bucket = 0; bucket < top.count; bucket++) {
+                if (top.valid[bucket] > 0 && !(top.maxY[bucket] <= max)) {
+                    max = top.maxY[bucket];
+                }
+            }
+        }
+        return max;
+    }
+
+
+    /**
+     * @return The number of levels, from finest (0) to coarsest.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+
+    /**
+     * Selects the coarsest level whose buckets hold no more than the given number of points.
+     *
+     * @param pointsPerBucket The maximum number of points per bucket, e.g., the points per pixel.
+     * @return The level, or -1 if the finest level is too coarse.
+     */
+    public int findLevel(double pointsPerBucket) {
+        int found = -1;
+        for (int i = 0; i < levels.size() && (1 << levels.get(i).shift) <= pointsPerBucket; i++) {
+            found = i;
+        }
+        return found;
+    }
+
+
+    /**
+     * @param level The level.
+     * @return The log2 of the number of points in a bucket of the level.
+     */
+    public int getBucketShift(int level) {
+        return levels.get(level).shift;
+    }
+
+
+    /**
+     * @param level The level.
+     * @return The number of buckets in the level; the last bucket may be partially filled.
+     */
+    public int getBucketCount(int level) {
+        return levels.get(level).count;
+    }
+
+
+    /**
+     * @return True if the bucket holds at least one y value that is not NaN.
+     */
+    public boolean hasValues(int level, int bucket) {
+        return levels.get(level).valid[bucket] > 0;
+    }
+
+
+    public double getMinY(int level, int bucket) {
+        return levels.get(level).minY[bucket];
+    }
+
+
+    public double getMaxY(int level, int bucket) {
+        return levels.get(level).maxY[bucket];
+    }
+
+
+    /**
+     * @return The mean of the y values in the bucket; NaN if the bucket has no values.
+     */
+    public double getMeanY(int level, int bucket) {
+        final Level l = levels.get(level);
+        return l.valid[bucket] == 0 ? Double.NaN : l.sumY[bucket] / l.valid[bucket];
+    }
+
+
+    /**
+     * @return The index of the point with the minimum y value in the bucket; -1 if none.
+     */
+    public int getMinIndex(int level, int bucket) {
+        return levels.get(level).argMin[bucket];
+    }
+
+
+    /**
+     * @return The index of the point with the maximum y value in the bucket; -1 if none.
+     */
+    public int getMaxIndex(int level, int bucket) {
+        return levels.get(level).argMax[bucket];
+    }
+
+}
@@ -29,7 +29,9 @@
  */
 package com.emxsys.chart.extension;
 
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 
 
@@ -56,4 +58,31 @@ public interface XYAnnotation {
      */
     void layoutAnnotation(ValueAxis xAxis, ValueAxis yAxis);
 
+
+    /**
+     * Gets the extent of the annotation in data coordinates. XYAnnotations uses the bounds to
+     * skip the layout of annotations outside the visible axis range. The default returns null,
+     * i.e., the annotation is unbounded and always laid out.
+     *
+     * @return The data bounds, or null if the annotation is unbounded.
+     */
+    default Rectangle2D getDataBounds() {
+        return null;
+    }
+
+
+    /**
+     * Draws the annotation on the canvas of a layer in canvas rendering mode. The default returns
+     * false, i.e., the annotation cannot be drawn and its Node is displayed instead.
+     *
+     * @param gc The graphics context of the layer canvas.
+     * @param xAxis
+     * @param yAxis
+     * @param canvas The layer canvas, which provides the chart-annotation-* styles.
+     * @return True if the annotation was drawn.
+     */
+    default boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+        return false;
+    }
+
 }
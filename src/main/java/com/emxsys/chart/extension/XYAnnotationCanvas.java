@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.HashMap;
+import java.util.Map;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.geometry.VPos;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.Shape;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+
+/**
+ * An immediate-mode drawing surface for an annotation layer. The annotations of the layer are
+ * drawn onto a single Canvas on each layout instead of each owning a Node in the scene graph, so
+ * there is no per-annotation CSS, bounds computation or picking. The chart-annotation-* style
+ * classes are still honored: they are applied to one hidden style proxy per class, and the
+ * annotations read their paints, stroke widths and fonts from the proxies.
+ *
+ * @author Bruce Schubert
+ */
+public class XYAnnotationCanvas {
+
+    /**
+     * The measured sizes of the drawn text, keyed by text and font, and the node measuring them.
+     */
+    private static final TickLabelSizeCache textSizes = new TickLabelSizeCache(TickLabelSizeCache.DEFAULT_CAPACITY);
+    private static final Text measuringText = new Text();
+
+    private final Canvas canvas = new Canvas();
+    private final Group styleProxies = new Group();
+    private final Map<String, Shape> shapeStyles = new HashMap<>();
+    private final Map<String, Label> labelStyles = new HashMap<>();
+
+
+    /**
+     * Constructs an annotation canvas.
+     */
+    public XYAnnotationCanvas() {
+        canvas.getStyleClass().add("chart-annotation-canvas");
+        canvas.setManaged(false);
+        canvas.setMouseTransparent(true);
+        styleProxies.setManaged(false);
+        styleProxies.setVisible(false);
+    }
+
+
+    /**
+     * Gets the canvas.
+     *
+     * @return The Canvas node.
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+
+    /**
+     * Gets the hidden group of style proxies, which must be in the scene graph with the canvas.
+     *
+     * @return A Group node.
+     */
+    public Group getStyleProxies() {
+        return styleProxies;
+    }
+
+
+    /**
+     * Resizes and clears the canvas for a new frame.
+     *
+     * @param width The width of the plot area.
+     * @param height The height of the plot area.
+     * @return The graphics context to draw with.
+     */
+    public GraphicsContext begin(double width, double height) {
+        if (canvas.getWidth() != width) {
+            canvas.setWidth(width);
+        }
+        if (canvas.getHeight() != height) {
+            canvas.setHeight(height);
+        }
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        return gc;
+    }
+
+
+    /**
+     * Gets the CSS styled stroke, stroke width and fill of a style class.
+     *
+     * @param styleClass A shape style class, e.g., "chart-annotation-line".
+     * @return A hidden Shape carrying the style class.
+     */
+    public Shape getShapeStyle(String styleClass) {
+        Shape proxy = shapeStyles.get(styleClass);
+        if (proxy == null) {
+            proxy = new Path();
+            proxy.getStyleClass().setAll(styleClass);
+            addProxy(proxy);
+            shapeStyles.put(styleClass, proxy);
+        }
+        return proxy;
+    }
+
+
+    /**
+     * Gets the CSS styled font and text fill of a style class.
+     *
+     * @param styleClass A label style class, e.g., "chart-annotation-text".
+     * @return A hidden Label carrying the style class.
+     */
+    public Label getLabelStyle(String styleClass) {
+        Label proxy = labelStyles.get(styleClass);
+        if (proxy == null) {
+            proxy = new Label();
+            proxy.getStyleClass().add(styleClass);
+            addProxy(proxy);
+            labelStyles.put(styleClass, proxy);
+        }
+        return proxy;
+    }
+
+
+    private void addProxy(Node proxy) {
+        styleProxies.getChildren().add(proxy);
+        proxy.applyCss();
+    }
+
+
+    /**
+     * Draws text positioned relative to an anchor point in the same manner as a laid out
+     * XYTextAnnotation. The text is measured once per string and font, and the sizes are cached.
+     * The padding of the label style is applied as it is to a label.
+     *
+     * @param gc The graphics context.
+     * @param text The text.
+     * @param x The x display position of the anchor.
+     * @param y The y display position of the anchor.
+     * @param anchor The position of the anchor point on the text.
+     * @param style The label style proxy.
+     */
+    public static void drawText(GraphicsContext gc, String text, double x, double y, Pos anchor, Label style) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        final Dimension2D size = textSizes.getSize(text, style.getFont(), 0, (t, rotation) -> {
+            measuringText.setFont(style.getFont());
+            measuringText.setText(t);
+            return new Dimension2D(measuringText.getLayoutBounds().getWidth(),
+                measuringText.getLayoutBounds().getHeight());
+        });
+        final Insets padding = style.getPadding();
+        final double width = size.getWidth() + padding.getLeft() + padding.getRight();
+        final double height = size.getHeight() + padding.getTop() + padding.getBottom();
+        switch (anchor.getHpos()) {
+            case CENTER:
+                x -= width / 2;
+                break;
+            case RIGHT:
+                x -= width;
+                break;
+            default:
+                break;
+        }
+        switch (anchor.getVpos()) {
+            case CENTER:
+                y -= height / 2;
+                break;
+            case BOTTOM:
+            case BASELINE:
+                y -= height;
+                break;
+            default:
+                break;
+        }
+        gc.setFont(style.getFont());
+        gc.setFill(style.getTextFill());
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.TOP);
+        gc.fillText(text, x + padding.getLeft(), y + padding.getTop());
+    }
+
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javafx.geometry.Rectangle2D;
+
+
+/**
+ * A spatial index of annotations by their bounds in data coordinates. The bounded annotations
+ * are bulk loaded into a packed R-tree with the Sort-Tile-Recursive (STR) algorithm, so a query
+ * for the annotations within the visible axis range visits only the branches that intersect it.
+ * Annotations added or moved since the tree was packed are held in a short pending list, and
+ * removed ones are skipped, until the tree is repacked on a later query. Removed annotations are
+ * only marked, and are swept from the pending and unbounded lists in bulk, so removing many
+ * annotations costs linear time. Annotations without
+ * bounds are always returned.
+ *
+ * @author Bruce Schubert
+ */
+public class XYAnnotationIndex {
+
+    /**
+     * The maximum number of children of a tree node.
+     */
+    private static final int NODE_CAPACITY = 16;
+    /**
+     * The minimum number of pending annotations before the tree is repacked.
+     */
+    private static final int MIN_PENDING = 64;
+
+    /**
+     * An axis-aligned box in data coordinates.
+     */
+    private static class Box {
+
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+
+
+        final boolean intersects(double x0, double y0, double x1, double y1) {
+            return minX <= x1 && maxX >= x0 && minY <= y1 && maxY >= y0;
+        }
+    }
+
+    /**
+     * The bounds of an annotation.
+     */
+    private static final class Entry extends Box {
+
+        final XYAnnotation annotation;
+        final long order;
+        boolean bounded;
+        boolean inTree;
+        boolean removed;
+
+
+        Entry(XYAnnotation annotation, long order) {
+            this.annotation = annotation;
+            this.order = order;
+        }
+    }
+
+    /**
+     * A tree node; the children of a leaf are entries.
+     */
+    private static final class Node extends Box {
+
+        final Box[] children;
+        final boolean leaf;
+
+
+        Node(Box[] children, boolean leaf) {
+            this.children = children;
+            this.leaf = leaf;
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
+            for (Box child : children) {
+                minX = Math.min(minX, child.minX);
+                minY = Math.min(minY, child.minY);
+                maxX = Math.max(maxX, child.maxX);
+                maxY = Math.max(maxY, child.maxY);
+            }
+        }
+    }
+
+    private static final Comparator<Box> BY_X = Comparator.comparingDouble(box -> box.minX + box.maxX);
+    private static final Comparator<Box> BY_Y = Comparator.comparingDouble(box -> box.minY + box.maxY);
+    private static final Comparator<Entry> BY_ORDER = Comparator.comparingLong(entry -> entry.order);
+
+    private final Map<XYAnnotation, Entry> entries = new IdentityHashMap<>();
+    private final List<Entry> pending = new ArrayList<>();
+    private final List<Entry> unbounded = new ArrayList<>();
+    private final List<Entry> found = new ArrayList<>();
+    private Node root;
+    private int treeSize;
+    private int removedCount;
+    private int staleCount;
+    private long nextOrder;
+
+
+    /**
+     * Adds an annotation to the index. Query results are ordered by when the annotations were
+     * added.
+     *
+     * @param annotation The annotation.
+     */
+    public void add(XYAnnotation annotation) {
+        if (entries.containsKey(annotation)) {
+            update(annotation);
+            return;
+        }
+        final Entry entry = new Entry(annotation, nextOrder++);
+        entries.put(annotation, entry);
+        insert(entry);
+    }
+
+
+    /**
+     * Tests whether an annotation is in the index.
+     *
+     * @param annotation The annotation.
+     * @return True if the annotation has been added and not removed.
+     */
+    public boolean contains(XYAnnotation annotation) {
+        return entries.containsKey(annotation);
+    }
+
+
+    /**
+     * Tests whether an annotation is indexed by a single point, e.g., the anchor of a label, so
+     * that its display extent is not covered by its data bounds.
+     *
+     * @param annotation The annotation.
+     * @return True if the annotation's bounds have zero width and height.
+     */
+    public boolean isPoint(XYAnnotation annotation) {
+        final Entry entry = entries.get(annotation);
+        return entry != null && entry.bounded && entry.minX == entry.maxX && entry.minY == entry.maxY;
+    }
+
+
+    /**
+     * Removes an annotation from the index.
+     *
+     * @param annotation The annotation.
+     */
+    public void remove(XYAnnotation annotation) {
+        final Entry entry = entries.remove(annotation);
+        if (entry != null) {
+            discard(entry);
+        }
+    }
+
+
+    /**
+     * Re-reads the bounds of an annotation that may have moved.
+     *
+     * @param annotation The annotation.
+     */
+    public void update(XYAnnotation annotation) {
+        final Entry entry = entries.get(annotation);
+        if (entry == null) {
+            return;
+        }
+        final Rectangle2D bounds = annotation.getDataBounds();
+        if (entry.bounded && bounds != null && bounds.getMinX() == entry.minX && bounds.getMinY() == entry.minY
+            && bounds.getMaxX() == entry.maxX && bounds.getMaxY() == entry.maxY) {
+            return;
+        }
+        // Replace the entry, retaining its order
+        discard(entry);
+        final Entry moved = new Entry(annotation, entry.order);
+        entries.put(annotation, moved);
+        insert(moved);
+    }
+
+
+    /**
+     * Removes all the annotations.
+     */
+    public void clear() {
+        entries.clear();
+        pending.clear();
+        unbounded.clear();
+        root = null;
+        treeSize = 0;
+        removedCount = 0;
+        staleCount = 0;
+    }
+
+
+    /**
+     * Tests whether an annotation intersects a data range.
+     *
+     * @param annotation An indexed annotation.
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     * @return True if the annotation intersects the range or has no bounds.
+     */
+    public boolean intersects(XYAnnotation annotation, double minX, double minY, double maxX, double maxY) {
+        final Entry entry = entries.get(annotation);
+        return entry == null || !entry.bounded || entry.intersects(minX, minY, maxX, maxY);
+    }
+
+
+    /**
+     * Finds the annotations that intersect a data range, and those without bounds.
+     *
+     * @param minX The minimum x value.
+     * @param minY The minimum y value.
+     * @param maxX The maximum x value.
+     * @param maxY The maximum y value.
+     * @param result Receives the annotations, in the order they were added.
+     */
+    public void query(double minX, double minY, double maxX, double maxY, List<XYAnnotation> result) {
+        sweep();
+        if (pending.size() > Math.max(MIN_PENDING, treeSize / 8) || removedCount > treeSize / 4) {
+            pack();
+        }
+        found.clear();
+        if (root != null && root.intersects(minX, minY, maxX, maxY)) {
+            search(root, minX, minY, maxX, maxY);
+        }
+        for (Entry entry : pending) {
+            if (entry.intersects(minX, minY, maxX, maxY)) {
+                found.add(entry);
+            }
+        }
+        found.addAll(unbounded);
+        found.sort(BY_ORDER);
+        for (Entry entry : found) {
+            result.add(entry.annotation);
+        }
+        found.clear();
+    }
+
+
+    private void search(Node node, double minX, double minY, double maxX, double maxY) {
+        for (Box child : node.children) {
+            if (child.intersects(minX, minY, maxX, maxY)) {
+                if (node.leaf) {
+                    final Entry entry = (Entry) child;
+                    if (!entry.removed) {
+                        found.add(entry);
+                    }
+                }
+                else {
+                    search((Node) child, minX, minY, maxX, maxY);
+                }
+            }
+        }
+    }
+
+
+    private void insert(Entry entry) {
+        final Rectangle2D bounds = entry.annotation.getDataBounds();
+        entry.bounded = bounds != null && !Double.isNaN(bounds.getMinX()) && !Double.isNaN(bounds.getMinY())
+            && !Double.isNaN(bounds.getMaxX()) && !Double.isNaN(bounds.getMaxY());
+        if (entry.bounded) {
+            entry.minX = bounds.getMinX();
+            entry.minY = bounds.getMinY();
+            entry.maxX = bounds.getMaxX();
+            entry.maxY = bounds.getMaxY();
+            pending.add(entry);
+        }
+        else {
+            unbounded.add(entry);
+        }
+    }
+
+
+    private void discard(Entry entry) {
+        entry.removed = true;
+        if (entry.inTree) {
+            removedCount++;
+        }
+        else if (++staleCount > MIN_PENDING && staleCount * 2 > pending.size() + unbounded.size()) {
+            // Bound the garbage held by the lists between queries
+            sweep();
+        }
+    }
+
+
+    /**
+     * Removes the discarded entries from the pending and unbounded lists.
+     */
+    private void sweep() {
+        if (staleCount > 0) {
+            pending.removeIf(entry -> entry.removed);
+            unbounded.removeIf(entry -> entry.removed);
+            staleCount = 0;
+        }
+    }
+
+
+    /**
+     * Bulk loads all the bounded annotations into a new tree.
+     */
+    private void pack() {
+        sweep();
+        final Box[] items = new Box[entries.size() - unbounded.size()];
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.bounded) {
+                entry.inTree = true;
+                items[count++] = entry;
+            }
+        }
+        pending.clear();
+        removedCount = 0;
+        treeSize = count;
+        if (count == 0) {
+            root = null;
+            return;
+        }
+        Box[] level = items;
+        boolean leaf = true;
+        do {
+            level = packLevel(level, leaf);
+            leaf = false;
+        } while (level.length > 1);
+        root = (Node) level[0];
+    }
+
+
+    /**
+     * Packs one level of the tree: the items are sorted into vertical slices by x, and each
+     * slice is sorted by y and cut into nodes.
+     */
+    private static Node[] packLevel(Box[] items, boolean leaf) {
+        final int count = items.length;
+        final int nodeCount = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        final int sliceSize = (int) Math.ceil(Math.sqrt(nodeCount)) * NODE_CAPACITY;
+        Arrays.sort(items, BY_X);
+        final Node[] nodes = new Node[nodeCount];
+        int n = 0;
+        for (int slice = 0; slice < count; slice += sliceSize) {
+            final int sliceEnd = Math.min(count, slice + sliceSize);
+            Arrays.sort(items, slice, sliceEnd, BY_Y);
+            for (int i = slice; i < sliceEnd; i += NODE_CAPACITY) {
+                nodes[n++] = new Node(Arrays.copyOfRange(items, i, Math.min(sliceEnd, i + NODE_CAPACITY)), leaf);
+            }
+        }
+        return nodes;
+    }
+
+}
@@ -30,18 +30,37 @@
 package com.emxsys.chart.extension;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.chart.XYChart;
 
 
 /**
  * JavaFX Chart Extension that adds text, line, image, and polygon annotations to an XYChart.
+ * <p>
+ * Only the annotations that have been added or invalidated are laid out, unless the axis
+ * transform has changed since the previous layout. The annotations are indexed by their data
+ * bounds, and only those within the visible axis range are attached to the scene graph and laid
+ * out; the others are detached until the axis range moves over them.
+ * <p>
+ * A layer may instead be drawn in canvas rendering mode, where its annotations are drawn onto a
+ * single canvas on each layout rather than displayed by their own nodes. Use this mode for charts
+ * whose annotations are only looked at, not interacted with.
+ * <p>
+ * Use {@link #addAll}, {@link #removeAll} and {@link #replaceAll} to change many annotations at
+ * once, and {@link #batch} to group other changes; the nodes are then attached and laid out in a
+ * single layout pass when the changes are complete.
  *
  * @author Bruce Schubert
  */
@@ -65,6 +84,64 @@ public class XYAnnotations {
     private final ObservableList<XYAnnotation> fgAnnotations;
     private final ObservableList<XYAnnotation> bgAnnotations;
 
+    /**
+     * The minimum margin, in pixels, around the plot area within which annotations are still laid
+     * out, so that labels anchored just outside the axis range remain visible.
+     */
+    private static final double CULL_MARGIN = 100;
+
+    /**
+     * The current cull margin, grown to the largest laid out node of an annotation anchored at a
+     * point, e.g., a text or image annotation.
+     */
+    private double cullMargin = CULL_MARGIN;
+
+    /**
+     * The index and the attached (visible) annotations of a layer.
+     */
+    private static final class LayerContent {
+
+        final Group group;
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final List<XYAnnotation> attached = new ArrayList<>();
+        final Set<XYAnnotation> attachedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        XYAnnotationCanvas canvas;
+        boolean childrenValid = true;
+        boolean redraw;
+
+
+        LayerContent(Group group) {
+            this.group = group;
+        }
+    }
+
+    private final LayerContent fgContent = new LayerContent(foreground);
+    private final LayerContent bgContent = new LayerContent(background);
+    private final List<XYAnnotation> visible = new ArrayList<>();
+    private final List<Node> visibleNodes = new ArrayList<>();
+
+    private final XYTransformTracker transform;
+    private final Set<XYAnnotation> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The annotations within the visible range whose nodes are hidden by the label declutter.
+     */
+    private final Set<XYAnnotation> suppressed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The visible data range, including the cull margin.
+     */
+    private double windowMinX = Double.NEGATIVE_INFINITY;
+    private double windowMinY = Double.NEGATIVE_INFINITY;
+    private double windowMaxX = Double.POSITIVE_INFINITY;
+    private double windowMaxY = Double.POSITIVE_INFINITY;
+
+    /**
+     * The nesting depth of batch scopes, and whether a layout was requested within them.
+     */
+    private int batchDepth;
+    private boolean layoutPending;
+
 
     /**
      * Constructs an annotation extension object for an XYChart.
@@ -75,6 +152,7 @@ public class XYAnnotations {
     public XYAnnotations(XYChart chart, ObservableList<Node> chartChildren) {
         this.chart = chart;
         this.chartChildren = chartChildren;
+        this.transform = new XYTransformTracker(chart);
 
         // The chartChildren contains a plotBackground, plotArea, XAxis and YAxis.
         // Find the plotArea and add our background and foreground on either side
@@ -98,9 +176,10 @@ public class XYAnnotations {
         fgAnnotations = FXCollections.observableArrayList();
         bgAnnotations = FXCollections.observableArrayList();
 
-        // Listen to list changes and re-plot
-        fgAnnotations.addListener((InvalidationListener) observable -> layoutForeground());
-        bgAnnotations.addListener((InvalidationListener) observable -> layoutBackground());
+        // Listen to list changes and plot the new annotations in the next layout pass, so that
+        // a run of changes attaches the visible nodes once
+        fgAnnotations.addListener((InvalidationListener) observable -> requestLayout());
+        bgAnnotations.addListener((InvalidationListener) observable -> requestLayout());
     }
 
 
@@ -112,17 +191,40 @@ public class XYAnnotations {
      */
     public void add(XYAnnotation annotation, Layer layer) {
         Objects.requireNonNull(annotation, getClass().getSimpleName() + ": annotation must not be null");
+        dirty.add(annotation);
+        // The node is attached when the annotation is laid out within the visible range
         if (layer == Layer.FOREGROUND) {
+            fgContent.index.add(annotation);
             fgAnnotations.add(annotation);
-            foreground.getChildren().add(annotation.getNode());
-            foreground.requestLayout();
         }
         else {
+            bgContent.index.add(annotation);
             bgAnnotations.add(annotation);
-            background.getChildren().add(annotation.getNode());
-            background.requestLayout();
         }
-        plotContent.requestLayout();
+        requestLayout();
+    }
+
+
+    /**
+     * Adds a collection of annotations to the specified layer with a single change to the
+     * annotation list and a single layout.
+     *
+     * @param annotations The annotations to be added.
+     * @param layer The foreground or background.
+     */
+    public void addAll(Collection<? extends XYAnnotation> annotations, Layer layer) {
+        Objects.requireNonNull(annotations, getClass().getSimpleName() + ": annotations must not be null");
+        for (XYAnnotation annotation : annotations) {
+            Objects.requireNonNull(annotation, getClass().getSimpleName() + ": annotation must not be null");
+        }
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
+        ObservableList<XYAnnotation> collection = (layer == Layer.BACKGROUND) ? bgAnnotations : fgAnnotations;
+        for (XYAnnotation annotation : annotations) {
+            content.index.add(annotation);
+        }
+        dirty.addAll(annotations);
+        collection.addAll(annotations);
+        requestLayout();
     }
 
 
@@ -135,43 +237,165 @@ public class XYAnnotations {
     public void remove(XYAnnotation annotation, Layer layer) {
         Objects.requireNonNull(annotation, getClass().getSimpleName() + ": annotation must not be null");
 
-        Group group = (layer == Layer.BACKGROUND) ? background : foreground;
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
         ObservableList<XYAnnotation> collection = (layer == Layer.BACKGROUND) ? bgAnnotations : fgAnnotations;
 
-        if (annotation.getNode() != null) {
-            group.getChildren().remove(annotation.getNode());
-        }
+        content.index.remove(annotation);
+        detach(content, annotation);
+        dirty.remove(annotation);
         collection.remove(annotation);
     }
 
 
+    /**
+     * Removes a collection of annotations from the specified layer with a single change to the
+     * annotation list and a single update of the layer's nodes.
+     *
+     * @param annotations The annotations to be removed.
+     * @param layer The foreground or background.
+     */
+    public void removeAll(Collection<? extends XYAnnotation> annotations, Layer layer) {
+        Objects.requireNonNull(annotations, getClass().getSimpleName() + ": annotations must not be null");
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
+        ObservableList<XYAnnotation> collection = (layer == Layer.BACKGROUND) ? bgAnnotations : fgAnnotations;
+
+        // Compare by identity, and avoid a linear search of the list for each annotation
+        Set<XYAnnotation> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(annotations);
+        for (XYAnnotation annotation : removed) {
+            content.index.remove(annotation);
+            detach(content, annotation);
+        }
+        dirty.removeAll(removed);
+        suppressed.removeAll(removed);
+        collection.removeAll(removed);
+    }
+
+
+    /**
+     * Replaces all the annotations of the specified layer with the given annotations, with a
+     * single change to the annotation list and a single update of the layer's nodes.
+     *
+     * @param annotations The new annotations.
+     * @param layer The foreground or background.
+     */
+    public void replaceAll(Collection<? extends XYAnnotation> annotations, Layer layer) {
+        Objects.requireNonNull(annotations, getClass().getSimpleName() + ": annotations must not be null");
+        for (XYAnnotation annotation : annotations) {
+            Objects.requireNonNull(annotation, getClass().getSimpleName() + ": annotation must not be null");
+        }
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
+        ObservableList<XYAnnotation> collection = (layer == Layer.BACKGROUND) ? bgAnnotations : fgAnnotations;
+
+        // The nodes are replaced by the next layout of the layer
+        forget(collection);
+        content.index.clear();
+        content.attached.clear();
+        content.attachedSet.clear();
+        content.childrenValid = false;
+        content.redraw = content.canvas != null;
+        for (XYAnnotation annotation : annotations) {
+            content.index.add(annotation);
+        }
+        dirty.addAll(annotations);
+        collection.setAll(annotations);
+        requestLayout();
+    }
+
+
+    /**
+     * Runs a sequence of changes to the annotations as a single transaction. The list listeners
+     * and layout requests are suspended while the changes are made, and the annotations are laid
+     * out once, in the next layout pass after the outermost scope is closed.
+     *
+     * @param changes Adds, removes or invalidates annotations.
+     */
+    public void batch(Runnable changes) {
+        Objects.requireNonNull(changes, getClass().getSimpleName() + ": changes must not be null");
+        batchDepth++;
+        try {
+            changes.run();
+        }
+        finally {
+            if (--batchDepth == 0 && layoutPending) {
+                layoutPending = false;
+                plotContent.requestLayout();
+            }
+        }
+    }
+
+
+    /**
+     * Marks an annotation as changed so that it is laid out on the next layout of the chart.
+     *
+     * @param annotation The annotation whose values have changed.
+     */
+    public void invalidate(XYAnnotation annotation) {
+        Objects.requireNonNull(annotation, getClass().getSimpleName() + ": annotation must not be null");
+        dirty.add(annotation);
+        requestLayout();
+    }
+
+
     /**
      * Clears all the annotations from the specified layer.
      *
      * @param layer The background or foreground.
      */
     public void clearAnnotations(Layer layer) {
-        Group group = layer == Layer.BACKGROUND ? background : foreground;
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
         ObservableList<XYAnnotation> collection = (layer == Layer.BACKGROUND) ? bgAnnotations : fgAnnotations;
-        for (XYAnnotation annotation : collection) {
-            group.getChildren().remove(annotation.getNode());
-        }
+        content.group.getChildren().clear();
+        content.childrenValid = false;
+        content.attached.clear();
+        content.attachedSet.clear();
+        content.index.clear();
+        forget(collection);
         collection.clear();
     }
 
+    /**
+     * Sets whether the annotations of a layer are drawn onto a single canvas instead of being
+     * displayed by their own nodes. Canvas-drawn annotations are not styled individually and do
+     * not receive mouse events; annotations that cannot draw themselves are still displayed by
+     * their nodes.
+     *
+     * @param layer The background or foreground.
+     * @param enabled True to draw the layer on a canvas.
+     */
+    public void setCanvasRendering(Layer layer, boolean enabled) {
+        LayerContent content = (layer == Layer.BACKGROUND) ? bgContent : fgContent;
+        if (enabled == (content.canvas != null)) {
+            return;
+        }
+        content.canvas = enabled ? new XYAnnotationCanvas() : null;
+        content.group.getChildren().clear();
+        content.childrenValid = false;
+        content.attached.clear();
+        content.attachedSet.clear();
+        // Lay out the whole layer again in the new mode
+        transform.invalidate();
+        requestLayout();
+    }
+
+
+    /**
+     * Gets whether a layer is drawn onto a canvas.
+     *
+     * @param layer The background or foreground.
+     * @return True if the layer is in canvas rendering mode.
+     */
+    public boolean isCanvasRendering(Layer layer) {
+        return ((layer == Layer.BACKGROUND) ? bgContent : fgContent).canvas != null;
+    }
+
     /**
      * Clears all line annotations from the specified layer.
      *
      * @param layer The background or foreground.
      */
     public void clearLineAnnotations(Layer layer) {
-        ArrayList<XYAnnotation> copy = new ArrayList<>(layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations);
-
-        for (XYAnnotation annotation : copy) {
-            if (annotation instanceof XYLineAnnotation) {
-                remove(annotation, layer);
-            }
-        }
+        removeAll(select(layer, XYLineAnnotation.class), layer);
     }
 
     /**
@@ -180,13 +404,7 @@ public class XYAnnotations {
      * @param layer The background or foreground.
      */
     public void clearTextAnnotations(Layer layer) {
-        ArrayList<XYAnnotation> copy = new ArrayList<>(layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations);
-
-        for (XYAnnotation annotation : copy) {
-            if (annotation instanceof XYTextAnnotation) {
-                remove(annotation, layer);
-            }
-        }
+        removeAll(select(layer, XYTextAnnotation.class), layer);
     }
 
     /**
@@ -195,13 +413,7 @@ public class XYAnnotations {
      * @param layer The background or foreground.
      */
     public void clearPolygonAnnotations(Layer layer) {
-        ArrayList<XYAnnotation> copy = new ArrayList<>(layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations);
-
-        for (XYAnnotation annotation : copy) {
-            if (annotation instanceof XYPolygonAnnotation) {
-                remove(annotation, layer);
-            }
-        }
+        removeAll(select(layer, XYPolygonAnnotation.class), layer);
     }
 
     /**
@@ -210,13 +422,7 @@ public class XYAnnotations {
      * @param layer The background or foreground.
      */
     public void clearFieldAnnotations(Layer layer) {
-        ArrayList<XYAnnotation> copy = new ArrayList<>(layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations);
-
-        for (XYAnnotation annotation : copy) {
-            if (annotation instanceof XYFieldAnnotation) {
-                remove(annotation, layer);
-            }
-        }
+        removeAll(select(layer, XYFieldAnnotation.class), layer);
     }
 
     /**
@@ -225,40 +431,295 @@ public class XYAnnotations {
      * @param layer The background or foreground.
      */
     public void clearImageAnnotations(Layer layer) {
-        ArrayList<XYAnnotation> copy = new ArrayList<>(layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations);
+        removeAll(select(layer, XYImageAnnotation.class), layer);
+    }
 
-        for (XYAnnotation annotation : copy) {
-            if (annotation instanceof XYImageAnnotation) {
-                remove(annotation, layer);
+
+    /**
+     * Selects the annotations of a layer that are instances of the given class.
+     */
+    private List<XYAnnotation> select(Layer layer, Class<? extends XYAnnotation> type) {
+        List<XYAnnotation> matches = new ArrayList<>();
+        for (XYAnnotation annotation : layer == Layer.BACKGROUND ? bgAnnotations : fgAnnotations) {
+            if (type.isInstance(annotation)) {
+                matches.add(annotation);
             }
         }
+        return matches;
     }
 
 
     /**
-     * Performs a layout of the background and foreground annotations.
+     * Performs a layout of the background and foreground annotations. All the visible
+     * annotations are laid out if the axis transform has changed; otherwise only the dirty
+     * annotations. The layout is deferred while a batch of changes is in progress.
      */
     public void layoutAnnotations() {
-        layoutBackground();
-        layoutForeground();
+        if (batchDepth > 0) {
+            layoutPending = true;
+            return;
+        }
+        if (transform.update()) {
+            // Re-index the changed annotations before querying the new window
+            for (XYAnnotation annotation : dirty) {
+                if (fgContent.index.contains(annotation)) {
+                    fgContent.index.update(annotation);
+                }
+                else if (bgContent.index.contains(annotation)) {
+                    bgContent.index.update(annotation);
+                }
+            }
+            dirty.clear();
+            updateWindow();
+            layoutVisible(bgContent, true);
+            layoutVisible(fgContent, true);
+        }
+        else {
+            layoutDirty();
+        }
     }
 
 
-    private void layoutForeground() {
+    private void layoutDirty() {
+        if (dirty.isEmpty() && !fgContent.redraw && !bgContent.redraw
+                && fgContent.childrenValid && bgContent.childrenValid) {
+            return;
+        }
         ValueAxis xAxis = (ValueAxis) chart.getXAxis();
         ValueAxis yAxis = (ValueAxis) chart.getYAxis();
-        for (XYAnnotation annotation : fgAnnotations) {
-            annotation.layoutAnnotation(xAxis, yAxis);
+        boolean fgChanged = false;
+        boolean bgChanged = false;
+        for (XYAnnotation annotation : dirty) {
+            final boolean isForeground = fgContent.index.contains(annotation);
+            final LayerContent content = isForeground ? fgContent : bgContent;
+            if (!isForeground && !bgContent.index.contains(annotation)) {
+                continue;
+            }
+            // The annotation may have moved into or out of the visible range
+            content.index.update(annotation);
+            final boolean show = content.index.intersects(annotation, windowMinX, windowMinY, windowMaxX, windowMaxY);
+            if (content.canvas != null) {
+                // The canvas is redrawn as a whole
+                content.redraw = true;
+                continue;
+            }
+            if (show) {
+                annotation.layoutAnnotation(xAxis, yAxis);
+            }
+            if (show != content.attachedSet.contains(annotation)) {
+                if (isForeground) {
+                    fgChanged = true;
+                }
+                else {
+                    bgChanged = true;
+                }
+            }
+        }
+        dirty.clear();
+        if (bgChanged || bgContent.redraw || !bgContent.childrenValid) {
+            layoutVisible(bgContent, false);
+        }
+        if (fgChanged || fgContent.redraw || !fgContent.childrenValid) {
+            layoutVisible(fgContent, false);
+        }
+    }
+
+
+    /**
+     * Attaches the annotations of a layer within the visible range, in the order they were
+     * added, and detaches the others. In canvas rendering mode the visible annotations are drawn
+     * on the layer canvas, and only those that cannot be drawn are attached.
+     *
+     * @param content The layer.
+     * @param layoutAll If true, lays out all the visible annotations; otherwise only those that
+     * were not attached.
+     */
+    private void layoutVisible(LayerContent content, boolean layoutAll) {
+        ValueAxis xAxis = (ValueAxis) chart.getXAxis();
+        ValueAxis yAxis = (ValueAxis) chart.getYAxis();
+        visible.clear();
+        content.index.query(windowMinX, windowMinY, windowMaxX, windowMaxY, visible);
+        if (content.canvas != null) {
+            if (!content.childrenValid) {
+                // The style proxies must be in the scene graph before they are read
+                content.group.getChildren().setAll(content.canvas.getStyleProxies(), content.canvas.getCanvas());
+            }
+            final GraphicsContext gc = content.canvas.begin(xAxis.getWidth(), yAxis.getHeight());
+            int nodeCount = 0;
+            for (XYAnnotation annotation : visible) {
+                if (!annotation.drawAnnotation(gc, xAxis, yAxis, content.canvas)) {
+                    visible.set(nodeCount++, annotation);
+                }
+            }
+            visible.subList(nodeCount, visible.size()).clear();
+            content.redraw = false;
+        }
+        boolean marginGrown = false;
+        for (XYAnnotation annotation : visible) {
+            if (layoutAll || !content.attachedSet.contains(annotation)) {
+                annotation.layoutAnnotation(xAxis, yAxis);
+            }
+            // A node wider than the margin may be partly visible while its anchor is culled
+            final Node node = annotation.getNode();
+            if (node != null && content.index.isPoint(annotation)) {
+                final double extent = Math.max(node.getLayoutBounds().getWidth(), node.getLayoutBounds().getHeight());
+                if (extent > cullMargin) {
+                    cullMargin = extent;
+                    marginGrown = true;
+                }
+            }
+        }
+        if (marginGrown) {
+            // Query the wider window in the next layout
+            transform.invalidate();
+            requestLayout();
+        }
+        if (!content.childrenValid || !visible.equals(content.attached)) {
+            content.attached.clear();
+            content.attached.addAll(visible);
+            content.attachedSet.clear();
+            content.attachedSet.addAll(visible);
+            attachNodes(content);
+        }
+        visible.clear();
+    }
+
+
+    /**
+     * Replaces the children of a layer with the nodes of its attached annotations, less those
+     * suppressed by the label declutter, in a single change.
+     *
+     * @param content The layer.
+     */
+    private void attachNodes(LayerContent content) {
+        visibleNodes.clear();
+        if (content.canvas != null) {
+            visibleNodes.add(content.canvas.getStyleProxies());
+            visibleNodes.add(content.canvas.getCanvas());
+        }
+        for (XYAnnotation annotation : content.attached) {
+            if (!suppressed.contains(annotation)) {
+                visibleNodes.add(annotation.getNode());
+            }
+        }
+        content.group.getChildren().setAll(visibleNodes);
+        content.childrenValid = true;
+        visibleNodes.clear();
+    }
+
+
+    /**
+     * Collects the text annotations within the visible range that are displayed by their nodes,
+     * foreground first. Canvas rendered text is not included.
+     *
+     * @param result Receives the text annotations, including those currently suppressed.
+     */
+    void collectTextAnnotations(List<XYTextAnnotation> result) {
+        collectTextAnnotations(fgContent, result);
+        collectTextAnnotations(bgContent, result);
+    }
+
+
+    private void collectTextAnnotations(LayerContent content, List<XYTextAnnotation> result) {
+        for (XYAnnotation annotation : content.attached) {
+            if (annotation instanceof XYTextAnnotation && content.attachedSet.contains(annotation)) {
+                result.add((XYTextAnnotation) annotation);
+            }
+        }
+    }
+
+
+    /**
+     * Sets the annotations whose nodes are detached from the scene graph by the label declutter.
+     * The layers are updated with a single change each when the set differs from the current one.
+     *
+     * @param hidden The annotations to be hidden; all others are displayed.
+     */
+    void setSuppressed(Set<? extends XYAnnotation> hidden) {
+        if (suppressed.size() == hidden.size() && suppressed.containsAll(hidden)) {
+            return;
+        }
+        suppressed.clear();
+        suppressed.addAll(hidden);
+        if (fgContent.canvas == null && fgContent.childrenValid) {
+            attachNodes(fgContent);
+        }
+        if (bgContent.canvas == null && bgContent.childrenValid) {
+            attachNodes(bgContent);
         }
     }
 
 
-    private void layoutBackground() {
+    /**
+     * Detaches a removed annotation from its layer. The layer's nodes are replaced in the next
+     * layout, so that removing many annotations updates the children once.
+     */
+    private void detach(LayerContent content, XYAnnotation annotation) {
+        suppressed.remove(annotation);
+        if (content.attachedSet.remove(annotation)) {
+            content.childrenValid = false;
+        }
+        if (content.canvas != null) {
+            content.redraw = true;
+        }
+        requestLayout();
+    }
+
+
+    /**
+     * Drops the annotations of a layer from the dirty and suppressed sets. The list is iterated
+     * rather than passed to Set.removeAll, which may search the list for every member of the set.
+     */
+    private void forget(List<XYAnnotation> annotations) {
+        for (XYAnnotation annotation : annotations) {
+            dirty.remove(annotation);
+            suppressed.remove(annotation);
+        }
+    }
+
+
+    /**
+     * Requests a layout of the plot content, or defers the request until the current batch of
+     * changes is complete.
+     */
+    private void requestLayout() {
+        if (batchDepth > 0) {
+            layoutPending = true;
+        }
+        else {
+            plotContent.requestLayout();
+        }
+    }
+
+
+    /**
+     * Computes the visible data range, plus the cull margin, from the axes. Culling is disabled
+     * until the axes have a valid transform.
+     */
+    private void updateWindow() {
         ValueAxis xAxis = (ValueAxis) chart.getXAxis();
         ValueAxis yAxis = (ValueAxis) chart.getYAxis();
-        for (XYAnnotation annotation : bgAnnotations) {
-            annotation.layoutAnnotation(xAxis, yAxis);
+        final double x0 = toDouble(xAxis.getValueForDisplay(-cullMargin));
+        final double x1 = toDouble(xAxis.getValueForDisplay(xAxis.getWidth() + cullMargin));
+        final double y0 = toDouble(yAxis.getValueForDisplay(-cullMargin));
+        final double y1 = toDouble(yAxis.getValueForDisplay(yAxis.getHeight() + cullMargin));
+        if (Double.isNaN(x0 + x1 + y0 + y1) || xAxis.getWidth() <= 0 || yAxis.getHeight() <= 0) {
+            windowMinX = Double.NEGATIVE_INFINITY;
+            windowMinY = Double.NEGATIVE_INFINITY;
+            windowMaxX = Double.POSITIVE_INFINITY;
+            windowMaxY = Double.POSITIVE_INFINITY;
         }
+        else {
+            windowMinX = Math.min(x0, x1);
+            windowMaxX = Math.max(x0, x1);
+            windowMinY = Math.min(y0, y1);
+            windowMaxY = Math.max(y0, y1);
+        }
+    }
+
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
     }
 
 }
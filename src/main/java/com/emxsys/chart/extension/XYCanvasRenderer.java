@@ -0,0 +1,1124 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.IntToDoubleFunction;
+import javafx.beans.InvalidationListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.ValueAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.StrokeLineJoin;
+
+
+/**
+ * JavaFX Chart Extension that draws the series of an XYChart into a single Canvas instead of
+ * creating a Path and symbol nodes for every series and data item. The canvas is inserted at the
+ * bottom of the plot children so that XYMarkers and the XYAnnotations layers continue to draw on
+ * top of the series.
+ * <p>
+ * The renderer also plots the chart's XYDataSources, e.g., XYDoubleSeries, which are always drawn
+ * on the canvas after the chart's own series.
+ * <p>
+ * The series colors and stroke widths are resolved from the same CSS style classes used by the
+ * LineChart ("chart-series-line seriesN default-colorN") and the ScatterChart ("chart-symbol
+ * seriesN default-colorN") via a hidden style proxy per series. Symbols are rasterized once per
+ * series into a SymbolAtlas and stamped at every point. A LINES renderer stamps the LineChart's
+ * symbols ("chart-line-symbol seriesN default-colorN") at the drawn points of the chart series
+ * if createSymbols is set.
+ * <p>
+ * Optionally, the plotted points are kept in an XYPointIndex for nearest point queries, e.g., by
+ * the XYHoverTooltip.
+ * <p>
+ * Series whose x values are sorted are culled to the visible x range with a binary search, so a
+ * layout of a zoomed-in series costs O(visible + log n). Zoomed-out line series are drawn from
+ * their XYAggregatePyramid, if any, at a cost proportional to the plot width. Other data source
+ * ranges with more points than the plot can show are reduced as they are read, so the buffers are
+ * bounded by the plot width rather than the size of the source.
+ * <p>
+ * The projected points of each series are retained between layouts. Only the series that have
+ * changed are re-projected, unless the axis transform has changed; the retained points cost 16
+ * bytes per drawn point.
+ *
+ * @author Bruce Schubert
+ * @param <X>
+ * @param <Y>
+ */
+public class XYCanvasRenderer<X, Y> {
+
+    /**
+     * Defines how the points of a series are drawn.
+     */
+    public enum Style {
+
+        LINES, SYMBOLS
+    };
+
+    /**
+     * Series with more points than this many times the plot width are decimated.
+     */
+    private static final int DECIMATION_THRESHOLD = 4;
+
+    /**
+     * The most points of a data source filled per pixel of the plot width. Larger ranges are
+     * reduced while they are read, so the buffers track the viewport rather than the data.
+     */
+    private static final int MAX_FILL_POINTS_PER_PIXEL = 16;
+
+    private static final String DEFAULT_COLOR = "default-color";
+
+    private final XYChart<X, Y> chart;
+    private final Style style;
+    private final Canvas canvas = new Canvas();
+    private final Group styleProxies = new Group();
+    private final Group symbolProxies = new Group();
+    private final ObservableList<XYDataSource> dataSources = FXCollections.observableArrayList();
+    private final InvalidationListener sourceListener = observable -> {
+        invalidateTrace(observable);
+        invalidateRange();
+    };
+    private final SymbolAtlas atlas = new SymbolAtlas();
+    private final InvalidationListener symbolStyleListener = observable -> invalidateAtlas();
+    private boolean seriesRendering = false;
+    private boolean createSymbols = false;
+    private boolean rangeValid = true;
+
+    private XYDecimator decimator;
+    private XYPointIndex pointIndex;
+
+    /**
+     * The projected points of a series (a chart series or a data source) retained between
+     * layouts.
+     */
+    private static final class Trace {
+
+        double[] xs = new double[0];
+        double[] ys = new double[0];
+        int count;
+        boolean dirty = true;
+
+
+        void store(double[] xBuffer, double[] yBuffer, int size) {
+            if (xs.length < size || xs.length > 2 * size + 64) {
+                xs = new double[size];
+                ys = new double[size];
+            }
+            System.arraycopy(xBuffer, 0, xs, 0, size);
+            System.arraycopy(yBuffer, 0, ys, 0, size);
+            count = size;
+        }
+    }
+
+    // The traces keyed by their XYChart.Series or XYDataSource, and their order in the last layout
+    private final Map<Object, Trace> traces = new IdentityHashMap<>();
+    private final List<Object> traceKeys = new ArrayList<>();
+    private final List<Object> currentKeys = new ArrayList<>();
+    private final XYTransformTracker transform;
+    private boolean tracesValid = false;
+
+    // The cached sort order of the chart series; see invalidateSeries
+    private final Map<XYChart.Series<X, Y>, Boolean> sortedSeries = new WeakHashMap<>();
+
+    // The data items changed since the last layout, whose series are resolved in the layout
+    private final Set<XYChart.Data<X, Y>> changedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // The visible x range of the current layout; NaN if the series cannot be culled.
+    private double visibleMinX = Double.NaN;
+    private double visibleMaxX = Double.NaN;
+    private int sliceStart;
+    private int sliceEnd;
+
+    // Reusable coordinate buffers
+    private double[] xBuffer = new double[0];
+    private double[] yBuffer = new double[0];
+    private double[] yIndexBuffer = new double[0];
+    private int[] indexBuffer = new int[0];
+
+
+    /**
+     * Constructs a canvas renderer for an XYChart.
+     *
+     * @param chart The chart whose series are drawn on the canvas.
+     * @param plotChildren The children returned by chart.getPlotChildren().
+     * @param style Draw the points as LINES or SYMBOLS.
+     */
+    public XYCanvasRenderer(XYChart<X, Y> chart, ObservableList<Node> plotChildren, Style style) {
+        this.chart = chart;
+        this.style = style;
+        this.transform = new XYTransformTracker(chart);
+
+        canvas.getStyleClass().add("chart-series-canvas");
+        canvas.setManaged(false);
+        canvas.setMouseTransparent(true);
+
+        // The style proxies are never rendered; they only exist so that CSS is applied to them.
+        styleProxies.setManaged(false);
+        styleProxies.setVisible(false);
+        symbolProxies.setManaged(false);
+        symbolProxies.setVisible(false);
+
+        // Draw beneath the series nodes and the markers; annotations are in separate layers.
+        plotChildren.add(0, canvas);
+        plotChildren.add(0, styleProxies);
+        plotChildren.add(0, symbolProxies);
+
+        // Listen to the data sources and re-plot
+        dataSources.addListener((ListChangeListener.Change<? extends XYDataSource> c) -> {
+            while (c.next()) {
+                c.getRemoved().forEach(source -> source.removeListener(sourceListener));
+                c.getAddedSubList().forEach(source -> source.addListener(sourceListener));
+            }
+            invalidateRange();
+        });
+    }
+
+
+    /**
+     * Gets the canvas used for drawing the series.
+     *
+     * @return The Canvas node in the plot children.
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+
+    /**
+     * Gets the primitive data sources drawn by this renderer.
+     *
+     * @return A modifiable list of data sources.
+     */
+    public ObservableList<XYDataSource> getDataSources() {
+        return dataSources;
+    }
+
+
+    /**
+     * Determines if the chart's own series (XYChart.Series) are drawn on the canvas.
+     *
+     * @return True if the chart series are drawn by this renderer.
+     */
+    public boolean isSeriesRendering() {
+        return seriesRendering;
+    }
+
+
+    /**
+     * Sets whether the chart's own series (XYChart.Series) are drawn on the canvas. The data
+     * sources are always drawn.
+     *
+     * @param enabled If true, the chart series are drawn by this renderer.
+     */
+    public void setSeriesRendering(boolean enabled) {
+        this.seriesRendering = enabled;
+        this.tracesValid = false;
+    }
+
+
+    /**
+     * Determines if a LINES renderer draws the symbols of the chart series.
+     *
+     * @return True if symbols are drawn at the points of the chart series.
+     */
+    public boolean isCreateSymbols() {
+        return createSymbols;
+    }
+
+
+    /**
+     * Sets whether a LINES renderer draws the symbols of the chart series, e.g., to follow
+     * LineChart.createSymbols. The symbols are stamped at the drawn points, i.e., after
+     * decimation. SYMBOLS renderers always draw their symbols.
+     *
+     * @param enabled If true, symbols are drawn at the points of the chart series.
+     */
+    public void setCreateSymbols(boolean enabled) {
+        if (this.createSymbols != enabled) {
+            this.createSymbols = enabled;
+            invalidateAtlas();
+        }
+    }
+
+
+    /**
+     * Gets the decimation stage applied to line series.
+     *
+     * @return The current decimator; may be null.
+     */
+    public XYDecimator getDecimator() {
+        return decimator;
+    }
+
+
+    /**
+     * Sets the decimation stage applied to line series before they are drawn. Decimation is run
+     * on every layout, so it follows resizing and zooming of the axes.
+     *
+     * @param decimator The decimator, e.g., M4Decimator or LttbDecimator; may be null to draw
+     * every point.
+     */
+    public void setDecimator(XYDecimator decimator) {
+        this.decimator = decimator;
+        this.tracesValid = false;
+    }
+
+
+    /**
+     * Determines if the plotted points are indexed for nearest point queries.
+     *
+     * @return True if a spatial index is maintained.
+     */
+    public boolean isPointIndexing() {
+        return pointIndex != null;
+    }
+
+
+    /**
+     * Sets whether the plotted points are indexed for nearest point queries. The index covers the
+     * chart series, whether or not they are drawn on the canvas, and the data sources. It is
+     * rebuilt trace by trace on each layout.
+     *
+     * @param enabled If true, a spatial index is maintained.
+     */
+    public void setPointIndexing(boolean enabled) {
+        if (enabled && pointIndex == null) {
+            pointIndex = new XYPointIndex();
+            tracesValid = false;
+            chart.requestLayout();
+        }
+        else if (!enabled) {
+            pointIndex = null;
+            indexBuffer = new int[0];
+            yIndexBuffer = new double[0];
+        }
+    }
+
+
+    /**
+     * Finds the plotted point nearest to a position in the plot area. The traces are numbered
+     * with the chart series first, followed by the data sources.
+     *
+     * @param x The x position in the canvas coordinates.
+     * @param y The y position in the canvas coordinates.
+     * @param maxDistance The search radius in pixels.
+     * @return The nearest point, or null if none is within the radius or indexing is disabled.
+     */
+    public XYPointIndex.Hit findNearest(double x, double y, double maxDistance) {
+        return pointIndex == null ? null : pointIndex.findNearest(x, y, maxDistance);
+    }
+
+
+    /**
+     * Describes a point found with findNearest with its series name and data values.
+     *
+     * @param hit A point returned by findNearest.
+     * @return A multi-line description, or null if the point no longer exists.
+     */
+    public String getDescription(XYPointIndex.Hit hit) {
+        final List<XYChart.Series<X, Y>> data = chart.getData();
+        final int seriesCount = (data == null) ? 0 : data.size();
+        final int trace = hit.getTrace();
+        final int index = hit.getIndex();
+        if (trace < seriesCount) {
+            final XYChart.Series<X, Y> series = data.get(trace);
+            if (index >= series.getData().size()) {
+                return null;
+            }
+            final XYChart.Data<X, Y> item = series.getData().get(index);
+            return format(series.getName(), item.getXValue(), item.getYValue());
+        }
+        else if (trace - seriesCount < dataSources.size()) {
+            final XYDataSource source = dataSources.get(trace - seriesCount);
+            if (index >= source.size()) {
+                return null;
+            }
+            return format(source.getName(), source.getX(index), source.getY(index));
+        }
+        return null;
+    }
+
+
+    private static String format(String name, Object x, Object y) {
+        return (name == null ? "" : name + "\n") + "X: " + x + "\nY: " + y;
+    }
+
+
+    /**
+     * Marks a chart series as changed so that it is re-projected on the next layout, and discards
+     * its cached sort order, e.g., after the series was changed without item notifications.
+     *
+     * @param series The series that changed; if null, all the chart series are marked.
+     */
+    public void invalidateSeries(XYChart.Series<X, Y> series) {
+        if (series == null) {
+            sortedSeries.clear();
+            traces.forEach((key, trace) -> {
+                if (key instanceof XYChart.Series) {
+                    trace.dirty = true;
+                }
+            });
+        }
+        else {
+            sortedSeries.remove(series);
+            invalidateTrace(series);
+        }
+    }
+
+
+    /**
+     * Marks the series of an added data item as changed. Invoked from the chart's dataItemAdded.
+     *
+     * @param series The series the item was added to.
+     * @param itemIndex The index of the item in the series.
+     * @param item The added item.
+     */
+    public void dataItemAdded(XYChart.Series<X, Y> series, int itemIndex, XYChart.Data<X, Y> item) {
+        if (sortedSeries.get(series) == Boolean.TRUE && !isInOrder(series.getData(), itemIndex)) {
+            sortedSeries.put(series, Boolean.FALSE);
+        }
+        invalidateTrace(series);
+    }
+
+
+    /**
+     * Marks the series of a removed data item as changed. Invoked from the chart's
+     * dataItemRemoved.
+     *
+     * @param item The removed item.
+     * @param series The series the item was removed from.
+     */
+    public void dataItemRemoved(XYChart.Data<X, Y> item, XYChart.Series<X, Y> series) {
+        // A sorted series remains sorted; an unsorted one is not culled until invalidateSeries
+        changedItems.remove(item);
+        invalidateTrace(series);
+    }
+
+
+    /**
+     * Records a changed data item so that its series is marked as changed on the next layout.
+     * Invoked from the chart's dataItemChanged.
+     *
+     * @param item The item whose x or y value changed.
+     */
+    public void dataItemChanged(XYChart.Data<X, Y> item) {
+        if (seriesRendering || pointIndex != null) {
+            changedItems.add(item);
+        }
+        else {
+            // The chart series are not laid out; their sort order is checked again when they are
+            sortedSeries.clear();
+        }
+    }
+
+
+    /**
+     * Marks the series owning the items changed since the last layout as changed, and updates
+     * their cached sort order. The series data lists are scanned once per layout, rather than
+     * once per changed item, and only until every changed item has been found.
+     */
+    private void resolveChangedItems(List<XYChart.Series<X, Y>> data) {
+        if (changedItems.isEmpty()) {
+            return;
+        }
+        int unresolved = changedItems.size();
+        for (int s = 0; data != null && s < data.size() && unresolved > 0; s++) {
+            final XYChart.Series<X, Y> series = data.get(s);
+            final List<XYChart.Data<X, Y>> items = series.getData();
+            boolean changed = false;
+            for (int i = 0; i < items.size() && unresolved > 0; i++) {
+                if (changedItems.contains(items.get(i))) {
+                    unresolved--;
+                    changed = true;
+                    if (sortedSeries.get(series) == Boolean.TRUE && !isInOrder(items, i)) {
+                        sortedSeries.put(series, Boolean.FALSE);
+                    }
+                }
+            }
+            if (changed) {
+                invalidateTrace(series);
+            }
+        }
+        changedItems.clear();
+    }
+
+
+    /**
+     * Determines if an item's x value lies between those of its neighbors.
+     */
+    private boolean isInOrder(List<XYChart.Data<X, Y>> items, int itemIndex) {
+        final Axis<X> xAxis = chart.getXAxis();
+        final double x = xAxis.toNumericValue(items.get(itemIndex).getXValue());
+        if (itemIndex > 0 && !(xAxis.toNumericValue(items.get(itemIndex - 1).getXValue()) <= x)) {
+            return false;
+        }
+        return itemIndex + 1 >= items.size() || xAxis.toNumericValue(items.get(itemIndex + 1).getXValue()) >= x;
+    }
+
+
+    /**
+     * Determines if the axis ranges reflect the current data source values.
+     *
+     * @return False if the data sources have changed since the last call to addDataSourceExtents.
+     */
+    public boolean isRangeValid() {
+        return rangeValid;
+    }
+
+
+    /**
+     * Adds the minimum and maximum values of each data source to the lists of values used to
+     * auto-range the chart's axes. Invoked from the chart's updateAxisRange.
+     *
+     * @param xData The x values used to range the x axis; may be null if not auto-ranging.
+     * @param yData The y values used to range the y axis; may be null if not auto-ranging.
+     */
+    @SuppressWarnings("unchecked")
+    public void addDataSourceExtents(List<X> xData, List<Y> yData) {
+        for (XYDataSource source : dataSources) {
+            if (source.size() == 0) {
+                continue;
+            }
+            if (xData != null && !Double.isNaN(source.getMinX())) {
+                xData.add((X) Double.valueOf(source.getMinX()));
+                xData.add((X) Double.valueOf(source.getMaxX()));
+            }
+            if (yData != null && !Double.isNaN(source.getMinY())) {
+                yData.add((Y) Double.valueOf(source.getMinY()));
+                yData.add((Y) Double.valueOf(source.getMaxY()));
+            }
+        }
+        rangeValid = true;
+    }
+
+
+    /**
+     * Erases the series drawn on the canvas.
+     */
+    public void clear() {
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+
+    /**
+     * Performs a layout of the series by drawing them on the canvas. Invoked from the chart's
+     * layoutPlotChildren.
+     */
+    public void layoutSeries() {
+        final Axis<X> xAxis = chart.getXAxis();
+        final Axis<Y> yAxis = chart.getYAxis();
+
+        // Size the canvas to the plot area
+        canvas.setWidth(xAxis.getWidth());
+        canvas.setHeight(yAxis.getHeight());
+
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        final List<XYChart.Series<X, Y>> data = chart.getData();
+        final int seriesCount = (data == null) ? 0 : data.size();
+        resolveChangedItems(data);
+        syncStyleProxies(data, seriesCount + dataSources.size());
+        if (pointIndex != null) {
+            pointIndex.setTraceCount(seriesCount + dataSources.size());
+        }
+
+        // Re-project everything if the axes or the set of series have changed; otherwise only
+        // the dirty series are re-projected and the others are redrawn from their retained points.
+        final boolean transformChanged = transform.update();
+        final boolean full = transformChanged | !syncTraces(data) | !tracesValid;
+        tracesValid = true;
+        if (full) {
+            updateVisibleRange(xAxis);
+        }
+
+        if (seriesRendering || pointIndex != null) {
+            for (int seriesIndex = 0; seriesIndex < seriesCount; seriesIndex++) {
+                final Trace trace = traces.get(data.get(seriesIndex));
+                if (full || trace.dirty) {
+                    int count = fillSeries(data.get(seriesIndex), xAxis, yAxis);
+                    indexPoints(yAxis, seriesIndex, count);
+                    if (seriesRendering) {
+                        count = decimate(count);
+                        projectY(yAxis, count);
+                    }
+                    trace.store(xBuffer, yBuffer, seriesRendering ? count : 0);
+                    trace.dirty = false;
+                }
+                if (seriesRendering) {
+                    drawPoints(gc, seriesIndex, trace.xs, trace.ys, trace.count);
+                }
+            }
+        }
+        for (int i = 0; i < dataSources.size(); i++) {
+            final Trace trace = traces.get(dataSources.get(i));
+            if (full || trace.dirty) {
+                int count = fillDataSource(dataSources.get(i), xAxis);
+                indexPoints(yAxis, seriesCount + i, count);
+                count = decimate(count);
+                projectY(yAxis, count);
+                trace.store(xBuffer, yBuffer, count);
+                trace.dirty = false;
+            }
+            drawPoints(gc, seriesCount + i, trace.xs, trace.ys, trace.count);
+        }
+    }
+
+
+    /**
+     * Creates and discards the retained traces to match the current series and data sources.
+     *
+     * @return True if the series and data sources are the same, in the same order, as in the
+     * previous layout.
+     */
+    private boolean syncTraces(List<XYChart.Series<X, Y>> data) {
+        currentKeys.clear();
+        if ((seriesRendering || pointIndex != null) && data != null) {
+            currentKeys.addAll(data);
+        }
+        currentKeys.addAll(dataSources);
+        boolean same = currentKeys.size() == traceKeys.size();
+        for (int i = 0; same && i < currentKeys.size(); i++) {
+            same = currentKeys.get(i) == traceKeys.get(i);
+        }
+        if (!same) {
+            traces.keySet().retainAll(currentKeys);
+            currentKeys.forEach(key -> traces.computeIfAbsent(key, k -> new Trace()));
+            traceKeys.clear();
+            traceKeys.addAll(currentKeys);
+        }
+        return same;
+    }
+
+
+    private void invalidateTrace(Object key) {
+        final Trace trace = traces.get(key);
+        if (trace != null) {
+            trace.dirty = true;
+        }
+    }
+
+
+    private void invalidateRange() {
+        rangeValid = false;
+        chart.requestLayout();
+    }
+
+
+    /**
+     * Establishes the x range visible in the plot area, used to cull the sorted series.
+     */
+    private void updateVisibleRange(Axis<X> xAxis) {
+        if (xAxis instanceof ValueAxis && canvas.getWidth() > 0) {
+            final double x0 = xAxis.toNumericValue(xAxis.getValueForDisplay(0));
+            final double x1 = xAxis.toNumericValue(xAxis.getValueForDisplay(canvas.getWidth()));
+            visibleMinX = Math.min(x0, x1);
+            visibleMaxX = Math.max(x0, x1);
+        }
+        else {
+            visibleMinX = visibleMaxX = Double.NaN;
+        }
+    }
+
+
+    /**
+     * Determines the slice of a sorted series that is visible, plus one point of overhang on
+     * each side so that the line segments entering and leaving the plot area are drawn.
+     *
+     * The result is stored in sliceStart and sliceEnd (exclusive).
+     *
+     * @param xAt The x value at an index.
+     * @param size The number of points in the series.
+     */
+    private void findVisibleSlice(IntToDoubleFunction xAt, int size) {
+        sliceStart = Math.max(0, search(xAt, size, visibleMinX, true) - 1);
+        sliceEnd = Math.min(size, search(xAt, size, visibleMaxX, false) + 1);
+    }
+
+
+    /**
+     * Binary searches a sorted series.
+     *
+     * @return The first index whose x value is greater than the value, or equal to it if
+     * inclusive.
+     */
+    private static int search(IntToDoubleFunction xAt, int size, double value, boolean inclusive) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final double x = xAt.applyAsDouble(mid);
+            if (x < value || (!inclusive && x == value)) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * Determines if the x values of a chart series are sorted. The result is cached until the
+     * series is invalidated, and is maintained as items are added, removed and changed, so only
+     * the first layout of a series scans it.
+     */
+    private boolean isSorted(XYChart.Series<X, Y> series, Axis<X> xAxis) {
+        Boolean sorted = sortedSeries.get(series);
+        if (sorted == null) {
+            final List<XYChart.Data<X, Y>> items = series.getData();
+            double previous = Double.NEGATIVE_INFINITY;
+            sorted = Boolean.TRUE;
+            for (int i = 0; i < items.size(); i++) {
+                final double x = xAxis.toNumericValue(items.get(i).getXValue());
+                if (!(previous <= x)) {
+                    sorted = Boolean.FALSE;
+                    break;
+                }
+                previous = x;
+            }
+            sortedSeries.put(series, sorted);
+        }
+        return sorted;
+    }
+
+
+    /**
+     * Fills the buffers with the x display positions and the y values of the data items.
+     *
+     * @return The number of plottable points.
+     */
+    private int fillSeries(XYChart.Series<X, Y> series, Axis<X> xAxis, Axis<Y> yAxis) {
+        final List<XYChart.Data<X, Y>> items = series.getData();
+        int from = 0;
+        int to = items.size();
+        if (!Double.isNaN(visibleMinX) && isSorted(series, xAxis)) {
+            findVisibleSlice(i -> xAxis.toNumericValue(items.get(i).getXValue()), to);
+            from = sliceStart;
+            to = sliceEnd;
+        }
+        ensureCapacity(to - from);
+        // The x values of a ValueAxis are projected in bulk, others one at a time
+        final boolean bulk = xAxis instanceof ValueAxis;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            final XYChart.Data<X, Y> item = items.get(i);
+            final double x = bulk ? xAxis.toNumericValue(item.getXValue()) : xAxis.getDisplayPosition(item.getXValue());
+            final double y = yAxis.toNumericValue(item.getYValue());
+            // Skip the points that can't be plotted, same as the LineChart
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                continue;
+            }
+            xBuffer[count] = x;
+            yBuffer[count] = y;
+            if (pointIndex != null) {
+                indexBuffer[count] = i;
+            }
+            count++;
+        }
+        return bulk ? projectX(xAxis, count) : count;
+    }
+
+
+    /**
+     * Fills the buffers with the x display positions and the y values of the data source.
+     *
+     * @return The number of plottable points.
+     */
+    private int fillDataSource(XYDataSource source, Axis<X> xAxis) {
+        int from = 0;
+        int to = source.size();
+        if (!Double.isNaN(visibleMinX) && source.isXSorted()) {
+            findVisibleSlice(source::getX, to);
+            from = sliceStart;
+            to = sliceEnd;
+        }
+        final double pointsPerPixel = (to - from) / canvas.getWidth();
+        boolean envelope = false;
+        if (style == Style.LINES && source.isXSorted() && pointsPerPixel > DECIMATION_THRESHOLD) {
+            final XYAggregatePyramid pyramid = source.getAggregatePyramid();
+            if (pyramid != null && pyramid.size() == source.size()) {
+                final int level = pyramid.findLevel(pointsPerPixel);
+                if (level >= 0) {
+                    return projectX(xAxis, fillAggregates(source, pyramid, level, from, to));
+                }
+                // Finer than the pyramid, so the range spans at most one bucket per pixel
+                envelope = true;
+            }
+        }
+        final int maxPoints = Math.max(2, (int) Math.ceil(canvas.getWidth()) * MAX_FILL_POINTS_PER_PIXEL);
+        if (to - from > maxPoints) {
+            return projectX(xAxis, envelope
+                ? fillEnvelope(source, from, to, maxPoints / 2)
+                : fillStrided(source, from, to, maxPoints));
+        }
+        ensureCapacity(to - from);
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            count = addSourcePoint(source, i, count);
+        }
+        return projectX(xAxis, count);
+    }
+
+
+    /**
+     * Fills the buffers with the minimum and maximum points of equal runs of the range, in x
+     * order. Every point in the range is read, but the buffers hold two points per run.
+     *
+     * @return The number of plottable points.
+     */
+    private int fillEnvelope(XYDataSource source, int from, int to, int runs) {
+        final long length = to - from;
+        ensureCapacity(2 * runs);
+        int count = 0;
+        for (int run = 0; run < runs; run++) {
+            final int start = from + (int) (length * run / runs);
+            final int end = from + (int) (length * (run + 1) / runs);
+            int min = -1;
+            int max = -1;
+            double minY = Double.NaN;
+            double maxY = Double.NaN;
+            for (int i = start; i < end; i++) {
+                final double y = source.getY(i);
+                if (!(y >= minY) && !Double.isNaN(y)) {
+                    minY = y;
+                    min = i;
+                }
+                if (!(y <= maxY) && !Double.isNaN(y)) {
+                    maxY = y;
+                    max = i;
+                }
+            }
+            if (min < 0) {
+                continue;
+            }
+            count = addSourcePoint(source, Math.min(min, max), count);
+            if (min != max) {
+                count = addSourcePoint(source, Math.max(min, max), count);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Fills the buffers with evenly spaced points of the range, reading only those points.
+     *
+     * @return The number of plottable points.
+     */
+    private int fillStrided(XYDataSource source, int from, int to, int samples) {
+        final long length = to - from;
+        ensureCapacity(samples);
+        int count = 0;
+        for (int sample = 0; sample < samples; sample++) {
+            count = addSourcePoint(source, from + (int) (length * sample / samples), count);
+        }
+        return count;
+    }
+
+
+    /**
+     * Fills the buffers with the minimum and maximum points of the pyramid buckets covering the
+     * given range, in x order. The level has at least one bucket per pixel column, so the line
+     * has the same envelope as a line through every point, at a cost proportional to the width.
+     *
+     * @return The number of plottable points.
+     */
+    private int fillAggregates(XYDataSource source, XYAggregatePyramid pyramid, int level, int from, int to) {
+        final int shift = pyramid.getBucketShift(level);
+        final int first = from >> shift;
+        final int last = (to - 1) >> shift;
+        ensureCapacity(2 * (last - first + 1));
+        int count = 0;
+        for (int bucket = first; bucket <= last; bucket++) {
+            if (!pyramid.hasValues(level, bucket)) {
+                continue;
+            }
+            final int min = pyramid.getMinIndex(level, bucket);
+            final int max = pyramid.getMaxIndex(level, bucket);
+            count = addSourcePoint(source, Math.min(min, max), count);
+            if (min != max) {
+                count = addSourcePoint(source, Math.max(min, max), count);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Adds a point of a data source to the buffers unless it can't be plotted.
+     *
+     * @return The new number of points in the buffers.
+     */
+    private int addSourcePoint(XYDataSource source, int index, int count) {
+        final double x = source.getX(index);
+        final double y = source.getY(index);
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return count;
+        }
+        xBuffer[count] = x;
+        yBuffer[count] = y;
+        if (pointIndex != null) {
+            indexBuffer[count] = index;
+        }
+        return count + 1;
+    }
+
+
+    /**
+     * Adds the filled points to the spatial index before they are decimated, so that every data
+     * item remains discoverable.
+     */
+    private void indexPoints(Axis<Y> yAxis, int trace, int count) {
+        if (pointIndex == null) {
+            return;
+        }
+        AxisTransforms.getDisplayPositions(yAxis, yBuffer, yIndexBuffer, count);
+        pointIndex.setTrace(trace, xBuffer, yIndexBuffer, indexBuffer, count, canvas.getWidth(), canvas.getHeight());
+    }
+
+
+    /**
+     * Runs the decimation stage on the buffers when a line series has far more points than the
+     * plot has pixel columns.
+     *
+     * @return The number of points retained in the buffers.
+     */
+    private int decimate(int count) {
+        final double width = canvas.getWidth();
+        if (decimator == null || style != Style.LINES || count <= width * DECIMATION_THRESHOLD) {
+            return count;
+        }
+        return decimator.decimate(xBuffer, yBuffer, count, width);
+    }
+
+
+    /**
+     * Converts the y values in the buffer to display positions.
+     */
+    private void projectY(Axis<Y> yAxis, int count) {
+        AxisTransforms.getDisplayPositions(yAxis, yBuffer, yBuffer, count);
+    }
+
+
+    /**
+     * Converts the x values in the buffer to display positions in bulk, then drops the points
+     * whose position is undefined.
+     *
+     * @return The number of plottable points.
+     */
+    private int projectX(Axis<X> xAxis, int count) {
+        AxisTransforms.getDisplayPositions(xAxis, xBuffer, xBuffer, count);
+        int retained = 0;
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(xBuffer[i])) {
+                continue;
+            }
+            if (retained != i) {
+                xBuffer[retained] = xBuffer[i];
+                yBuffer[retained] = yBuffer[i];
+                if (pointIndex != null) {
+                    indexBuffer[retained] = indexBuffer[i];
+                }
+            }
+            retained++;
+        }
+        return retained;
+    }
+
+
+    private void drawPoints(GraphicsContext gc, int proxyIndex, double[] xs, double[] ys, int count) {
+        if (style == Style.LINES) {
+            if (count > 1) {
+                final Path path = (Path) styleProxies.getChildren().get(proxyIndex);
+                gc.setStroke(path.getStroke());
+                gc.setLineWidth(path.getStrokeWidth());
+                gc.setLineJoin(StrokeLineJoin.BEVEL);
+                gc.strokePolyline(xs, ys, count);
+            }
+            // Only the chart series have line symbols
+            if (proxyIndex < symbolProxies.getChildren().size()) {
+                drawSymbols(gc, symbolProxies.getChildren(), proxyIndex, xs, ys, count);
+            }
+        }
+        else {
+            drawSymbols(gc, styleProxies.getChildren(), proxyIndex, xs, ys, count);
+        }
+    }
+
+
+    private void drawSymbols(GraphicsContext gc, List<Node> symbols, int symbolIndex, double[] xs, double[] ys, int count) {
+        if (atlas.isValid() && symbolIndex < atlas.size()) {
+            atlas.stamp(gc, symbolIndex, xs, ys, count);
+        }
+        else {
+            // Draw plain dots until the symbol atlas has been rasterized
+            atlas.rebuild(symbols, chart::requestLayout);
+            final Region symbol = (Region) symbols.get(symbolIndex);
+            final double w = symbol.prefWidth(-1);
+            final double h = symbol.prefHeight(-1);
+            gc.setFill(getSymbolFill(symbol));
+            for (int i = 0; i < count; i++) {
+                gc.fillOval(xs[i] - w / 2, ys[i] - h / 2, w, h);
+            }
+        }
+    }
+
+
+    private void invalidateAtlas() {
+        atlas.invalidate();
+        chart.requestLayout();
+    }
+
+
+    private static Paint getSymbolFill(Region symbol) {
+        if (symbol.getBackground() != null) {
+            for (BackgroundFill fill : symbol.getBackground().getFills()) {
+                if (fill.getInsets().equals(Insets.EMPTY)) {
+                    return fill.getFill();
+                }
+            }
+        }
+        return Color.BLACK;
+    }
+
+
+    private void ensureCapacity(int size) {
+        if (xBuffer.length < size) {
+            xBuffer = new double[size];
+            yBuffer = new double[size];
+        }
+        if (pointIndex != null && indexBuffer.length < size) {
+            indexBuffer = new int[size];
+            yIndexBuffer = new double[size];
+        }
+    }
+
+
+    /**
+     * Gets the default color style class of a series, e.g., "default-color2", so that canvas
+     * drawn series match the legend and the CSS. The class is taken from the series node, if the
+     * chart created one; otherwise it is derived from the series index, as the LineChart does.
+     *
+     * @param series A series of the chart.
+     * @param seriesIndex The index of the series in the chart data.
+     * @return The style class.
+     */
+    public static String getDefaultColorStyleClass(XYChart.Series<?, ?> series, int seriesIndex) {
+        if (series.getNode() != null) {
+            for (String styleClass : series.getNode().getStyleClass()) {
+                if (styleClass.startsWith(DEFAULT_COLOR)) {
+                    return styleClass;
+                }
+            }
+        }
+        return DEFAULT_COLOR + (seriesIndex % 8);
+    }
+
+
+    /**
+     * Maintains one hidden style proxy per series that carries the series style classes, plus one
+     * line symbol proxy per chart series if a LINES renderer creates symbols. The chart series
+     * take the color classes assigned by the chart; the data sources follow on from their index.
+     *
+     * @param data The chart series; may be null.
+     * @param seriesCount The number of series and data sources to be drawn.
+     */
+    private void syncStyleProxies(List<XYChart.Series<X, Y>> data, int seriesCount) {
+        if (style == Style.LINES) {
+            final int chartSeriesCount = (data == null) ? 0 : data.size();
+            syncProxies(styleProxies.getChildren(), "chart-series-line", data, seriesCount);
+            syncProxies(symbolProxies.getChildren(), "chart-line-symbol", data, createSymbols ? chartSeriesCount : 0);
+        }
+        else {
+            syncProxies(styleProxies.getChildren(), "chart-symbol", data, seriesCount);
+        }
+    }
+
+
+    private void syncProxies(ObservableList<Node> proxies, String styleClass, List<XYChart.Series<X, Y>> data, int count) {
+        final boolean paths = proxies == styleProxies.getChildren() && style == Style.LINES;
+        if (proxies.size() != count) {
+            atlas.invalidate();
+        }
+        while (proxies.size() > count) {
+            proxies.remove(proxies.size() - 1);
+        }
+        while (proxies.size() < count) {
+            proxies.add(paths ? new Path() : createSymbolProxy());
+        }
+        final int chartSeriesCount = (data == null) ? 0 : data.size();
+        for (int i = 0; i < count; i++) {
+            final Node proxy = proxies.get(i);
+            final String seriesClass = "series" + i;
+            final String colorClass = (i < chartSeriesCount)
+                ? getDefaultColorStyleClass(data.get(i), i) : DEFAULT_COLOR + (i % 8);
+            if (!proxy.getStyleClass().contains(seriesClass) || !proxy.getStyleClass().contains(colorClass)) {
+                proxy.getStyleClass().setAll(styleClass, seriesClass, colorClass);
+                proxy.applyCss();
+                atlas.invalidate();
+            }
+        }
+    }
+
+
+    /**
+     * Creates a symbol style proxy that invalidates the atlas when its styling changes.
+     */
+    private Region createSymbolProxy() {
+        final Region symbol = new StackPane();
+        symbol.backgroundProperty().addListener(symbolStyleListener);
+        symbol.borderProperty().addListener(symbolStyleListener);
+        symbol.shapeProperty().addListener(symbolStyleListener);
+        symbol.paddingProperty().addListener(symbolStyleListener);
+        return symbol;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import javafx.beans.Observable;
+
+
+/**
+ * The XYDataSource interface defines a series of primitive x,y values that can be plotted directly
+ * by the enhanced charts without creating an XYChart.Data object per point. Sources notify their
+ * InvalidationListeners when their values change.
+ *
+ * @author Bruce Schubert
+ */
+public interface XYDataSource extends Observable {
+
+    /**
+     * Gets the name of the series.
+     *
+     * @return The series name; may be null.
+     */
+    String getName();
+
+
+    /**
+     * Gets the number of x,y values in the source.
+     *
+     * @return The number of points.
+     */
+    int size();
+
+
+    /**
+     * Gets the x value at the given index.
+     *
+     * @param index A value between 0 and size() - 1.
+     * @return The x value.
+     */
+    double getX(int index);
+
+
+    /**
+     * Gets the y value at the given index.
+     *
+     * @param index A value between 0 and size() - 1.
+     * @return The y value.
+     */
+    double getY(int index);
+
+
+    /**
+     * Gets the minimum x value, used for auto-ranging.
+     *
+     * @return The minimum x value; NaN if the source is empty.
+     */
+    double getMinX();
+
+
+    /**
+     * Gets the maximum x value, used for auto-ranging.
+     *
+     * @return The maximum x value; NaN if the source is empty.
+     */
+    double getMaxX();
+
+
+    /**
+     * Gets the minimum y value, used for auto-ranging.
+     *
+     * @return The minimum y value; NaN if the source is empty.
+     */
+    double getMinY();
+
+
+    /**
+     * Gets the maximum y value, used for auto-ranging.
+     *
+     * @return The maximum y value; NaN if the source is empty.
+     */
+    double getMaxY();
+
+
+    /**
+     * Determines if the x values are in ascending order. The charts binary search the visible
+     * portion of a sorted source instead of plotting every point.
+     *
+     * @return True if each x value is greater than or equal to its predecessor; false if unknown.
+     */
+    default boolean isXSorted() {
+        return false;
+    }
+
+
+    /**
+     * Gets the level-of-detail pyramid used to draw the source when it is zoomed out.
+     *
+     * @return The aggregates of the y values; null if the source has none.
+     */
+    default XYAggregatePyramid getAggregatePyramid() {
+        return null;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+
+/**
+ * The XYDecimator interface defines a decimation stage that reduces a series to a few points per
+ * pixel column before it is drawn. Decimators are used by the XYCanvasRenderer when a series has
+ * far more points than the plot has horizontal pixels.
+ * <p>
+ * A decimator operates in place on a pair of parallel arrays: the x values have already been
+ * projected to display coordinates (so that the pixel columns follow the axis bounds and scale,
+ * linear or logarithmic) while the y values are still in data units. The selected points are
+ * compacted to the front of the arrays, in their original order.
+ *
+ * @author Bruce Schubert
+ */
+public interface XYDecimator {
+
+    /**
+     * Reduces the given points to at most a few points per pixel column.
+     *
+     * @param xPixels The x display positions; the selected values are compacted to the front.
+     * @param yValues The y data values; the selected values are compacted to the front.
+     * @param count The number of valid points in the arrays.
+     * @param width The width of the plot area in pixels.
+     * @return The number of points retained at the front of the arrays.
+     */
+    int decimate(double[] xPixels, double[] yValues, int count, double width);
+
+}
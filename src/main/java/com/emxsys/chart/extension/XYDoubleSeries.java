@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import javafx.beans.InvalidationListener;
+
+
+/**
+ * A growable series of x,y values stored in parallel double arrays. An XYDoubleSeries is added to
+ * an enhanced chart's data sources and is plotted without boxing its values into XYChart.Data
+ * objects. For example:
+ * <pre>{@code
+ * XYDoubleSeries trace = new XYDoubleSeries("Sensor 1", 86400);
+ * for (int i = 0; i < 86400; i++) {
+ *     trace.add(i, readSensor(i));
+ * }
+ * chart.getDataSources().add(trace);
+ * }</pre>
+ * <p>
+ * Memory budget: each point costs 16 bytes (two doubles). Growing the arrays adds up to 50% spare
+ * capacity, so a series costs between 16 and 24 bytes per point; trimToSize() releases the spare
+ * capacity. By comparison an XYChart.Data point costs several hundred bytes.
+ * <p>
+ * An XYDoubleSeries is not thread-safe; it must be modified on the JavaFX Application Thread once
+ * it has been added to a chart. Use an XYSampleQueue to append samples from other threads.
+ *
+ * @author Bruce Schubert
+ */
+public class XYDoubleSeries implements XYDataSource {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String name;
+    private double[] xValues;
+    private double[] yValues;
+    private int size;
+
+    // The extents are maintained incrementally on add, and recomputed after a value is replaced.
+    private double minX, maxX, minY, maxY;
+    private boolean extentsValid = true;
+
+    // The x order is maintained incrementally on add, and rechecked on demand after a replacement.
+    private boolean xSorted = true;
+    private boolean sortValid = true;
+
+    // The level-of-detail pyramid is built on first use and then maintained on add.
+    private XYAggregatePyramid pyramid;
+
+    private final List<InvalidationListener> listeners = new ArrayList<>(2);
+
+
+    /**
+     * Constructs an empty series.
+     *
+     * @param name The series name; may be null.
+     */
+    public XYDoubleSeries(String name) {
+        this(name, DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * Constructs an empty series with the given initial capacity.
+     *
+     * @param name The series name; may be null.
+     * @param initialCapacity The number of points that can be added without growing the arrays.
+     */
+    public XYDoubleSeries(String name, int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": initialCapacity cannot be negative.");
+        }
+        this.name = name;
+        this.xValues = new double[initialCapacity];
+        this.yValues = new double[initialCapacity];
+        resetExtents();
+    }
+
+
+    /**
+     * Constructs a series from parallel x and y arrays. The arrays are copied.
+     *
+     * @param name The series name; may be null.
+     * @param xValues The x values.
+     * @param yValues The y values; must be the same length as the x values.
+     */
+    public XYDoubleSeries(String name, double[] xValues, double[] yValues) {
+        this(name, xValues.length);
+        addAll(xValues, yValues, xValues.length);
+    }
+
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+
+    public void setName(String name) {
+        this.name = name;
+        fireInvalidated();
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public double getX(int index) {
+        checkIndex(index);
+        return xValues[index];
+    }
+
+
+    @Override
+    public double getY(int index) {
+        checkIndex(index);
+        return yValues[index];
+    }
+
+
+    /**
+     * Appends a point to the series.
+     *
+     * @param x The x value.
+     * @param y The y value.
+     */
+    public void add(double x, double y) {
+        ensureCapacity(size + 1);
+        includeInOrder(size, x);
+        xValues[size] = x;
+        yValues[size] = y;
+        size++;
+        includeInExtents(x, y);
+        if (pyramid != null) {
+            pyramid.append(y);
+        }
+        fireInvalidated();
+    }
+
+
+    /**
+     * Appends points from parallel arrays to the series with a single notification.
+     *
+     * @param xs The x values.
+     * @param ys The y values.
+     * @param count The number of points to append from the arrays.
+     */
+    public void addAll(double[] xs, double[] ys, int count) {
+        Objects.requireNonNull(xs, getClass().getSimpleName() + ": xs must not be null");
+        Objects.requireNonNull(ys, getClass().getSimpleName() + ": ys must not be null");
+        if (count > xs.length || count > ys.length) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": count exceeds the array lengths.");
+        }
+        ensureCapacity(size + count);
+        System.arraycopy(xs, 0, xValues, size, count);
+        System.arraycopy(ys, 0, yValues, size, count);
+        for (int i = 0; i < count; i++) {
+            includeInOrder(size + i, xs[i]);
+            if (pyramid != null) {
+                pyramid.append(ys[i]);
+            }
+        }
+        includeInExtents(xs, ys, 0, count);
+        size += count;
+        fireInvalidated();
+    }
+
+
+    /**
+     * Replaces the point at the given index.
+     *
+     * @param index The index of the point to replace.
+     * @param x The new x value.
+     * @param y The new y value.
+     */
+    public void set(int index, double x, double y) {
+        checkIndex(index);
+        xValues[index] = x;
+        yValues[index] = y;
+        extentsValid = false;
+        if (xSorted) {
+            // A sorted series remains sorted if the new value fits between its neighbors
+            xSorted = !Double.isNaN(x)
+                && (index == 0 || xValues[index - 1] <= x)
+                && (index == size - 1 || x <= xValues[index + 1]);
+        }
+        else {
+            sortValid = false;
+        }
+        pyramid = null;
+        fireInvalidated();
+    }
+
+
+    /**
+     * Removes all the points. The capacity is retained.
+     */
+    public void clear() {
+        size = 0;
+        resetExtents();
+        xSorted = true;
+        sortValid = true;
+        pyramid = null;
+        fireInvalidated();
+    }
+
+
+    /**
+     * Ensures the series can hold the given number of points without growing.
+     *
+     * @param capacity The minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > xValues.length) {
+            int newCapacity = Math.max(capacity, xValues.length + (xValues.length >> 1));
+            xValues = Arrays.copyOf(xValues, newCapacity);
+            yValues = Arrays.copyOf(yValues, newCapacity);
+        }
+    }
+
+
+    /**
+     * Releases the spare capacity.
+     */
+    public void trimToSize() {
+        if (xValues.length > size) {
+            xValues = Arrays.copyOf(xValues, size);
+            yValues = Arrays.copyOf(yValues, size);
+        }
+    }
+
+
+    @Override
+    public double getMinX() {
+        validateExtents();
+        return minX;
+    }
+
+
+    @Override
+    public double getMaxX() {
+        validateExtents();
+        return maxX;
+    }
+
+
+    @Override
+    public double getMinY() {
+        validateExtents();
+        return minY;
+    }
+
+
+    @Override
+    public double getMaxY() {
+        validateExtents();
+        return maxY;
+    }
+
+
+    @Override
+    public boolean isXSorted() {
+        if (!sortValid) {
+            xSorted = size == 0 || !Double.isNaN(xValues[0]);
+            for (int i = 1; i < size && xSorted; i++) {
+                xSorted = xValues[i - 1] <= xValues[i];
+            }
+            sortValid = true;
+        }
+        return xSorted;
+    }
+
+
+    /**
+     * Gets the level-of-detail pyramid of the y values. The pyramid is built on the first call,
+     * then maintained as points are added; replacing a point discards it.
+     *
+     * @return The aggregate pyramid.
+     */
+    @Override
+    public XYAggregatePyramid getAggregatePyramid() {
+        if (pyramid == null) {
+            pyramid = new XYAggregatePyramid();
+            for (int i = 0; i < size; i++) {
+                pyramid.append(yValues[i]);
+            }
+        }
+        return pyramid;
+    }
+
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        Objects.requireNonNull(listener, getClass().getSimpleName() + ": listener must not be null");
+        listeners.add(listener);
+    }
+
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    protected void fireInvalidated() {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).invalidated(this);
+        }
+    }
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+
+    private void resetExtents() {
+        minX = maxX = minY = maxY = Double.NaN;
+        extentsValid = true;
+    }
+
+
+    private void includeInExtents(double x, double y) {
+        if (!extentsValid) {
+            return; // will be recomputed on demand
+        }
+        // Note: NaN values are skipped by the comparisons
+        if (!(x >= minX)) {
+            minX = Double.isNaN(x) ? minX : x;
+        }
+        if (!(x <= maxX)) {
+            maxX = Double.isNaN(x) ? maxX : x;
+        }
+        if (!(y >= minY)) {
+            minY = Double.isNaN(y) ? minY : y;
+        }
+        if (!(y <= maxY)) {
+            maxY = Double.isNaN(y) ? maxY : y;
+        }
+    }
+
+
+    /**
+     * Updates the sort order with the x value stored (or to be stored) at the given index.
+     */
+    private void includeInOrder(int index, double x) {
+        if (xSorted && sortValid) {
+            xSorted = !Double.isNaN(x) && (index == 0 || xValues[index - 1] <= x);
+        }
+    }
+
+
+    private void validateExtents() {
+        if (extentsValid) {
+            return;
+        }
+        resetExtents();
+        includeInExtents(xValues, yValues, 0, size);
+    }
+
+
+    /**
+     * Includes a range of points in the extents with vectorized scans of the x and y values.
+     */
+    private void includeInExtents(double[] xs, double[] ys, int from, int count) {
+        if (!extentsValid || count == 0) {
+            return;
+        }
+        final double[] result = new double[2];
+        VectorOps.minMax(xs, from, count, result);
+        final double xMin = result[0];
+        final double xMax = result[1];
+        VectorOps.minMax(ys, from, count, result);
+        includeInExtents(xMin, result[0]);
+        includeInExtents(xMax, result[1]);
+    }
+
+}
@@ -1,11 +1,13 @@
 package com.emxsys.chart.extension;
 
 import javafx.geometry.Orientation;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.control.Tooltip;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.Shape;
 
 /** Similar to {@link XYPolygonAnnotation} this annotation draws a polygon. The difference is that it spans the
  * chart in one dimension and is square, so that only a min/max needs to be specified.
@@ -18,6 +20,9 @@ public class XYFieldAnnotation implements XYAnnotation {
 
 	private final double min, max;
 	private final Orientation orientation;
+	private final double strokeWidth;
+	private final Paint outlinePaint;
+	private final Paint fillPaint;
 
 
 	/**
@@ -53,6 +58,9 @@ public class XYFieldAnnotation implements XYAnnotation {
 		rectangle.setStrokeWidth(strokeWidth);
 		rectangle.setStroke(outlinePaint);
 		rectangle.setFill(fillPaint);
+		this.strokeWidth = strokeWidth;
+		this.outlinePaint = outlinePaint;
+		this.fillPaint = fillPaint;
 	}
 
 
@@ -74,6 +82,42 @@ public class XYFieldAnnotation implements XYAnnotation {
 	 */
 	@Override
 	public void layoutAnnotation(ValueAxis xAxis, ValueAxis yAxis) {
+		layoutRectangle(xAxis, yAxis);
+	}
+
+
+	/**
+	 * Draws the field with the chart-annotation-field style, overridden by the explicit paints
+	 * given to the constructor.
+	 *
+	 * @param gc
+	 * @param xAxis
+	 * @param yAxis
+	 * @param canvas
+	 * @return True.
+	 */
+	@Override
+	public boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+		layoutRectangle(xAxis, yAxis);
+		// The rectangle is not in the scene graph, so its CSS styling is read from a proxy
+		final Shape style = canvas.getShapeStyle("chart-annotation-field");
+		final Paint fill = fillPaint != null ? fillPaint : style.getFill();
+		final Paint stroke = outlinePaint != null ? outlinePaint : style.getStroke();
+		final double lineWidth = outlinePaint != null ? strokeWidth : style.getStrokeWidth();
+		if (fill != null) {
+			gc.setFill(fill);
+			gc.fillRect(rectangle.getX(), rectangle.getY(), rectangle.getWidth(), rectangle.getHeight());
+		}
+		if (stroke != null && lineWidth > 0) {
+			gc.setStroke(stroke);
+			gc.setLineWidth(lineWidth);
+			gc.strokeRect(rectangle.getX(), rectangle.getY(), rectangle.getWidth(), rectangle.getHeight());
+		}
+		return true;
+	}
+
+
+	private void layoutRectangle(ValueAxis xAxis, ValueAxis yAxis) {
 		double strokeW = rectangle.getStrokeWidth();
 
 		double x, y, w, h;
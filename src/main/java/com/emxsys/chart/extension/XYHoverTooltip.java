@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import javafx.event.EventHandler;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+
+
+/**
+ * JavaFX Chart Extension that shows a single shared Tooltip for the data point nearest to the
+ * mouse. The point is found with the XYCanvasRenderer's spatial index, so no mouse handlers are
+ * installed on the individual series or data nodes.
+ *
+ * @author Bruce Schubert
+ */
+public class XYHoverTooltip {
+
+    /**
+     * The search radius around the mouse in pixels.
+     */
+    private static final double HOVER_RADIUS = 8;
+    private static final double OFFSET = 12;
+
+    private final Node owner;
+    private final XYCanvasRenderer<?, ?> renderer;
+    private final Tooltip tooltip = new Tooltip();
+    private final EventHandler<MouseEvent> moveHandler = this::mouseMoved;
+    private final EventHandler<MouseEvent> exitHandler = event -> tooltip.hide();
+    private XYPointIndex.Hit current;
+
+
+    /**
+     * Constructs a hover tooltip.
+     *
+     * @param owner The chart that receives the mouse events.
+     * @param renderer The renderer that indexes the chart's points.
+     */
+    public XYHoverTooltip(Node owner, XYCanvasRenderer<?, ?> renderer) {
+        this.owner = owner;
+        this.renderer = renderer;
+        tooltip.getStyleClass().add("chart-hover-tooltip");
+    }
+
+
+    /**
+     * Installs the mouse handlers on the owner.
+     */
+    public void install() {
+        owner.addEventHandler(MouseEvent.MOUSE_MOVED, moveHandler);
+        owner.addEventHandler(MouseEvent.MOUSE_EXITED, exitHandler);
+    }
+
+
+    /**
+     * Removes the mouse handlers from the owner and hides the tooltip.
+     */
+    public void uninstall() {
+        owner.removeEventHandler(MouseEvent.MOUSE_MOVED, moveHandler);
+        owner.removeEventHandler(MouseEvent.MOUSE_EXITED, exitHandler);
+        tooltip.hide();
+        current = null;
+    }
+
+
+    private void mouseMoved(MouseEvent event) {
+        final Point2D point = renderer.getCanvas().sceneToLocal(event.getSceneX(), event.getSceneY());
+        final XYPointIndex.Hit hit = renderer.findNearest(point.getX(), point.getY(), HOVER_RADIUS);
+        final String text = (hit == null) ? null : renderer.getDescription(hit);
+        if (text == null) {
+            tooltip.hide();
+            current = null;
+            return;
+        }
+        if (current == null || current.getTrace() != hit.getTrace() || current.getIndex() != hit.getIndex()) {
+            tooltip.setText(text);
+            current = hit;
+        }
+        if (tooltip.isShowing()) {
+            tooltip.setAnchorX(event.getScreenX() + OFFSET);
+            tooltip.setAnchorY(event.getScreenY() + OFFSET);
+        }
+        else {
+            tooltip.show(owner, event.getScreenX() + OFFSET, event.getScreenY() + OFFSET);
+        }
+    }
+
+}
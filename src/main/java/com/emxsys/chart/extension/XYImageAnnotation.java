@@ -30,7 +30,9 @@
 package com.emxsys.chart.extension;
 
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -118,6 +120,60 @@ public class XYImageAnnotation implements XYAnnotation {
     }
 
 
+    /**
+     * Gets the anchor point of the annotation in data coordinates.
+     *
+     * @return A zero-size rectangle at the anchor point.
+     */
+    @Override
+    public Rectangle2D getDataBounds() {
+        return new Rectangle2D(x, y, 0, 0);
+    }
+
+
+    /**
+     * Draws the image at its anchor point.
+     *
+     * @param gc
+     * @param xAxis
+     * @param yAxis
+     * @param canvas
+     * @return True.
+     */
+    @Override
+    public boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+        final Image image = imageView.getImage();
+        if (image == null) {
+            return true;
+        }
+        double left = xAxis.getDisplayPosition(x);
+        double top = yAxis.getDisplayPosition(y);
+        switch (imageAnchor.getHpos()) {
+            case CENTER:
+                left -= image.getWidth() / 2;
+                break;
+            case RIGHT:
+                left -= image.getWidth();
+                break;
+            default:
+                break;
+        }
+        switch (imageAnchor.getVpos()) {
+            case CENTER:
+                top -= image.getHeight() / 2;
+                break;
+            case BOTTOM:
+            case BASELINE:
+                top -= image.getHeight();
+                break;
+            default:
+                break;
+        }
+        gc.drawImage(image, left, top);
+        return true;
+    }
+
+
     protected void layoutImage() {
 
         switch (imageAnchor) {
@@ -29,10 +29,13 @@
  */
 package com.emxsys.chart.extension;
 
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Line;
+import javafx.scene.shape.Shape;
 
 
 /**
@@ -47,6 +50,9 @@ public class XYLineAnnotation implements XYAnnotation {
     private final double y1;
     private final double x2;
     private final double y2;
+    // The stroke overriding the CSS style; null if styled by CSS
+    private final Double strokeWidth;
+    private final Paint color;
 
 
     /**
@@ -71,6 +77,8 @@ public class XYLineAnnotation implements XYAnnotation {
 
         this.line.setStrokeWidth(strokeWidth);
         this.line.setStroke(color);
+        this.strokeWidth = strokeWidth;
+        this.color = color;
     }
 
 
@@ -89,6 +97,8 @@ public class XYLineAnnotation implements XYAnnotation {
         this.y1 = y1;
         this.x2 = x2;
         this.y2 = y2;
+        this.strokeWidth = null;
+        this.color = null;
     }
 
 
@@ -117,4 +127,35 @@ public class XYLineAnnotation implements XYAnnotation {
         line.setEndY(yAxis.getDisplayPosition(y2));
     }
 
+
+    /**
+     * Gets the extent of the line in data coordinates.
+     *
+     * @return The rectangle spanned by the end points.
+     */
+    @Override
+    public Rectangle2D getDataBounds() {
+        return new Rectangle2D(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1), Math.abs(y2 - y1));
+    }
+
+
+    /**
+     * Draws the line with its own stroke, or else the chart-annotation-line style.
+     *
+     * @param gc
+     * @param xAxis
+     * @param yAxis
+     * @param canvas
+     * @return True.
+     */
+    @Override
+    public boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+        final Shape style = canvas.getShapeStyle("chart-annotation-line");
+        gc.setStroke(color != null ? color : style.getStroke());
+        gc.setLineWidth(strokeWidth != null ? strokeWidth : style.getStrokeWidth());
+        gc.strokeLine(xAxis.getDisplayPosition(x1), yAxis.getDisplayPosition(y1),
+            xAxis.getDisplayPosition(x2), yAxis.getDisplayPosition(y2));
+        return true;
+    }
+
 }
@@ -29,7 +29,16 @@
  */
 package com.emxsys.chart.extension;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -40,6 +49,13 @@ import javafx.scene.chart.XYChart;
 
 /**
  * JavaFX Chart Extension that adds ValueMarkers to an XYChart.
+ * <p>
+ * Only the markers that have been added or whose values have changed are laid out, unless the
+ * axis transform has changed since the previous layout.
+ * <p>
+ * Many markers can be changed at once with the collection methods, e.g.
+ * {@link #addRangeMarkers}, or by grouping changes in a {@link #batch}; the marker nodes are
+ * then attached and detached with one change to the plot children, and laid out once.
  *
  * @author Bruce Schubert
  * @param <X>
@@ -52,6 +68,20 @@ public final class XYMarkers<X, Y> {
     private final ObservableList<ValueMarker> rangeMarkers;
     private final ObservableList<ValueMarker> domainMarkers;
 
+    private final XYTransformTracker transform;
+    private final Set<ValueMarker> dirtyRangeMarkers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<ValueMarker> dirtyDomainMarkers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<ValueMarker, InvalidationListener> valueListeners = new IdentityHashMap<>();
+
+    /**
+     * The marker nodes waiting to be attached to or detached from the plot children. Nodes do not
+     * override equals, so these sets compare them by identity.
+     */
+    private final Set<Node> nodesToAttach = new LinkedHashSet<>();
+    private final Set<Node> nodesToDetach = new HashSet<>();
+    private int batchDepth;
+    private boolean layoutPending;
+
 
     /**
      * Constructs an XYMarkers object.
@@ -62,14 +92,15 @@ public final class XYMarkers<X, Y> {
     public XYMarkers(XYChart chart, ObservableList<Node> plotChildren) {
         this.chart = chart;
         this.plotChildren = plotChildren;
+        this.transform = new XYTransformTracker(chart);
 
         // Create lists that notify on changes
         domainMarkers = FXCollections.observableArrayList();
         rangeMarkers = FXCollections.observableArrayList();
 
-        // Listen to list changes and re-plot
-        rangeMarkers.addListener((InvalidationListener) observable -> layoutRangeMarkers());
-        domainMarkers.addListener((InvalidationListener) observable -> layoutDomainMarkers());
+        // Listen to list changes and plot the new markers
+        rangeMarkers.addListener((InvalidationListener) observable -> markersChanged());
+        domainMarkers.addListener((InvalidationListener) observable -> markersChanged());
     }
 
 
@@ -83,19 +114,56 @@ public final class XYMarkers<X, Y> {
         if (rangeMarkers.contains(marker)) {
             return;
         }
-        plotChildren.add(marker.getNode());
+        watch(marker, dirtyRangeMarkers);
+        attach(marker.getNode());
+        flushNodes();
         rangeMarkers.add(marker);
     }
 
 
+    /**
+     * Adds a collection of markers to the Y (range) axis with a single change to the plot
+     * children. Markers that are already on the axis are ignored.
+     *
+     * @param markers The markers to be added.
+     */
+    public void addRangeMarkers(Collection<? extends ValueMarker> markers) {
+        addAll(markers, rangeMarkers, dirtyRangeMarkers);
+    }
+
+
+    /**
+     * Removes a collection of markers from the Y (range) axis with a single change to the plot
+     * children.
+     *
+     * @param markers The markers to be removed.
+     */
+    public void removeRangeMarkers(Collection<? extends ValueMarker> markers) {
+        removeAll(markers, rangeMarkers, dirtyRangeMarkers);
+    }
+
+
+    /**
+     * Replaces all the range markers with the given markers. Markers that are retained keep
+     * their nodes in the plot.
+     *
+     * @param markers The new range markers.
+     */
+    public void replaceRangeMarkers(Collection<? extends ValueMarker> markers) {
+        replaceAll(markers, rangeMarkers, dirtyRangeMarkers);
+    }
+
+
     /**
      * Clears all the range markers.
      */
     public void clearRangeMarkers() {
 
         for (ValueMarker marker : rangeMarkers) {
-            plotChildren.remove(marker.getNode());
+            detach(marker.getNode());
+            unwatch(marker, dirtyRangeMarkers);
         }
+        flushNodes();
         rangeMarkers.clear();
     }
 
@@ -108,9 +176,12 @@ public final class XYMarkers<X, Y> {
     public void removeRangeMarker(ValueMarker marker) {
         Objects.requireNonNull(marker, getClass().getSimpleName() + ": marker must not be null");
         if (marker.getNode() != null) {
-            plotChildren.remove(marker.getNode());
+            detach(marker.getNode());
+            flushNodes();
+        }
+        if (rangeMarkers.remove(marker)) {
+            unwatch(marker, dirtyRangeMarkers);
         }
-        rangeMarkers.remove(marker);
     }
 
 
@@ -124,22 +195,84 @@ public final class XYMarkers<X, Y> {
         if (domainMarkers.contains(marker)) {
             return;
         }
-        plotChildren.add(marker.getNode());
+        watch(marker, dirtyDomainMarkers);
+        attach(marker.getNode());
+        flushNodes();
         domainMarkers.add(marker);
     }
 
 
+    /**
+     * Adds a collection of markers to the X (domain) axis with a single change to the plot
+     * children. Markers that are already on the axis are ignored.
+     *
+     * @param markers The markers to be added.
+     */
+    public void addDomainMarkers(Collection<? extends ValueMarker> markers) {
+        addAll(markers, domainMarkers, dirtyDomainMarkers);
+    }
+
+
+    /**
+     * Removes a collection of markers from the X (domain) axis with a single change to the plot
+     * children.
+     *
+     * @param markers The markers to be removed.
+     */
+    public void removeDomainMarkers(Collection<? extends ValueMarker> markers) {
+        removeAll(markers, domainMarkers, dirtyDomainMarkers);
+    }
+
+
+    /**
+     * Replaces all the domain markers with the given markers. Markers that are retained keep
+     * their nodes in the plot.
+     *
+     * @param markers The new domain markers.
+     */
+    public void replaceDomainMarkers(Collection<? extends ValueMarker> markers) {
+        replaceAll(markers, domainMarkers, dirtyDomainMarkers);
+    }
+
+
     /**
      * Clears all the domain markers.
      */
     public void clearDomainMarkers() {
         for (ValueMarker marker : domainMarkers) {
-            plotChildren.remove(marker.getNode());
+            detach(marker.getNode());
+            unwatch(marker, dirtyDomainMarkers);
         }
+        flushNodes();
         domainMarkers.clear();
     }
 
 
+    /**
+     * Runs a sequence of changes to the markers as a single transaction. The marker nodes are
+     * attached to and detached from the plot once when the outermost scope is closed, and the
+     * markers are laid out once, in the next layout pass.
+     *
+     * @param changes Adds or removes range and domain markers.
+     */
+    public void batch(Runnable changes) {
+        Objects.requireNonNull(changes, getClass().getSimpleName() + ": changes must not be null");
+        batchDepth++;
+        try {
+            changes.run();
+        }
+        finally {
+            if (--batchDepth == 0) {
+                flushNodes();
+                if (layoutPending) {
+                    layoutPending = false;
+                    chart.requestLayout();
+                }
+            }
+        }
+    }
+
+
     /**
      * Removes the given domain marker.
      *
@@ -148,18 +281,205 @@ public final class XYMarkers<X, Y> {
     public void removeDomainMarker(ValueMarker marker) {
         Objects.requireNonNull(marker, getClass().getSimpleName() + ": marker must not be null");
         if (marker.getNode() != null) {
-            plotChildren.remove(marker.getNode());
+            detach(marker.getNode());
+            flushNodes();
+        }
+        if (domainMarkers.remove(marker)) {
+            unwatch(marker, dirtyDomainMarkers);
         }
-        domainMarkers.remove(marker);
     }
 
 
     /**
-     * Performs a layout of the range and domain markers.
+     * Performs a layout of the range and domain markers. All the markers are laid out if the axis
+     * transform has changed; otherwise only the dirty markers. The layout is deferred while a
+     * batch of changes is in progress.
      */
     public void layoutMarkers() {
-        layoutDomainMarkers();
-        layoutRangeMarkers();
+        if (batchDepth > 0) {
+            layoutPending = true;
+            return;
+        }
+        if (transform.update()) {
+            layoutDomainMarkers();
+            layoutRangeMarkers();
+            dirtyDomainMarkers.clear();
+            dirtyRangeMarkers.clear();
+        }
+        else {
+            layoutDirtyMarkers();
+        }
+    }
+
+
+    /**
+     * Marks the marker as dirty now and whenever its value changes.
+     */
+    private void watch(ValueMarker marker, Set<ValueMarker> dirtySet) {
+        final InvalidationListener listener = observable -> {
+            dirtySet.add(marker);
+            if (batchDepth > 0) {
+                layoutPending = true;
+            }
+            else {
+                chart.requestLayout();
+            }
+        };
+        valueListeners.put(marker, listener);
+        marker.valueProperty().addListener(listener);
+        dirtySet.add(marker);
+    }
+
+
+    private void unwatch(ValueMarker marker, Set<ValueMarker> dirtySet) {
+        final InvalidationListener listener = valueListeners.remove(marker);
+        if (listener != null) {
+            marker.valueProperty().removeListener(listener);
+        }
+        dirtySet.remove(marker);
+    }
+
+
+    /**
+     * Collects the domain and range markers that display a label.
+     *
+     * @param result Receives the labeled markers.
+     */
+    void collectLabeledMarkers(List<ValueMarker> result) {
+        for (ValueMarker marker : domainMarkers) {
+            if (marker.getLabel() != null && !marker.getLabel().isEmpty()) {
+                result.add(marker);
+            }
+        }
+        for (ValueMarker marker : rangeMarkers) {
+            if (marker.getLabel() != null && !marker.getLabel().isEmpty()) {
+                result.add(marker);
+            }
+        }
+    }
+
+
+    private void addAll(Collection<? extends ValueMarker> markers, ObservableList<ValueMarker> list,
+            Set<ValueMarker> dirtySet) {
+        Objects.requireNonNull(markers, getClass().getSimpleName() + ": markers must not be null");
+        Set<ValueMarker> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        present.addAll(list);
+        List<ValueMarker> added = new ArrayList<>(markers.size());
+        for (ValueMarker marker : markers) {
+            Objects.requireNonNull(marker, getClass().getSimpleName() + ": marker must not be null");
+            if (present.add(marker)) {
+                watch(marker, dirtySet);
+                attach(marker.getNode());
+                added.add(marker);
+            }
+        }
+        flushNodes();
+        list.addAll(added);
+    }
+
+
+    private void removeAll(Collection<? extends ValueMarker> markers, ObservableList<ValueMarker> list,
+            Set<ValueMarker> dirtySet) {
+        Objects.requireNonNull(markers, getClass().getSimpleName() + ": markers must not be null");
+        Set<ValueMarker> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(markers);
+        for (ValueMarker marker : list) {
+            if (removed.contains(marker)) {
+                detach(marker.getNode());
+                unwatch(marker, dirtySet);
+            }
+        }
+        flushNodes();
+        list.removeAll(removed);
+    }
+
+
+    private void replaceAll(Collection<? extends ValueMarker> markers, ObservableList<ValueMarker> list,
+            Set<ValueMarker> dirtySet) {
+        Objects.requireNonNull(markers, getClass().getSimpleName() + ": markers must not be null");
+        Set<ValueMarker> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ValueMarker> replacement = new ArrayList<>(markers.size());
+        for (ValueMarker marker : markers) {
+            Objects.requireNonNull(marker, getClass().getSimpleName() + ": marker must not be null");
+            if (retained.add(marker)) {
+                replacement.add(marker);
+            }
+        }
+        for (ValueMarker marker : list) {
+            if (!retained.remove(marker)) {
+                detach(marker.getNode());
+                unwatch(marker, dirtySet);
+            }
+        }
+        // The markers left in the set are new to the axis
+        for (ValueMarker marker : replacement) {
+            if (retained.contains(marker)) {
+                watch(marker, dirtySet);
+                attach(marker.getNode());
+            }
+        }
+        flushNodes();
+        list.setAll(replacement);
+    }
+
+
+    private void attach(Node node) {
+        if (!nodesToDetach.remove(node)) {
+            nodesToAttach.add(node);
+        }
+    }
+
+
+    private void detach(Node node) {
+        if (!nodesToAttach.remove(node)) {
+            nodesToDetach.add(node);
+        }
+    }
+
+
+    /**
+     * Applies the pending node changes to the plot children, unless a batch of changes is in
+     * progress.
+     */
+    private void flushNodes() {
+        if (batchDepth > 0) {
+            return;
+        }
+        if (!nodesToDetach.isEmpty()) {
+            plotChildren.removeAll(nodesToDetach);
+            nodesToDetach.clear();
+        }
+        if (!nodesToAttach.isEmpty()) {
+            plotChildren.addAll(nodesToAttach);
+            nodesToAttach.clear();
+        }
+    }
+
+
+    private void markersChanged() {
+        if (batchDepth > 0) {
+            layoutPending = true;
+        }
+        else {
+            layoutDirtyMarkers();
+        }
+    }
+
+
+    private void layoutDirtyMarkers() {
+        if (dirtyDomainMarkers.isEmpty() && dirtyRangeMarkers.isEmpty()) {
+            return;
+        }
+        ValueAxis xAxis = (ValueAxis) chart.getXAxis();
+        ValueAxis yAxis = (ValueAxis) chart.getYAxis();
+        for (ValueMarker marker : dirtyDomainMarkers) {
+            marker.layoutDomainMarker(xAxis, yAxis);
+        }
+        for (ValueMarker marker : dirtyRangeMarkers) {
+            marker.layoutRangeMarker(xAxis, yAxis);
+        }
+        dirtyDomainMarkers.clear();
+        dirtyRangeMarkers.clear();
     }
 
 
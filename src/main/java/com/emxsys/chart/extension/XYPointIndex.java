@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A spatial index of the plotted points in display coordinates. Each series (trace) has its own
+ * k-d tree so that a trace can be re-indexed independently when it is laid out. The index answers
+ * "nearest data point to this mouse position" by descending the trees and visiting only the
+ * subtrees that may hold a nearer point, i.e., in O(log n) expected time, however densely the
+ * points are piled up.
+ * <p>
+ * A tree is stored implicitly in three parallel arrays: the points of a range are partitioned
+ * around the median of the range, alternating between x and y at each level, so the node of a
+ * range is its middle element. Building a tree costs O(n log n) and 20 bytes per point.
+ *
+ * @author Bruce Schubert
+ */
+public class XYPointIndex {
+
+    /**
+     * The result of a nearest point query.
+     */
+    public static final class Hit {
+
+        private final int trace;
+        private final int index;
+        private final double x;
+        private final double y;
+
+
+        Hit(int trace, int index, double x, double y) {
+            this.trace = trace;
+            this.index = index;
+            this.x = x;
+            this.y = y;
+        }
+
+
+        /**
+         * @return The trace (series) number, as numbered by the indexer.
+         */
+        public int getTrace() {
+            return trace;
+        }
+
+
+        /**
+         * @return The index of the data item within its series.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+
+        /**
+         * @return The x display position of the point.
+         */
+        public double getX() {
+            return x;
+        }
+
+
+        /**
+         * @return The y display position of the point.
+         */
+        public double getY() {
+            return y;
+        }
+    }
+
+    /**
+     * The points of one trace, ordered as an implicit k-d tree.
+     */
+    private static final class Tree {
+
+        int size;
+        double[] xs = new double[0];
+        double[] ys = new double[0];
+        int[] indices = new int[0];
+
+
+        double key(int slot, boolean byX) {
+            return byX ? xs[slot] : ys[slot];
+        }
+
+
+        void swap(int a, int b) {
+            final double x = xs[a];
+            xs[a] = xs[b];
+            xs[b] = x;
+            final double y = ys[a];
+            ys[a] = ys[b];
+            ys[b] = y;
+            final int index = indices[a];
+            indices[a] = indices[b];
+            indices[b] = index;
+        }
+    }
+
+    private final List<Tree> trees = new ArrayList<>();
+
+    // The state of the current findNearest query
+    private Tree bestTree;
+    private int bestSlot;
+    private double bestDistSq;
+
+
+    /**
+     * Sets the number of traces in the index, discarding the excess traces.
+     *
+     * @param count The number of traces.
+     */
+    public void setTraceCount(int count) {
+        while (trees.size() > count) {
+            trees.remove(trees.size() - 1);
+        }
+        while (trees.size() < count) {
+            trees.add(new Tree());
+        }
+    }
+
+
+    /**
+     * Replaces the points of a trace. The points outside the plot area are not indexed.
+     *
+     * @param trace The trace number; must be less than the trace count.
+     * @param xs The x display positions.
+     * @param ys The y display positions.
+     * @param indices The data item index of each point.
+     * @param count The number of points.
+     * @param width The width of the plot area.
+     * @param height The height of the plot area.
+     */
+    public void setTrace(int trace, double[] xs, double[] ys, int[] indices, int count, double width, double height) {
+        final Tree tree = trees.get(trace);
+        if (tree.xs.length < count || tree.xs.length > 2 * count + 64) {
+            tree.xs = new double[count];
+            tree.ys = new double[count];
+            tree.indices = new int[count];
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            // Note: NaN positions fail these tests too
+            if (xs[i] >= 0 && xs[i] <= width && ys[i] >= 0 && ys[i] <= height) {
+                tree.xs[size] = xs[i];
+                tree.ys[size] = ys[i];
+                tree.indices[size] = indices[i];
+                size++;
+            }
+        }
+        tree.size = size;
+        build(tree, 0, size, true);
+    }
+
+
+    /**
+     * Removes the points of a trace.
+     *
+     * @param trace The trace number.
+     */
+    public void clearTrace(int trace) {
+        trees.get(trace).size = 0;
+    }
+
+
+    /**
+     * Finds the point nearest to the given display position.
+     *
+     * @param x The x display position.
+     * @param y The y display position.
+     * @param maxDistance The search radius in pixels.
+     * @return The nearest point within the search radius, or null.
+     */
+    public Hit findNearest(double x, double y, double maxDistance) {
+        bestTree = null;
+        bestDistSq = maxDistance * maxDistance;
+        int bestTrace = -1;
+        for (int trace = 0; trace < trees.size(); trace++) {
+            final Tree tree = trees.get(trace);
+            search(tree, 0, tree.size, true, x, y);
+            if (bestTree == tree) {
+                bestTrace = trace;
+            }
+        }
+        if (bestTree == null) {
+            return null;
+        }
+        final Hit nearest = new Hit(bestTrace, bestTree.indices[bestSlot], bestTree.xs[bestSlot], bestTree.ys[bestSlot]);
+        bestTree = null;
+        return nearest;
+    }
+
+
+    /**
+     * Visits the node of a range and its subtrees, nearest side first, updating the best point.
+     * The far side is skipped if the splitting line is farther away than the best point.
+     */
+    private void search(Tree tree, int from, int to, boolean byX, double x, double y) {
+        while (from < to) {
+            final int mid = (from + to) >>> 1;
+            final double dx = tree.xs[mid] - x;
+            final double dy = tree.ys[mid] - y;
+            final double distSq = dx * dx + dy * dy;
+            if (distSq <= bestDistSq) {
+                bestDistSq = distSq;
+                bestTree = tree;
+                bestSlot = mid;
+            }
+            final double delta = byX ? dx : dy;
+            if (delta > 0) {
+                search(tree, from, mid, !byX, x, y);
+                from = mid + 1;
+            }
+            else {
+                search(tree, mid + 1, to, !byX, x, y);
+                to = mid;
+            }
+            if (delta * delta > bestDistSq) {
+                return;
+            }
+            byX = !byX;
+        }
+    }
+
+
+    /**
+     * Orders a range as a k-d tree: the median of the range on the splitting axis is moved to the
+     * middle, with the lesser points before it and the greater points after it, and the two
+     * halves are ordered on the other axis.
+     */
+    private static void build(Tree tree, int from, int to, boolean byX) {
+        while (to - from > 1) {
+            final int mid = (from + to) >>> 1;
+            select(tree, from, to, mid, byX);
+            build(tree, from, mid, !byX);
+            from = mid + 1;
+            byX = !byX;
+        }
+    }
+
+
+    /**
+     * Partially sorts a range so that the given slot holds the point it would hold if the range
+     * were sorted on the axis (quickselect). The three-way partition keeps the cost linear when
+     * many points share a position.
+     */
+    private static void select(Tree tree, int from, int to, int k, boolean byX) {
+        int lo = from;
+        int hi = to - 1;
+        while (hi > lo) {
+            final double pivot = median(tree.key(lo, byX), tree.key((lo + hi) >>> 1, byX), tree.key(hi, byX));
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                final double value = tree.key(i, byX);
+                if (value < pivot) {
+                    tree.swap(lt++, i++);
+                }
+                else if (value > pivot) {
+                    tree.swap(i, gt--);
+                }
+                else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt - 1;
+            }
+            else if (k > gt) {
+                lo = gt + 1;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+}
@@ -29,25 +29,83 @@
  */
 package com.emxsys.chart.extension;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.control.Tooltip;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Polygon;
+import javafx.scene.shape.Shape;
 
 
 /**
  * The XYPolygonAnnotation class draws polygon annotations on the foreground or background of an
  * XYChart.
+ * <p>
+ * Large polygons are simplified to a sub-pixel tolerance for the current zoom level and clipped
+ * to the plot area before their points are published. The simplified rings are cached by zoom
+ * level, i.e., by the extent of the polygon in pixels, so panning reuses them.
  *
  * @author Bruce Schubert
  */
 public class XYPolygonAnnotation implements XYAnnotation {
 
+    /**
+     * The minimum number of vertices for the polygon to be simplified.
+     */
+    private static final int MIN_SIMPLIFY_COUNT = 64;
+    /**
+     * The maximum distance, in pixels, of a removed vertex from the simplified ring.
+     */
+    private static final double TOLERANCE = 0.5;
+    /**
+     * The number of zoom levels per doubling of the polygon extent.
+     */
+    private static final int LEVELS_PER_OCTAVE = 4;
+    /**
+     * The number of simplified rings retained.
+     */
+    private static final int MAX_CACHED_LEVELS = 8;
+    /**
+     * The margin, in pixels, around the plot area outside which the polygon is clipped; it keeps
+     * the clipped edges out of sight.
+     */
+    private static final double CLIP_MARGIN = 10;
+
     private final Polygon polygon = new Polygon();
 
     double[] xyValues;
 
+    // The de-interleaved values, their bounds and the display positions of the retained
+    // vertices, reused on every layout
+    private double[] xValues;
+    private double[] yValues;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private double[] xPositions;
+    private double[] yPositions;
+    private final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+    private double[] xDrawn;
+    private double[] yDrawn;
+
+    // The indices of the retained vertices by zoom level, least recently used first
+    private final Map<Long, int[]> simplified = new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > MAX_CACHED_LEVELS;
+        }
+    };
+
+    // The stroke and fill overriding the CSS style; null if styled by CSS
+    private final Double strokeWidth;
+    private final Paint outlinePaint;
+    private final Paint fillPaint;
+
 
     /**
      * Constructs a polygon annotation with specific stroke and colors that override CSS styles.
@@ -73,6 +131,9 @@ public class XYPolygonAnnotation implements XYAnnotation {
         polygon.setStrokeWidth(strokeWidth == null ? 0.0 : strokeWidth);
         polygon.setStroke(outlinePaint);
         polygon.setFill(fillPaint);
+        this.strokeWidth = strokeWidth == null ? 0.0 : strokeWidth;
+        this.outlinePaint = outlinePaint;
+        this.fillPaint = fillPaint;
     }
 
 
@@ -92,6 +153,9 @@ public class XYPolygonAnnotation implements XYAnnotation {
         this.xyValues = xyValues;
 
         polygon.getStyleClass().add("chart-annotation-polygon");
+        this.strokeWidth = null;
+        this.outlinePaint = null;
+        this.fillPaint = null;
     }
 
 
@@ -113,18 +177,178 @@ public class XYPolygonAnnotation implements XYAnnotation {
      */
     @Override
     public void layoutAnnotation(ValueAxis xAxis, ValueAxis yAxis) {
-        polygon.getPoints().clear();
-        int i = 0;
-        for (double xyValue : xyValues) {
-            // Plot the values
-            if (i % 2 == 0) {
-                polygon.getPoints().add(xAxis.getDisplayPosition(xyValue));
+        final int count = project(xAxis, yAxis);
+        final Double[] points = new Double[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[2 * i] = xDrawn[i];
+            points[2 * i + 1] = yDrawn[i];
+        }
+        // Replace the points with a single change
+        polygon.getPoints().setAll(points);
+    }
+
+
+    /**
+     * Draws the polygon with its own stroke and fill, or else the chart-annotation-polygon style.
+     *
+     * @param gc
+     * @param xAxis
+     * @param yAxis
+     * @param canvas
+     * @return True.
+     */
+    @Override
+    public boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+        final int count = project(xAxis, yAxis);
+        final Shape style = (strokeWidth == null) ? canvas.getShapeStyle("chart-annotation-polygon") : null;
+        final Paint fill = style != null ? style.getFill() : fillPaint;
+        final Paint stroke = style != null ? style.getStroke() : outlinePaint;
+        final double lineWidth = style != null ? style.getStrokeWidth() : strokeWidth;
+        if (count < 3) {
+            return true;
+        }
+        if (fill != null) {
+            gc.setFill(fill);
+            gc.fillPolygon(xDrawn, yDrawn, count);
+        }
+        if (stroke != null && lineWidth > 0) {
+            gc.setStroke(stroke);
+            gc.setLineWidth(lineWidth);
+            gc.strokePolygon(xDrawn, yDrawn, count);
+        }
+        return true;
+    }
+
+
+    /**
+     * Projects the vertices to display positions in bulk, simplified for the zoom level and
+     * clipped to the plot area, into xDrawn and yDrawn.
+     *
+     * @return The number of vertices drawn.
+     */
+    @SuppressWarnings("unchecked")
+    private int project(ValueAxis xAxis, ValueAxis yAxis) {
+        if (xValues == null || xValues.length * 2 != xyValues.length) {
+            deinterleave();
+        }
+        final int count = xValues.length;
+        int drawn = count;
+        if (count < MIN_SIMPLIFY_COUNT) {
+            AxisTransforms.getDisplayPositions(xAxis, xValues, xPositions, count);
+            AxisTransforms.getDisplayPositions(yAxis, yValues, yPositions, count);
+        }
+        else {
+            final Long level = getZoomLevel(xAxis, yAxis);
+            int[] retained = simplified.get(level);
+            if (retained == null) {
+                // Simplify the full resolution ring at this zoom level
+                AxisTransforms.getDisplayPositions(xAxis, xValues, xPositions, count);
+                AxisTransforms.getDisplayPositions(yAxis, yValues, yPositions, count);
+                retained = PolygonGeometry.simplify(xPositions, yPositions, count, TOLERANCE);
+                simplified.put(level, retained);
+                for (int i = 0; i < retained.length; i++) {
+                    xPositions[i] = xPositions[retained[i]];
+                    yPositions[i] = yPositions[retained[i]];
+                }
             }
             else {
-                polygon.getPoints().add(yAxis.getDisplayPosition(xyValue));
+                // Only project the retained vertices
+                for (int i = 0; i < retained.length; i++) {
+                    xPositions[i] = xValues[retained[i]];
+                    yPositions[i] = yValues[retained[i]];
+                }
+                AxisTransforms.getDisplayPositions(xAxis, xPositions, xPositions, retained.length);
+                AxisTransforms.getDisplayPositions(yAxis, yPositions, yPositions, retained.length);
             }
-            ++i;
+            drawn = retained.length;
+        }
+        return clip(drawn, xAxis.getWidth(), yAxis.getHeight());
+    }
+
+
+    /**
+     * Clips the projected vertices to the plot area, plus a margin, unless they lie within it.
+     */
+    private int clip(int count, double width, double height) {
+        final double left = -CLIP_MARGIN;
+        final double top = -CLIP_MARGIN;
+        final double right = width + CLIP_MARGIN;
+        final double bottom = height + CLIP_MARGIN;
+        boolean inside = true;
+        for (int i = 0; i < count && inside; i++) {
+            inside = xPositions[i] >= left && xPositions[i] <= right && yPositions[i] >= top && yPositions[i] <= bottom;
+        }
+        if (inside || !(width > 0) || !(height > 0)) {
+            xDrawn = xPositions;
+            yDrawn = yPositions;
+            return count;
+        }
+        final int clipped = clipper.clip(xPositions, yPositions, count, left, top, right, bottom);
+        xDrawn = clipper.getX();
+        yDrawn = clipper.getY();
+        return clipped;
+    }
+
+
+    /**
+     * Gets the zoom level from the extent of the polygon in pixels, which is the same for any
+     * pan of a linear or logarithmic axis.
+     */
+    private Long getZoomLevel(ValueAxis xAxis, ValueAxis yAxis) {
+        final double width = Math.abs(xAxis.getDisplayPosition(maxX) - xAxis.getDisplayPosition(minX));
+        final double height = Math.abs(yAxis.getDisplayPosition(maxY) - yAxis.getDisplayPosition(minY));
+        return ((long) level(width) << 32) | (level(height) & 0xffffffffL);
+    }
+
+
+    private static int level(double extent) {
+        return extent > 0 ? (int) Math.floor(Math.log(extent) / Math.log(2) * LEVELS_PER_OCTAVE) : Integer.MIN_VALUE;
+    }
+
+
+    /**
+     * Splits the interleaved values into x and y arrays and computes their bounds.
+     */
+    private void deinterleave() {
+        final int count = xyValues.length / 2;
+        xValues = new double[count];
+        yValues = new double[count];
+        xPositions = new double[count];
+        yPositions = new double[count];
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            xValues[i] = xyValues[2 * i];
+            yValues[i] = xyValues[2 * i + 1];
+            minX = Math.min(minX, xValues[i]);
+            minY = Math.min(minY, yValues[i]);
+            maxX = Math.max(maxX, xValues[i]);
+            maxY = Math.max(maxY, yValues[i]);
+        }
+        simplified.clear();
+    }
+
+
+    /**
+     * Gets the extent of the vertices in data coordinates.
+     *
+     * @return The bounding rectangle of the polygon.
+     */
+    @Override
+    public Rectangle2D getDataBounds() {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xyValues.length; i += 2) {
+            minX = Math.min(minX, xyValues[i]);
+            maxX = Math.max(maxX, xyValues[i]);
+            minY = Math.min(minY, xyValues[i + 1]);
+            maxY = Math.max(maxY, xyValues[i + 1]);
         }
+        return new Rectangle2D(minX, minY, maxX - minX, maxY - minY);
     }
 
 
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+
+/**
+ * A thread-safe queue for streaming samples into XYDoubleSeries. Samples may be appended from any
+ * thread; they are collected per series in primitive buffers and drained on the JavaFX Application
+ * Thread once per pulse. Each series receives its samples with a single addAll, i.e., a single
+ * change notification per drain, which results in a single axis range update and plot layout of
+ * the chart. For example:
+ * <pre>{@code
+ * XYDoubleSeries trace = new XYDoubleSeries("Feed 1");
+ * chart.getDataSources().add(trace);
+ * // On a feed handler thread...
+ * chart.getSampleQueue().append(trace, timestamp, price);
+ * }</pre>
+ * <p>
+ * The buffers are double-buffered: the appending threads fill one set while the other is drained,
+ * and the two are swapped once per pulse, so a steady stream of samples allocates nothing.
+ *
+ * @author Bruce Schubert
+ */
+public class XYSampleQueue {
+
+    /**
+     * The samples destined for a series.
+     */
+    private static final class Buffer {
+
+        double[] xs = new double[16];
+        double[] ys = new double[16];
+        int count;
+
+
+        void ensureCapacity(int capacity) {
+            if (xs.length < capacity) {
+                final int length = Math.max(capacity, 2 * xs.length);
+                xs = Arrays.copyOf(xs, length);
+                ys = Arrays.copyOf(ys, length);
+            }
+        }
+    }
+
+    // The buffers keyed by series: pending is filled by the appending threads and guarded by the
+    // lock; draining is only used on the JavaFX Application Thread. They are swapped per pulse.
+    private final Object lock = new Object();
+    private Map<XYDoubleSeries, Buffer> pending = new IdentityHashMap<>();
+    private Map<XYDoubleSeries, Buffer> draining = new IdentityHashMap<>();
+    private boolean hasPending = false;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+
+    /**
+     * Appends a sample to the given series. May be called from any thread.
+     *
+     * @param series The series receiving the sample.
+     * @param x The x value.
+     * @param y The y value.
+     */
+    public void append(XYDoubleSeries series, double x, double y) {
+        Objects.requireNonNull(series, getClass().getSimpleName() + ": series must not be null");
+        synchronized (lock) {
+            final Buffer buffer = getBuffer(series);
+            buffer.ensureCapacity(buffer.count + 1);
+            buffer.xs[buffer.count] = x;
+            buffer.ys[buffer.count] = y;
+            buffer.count++;
+            hasPending = true;
+        }
+        schedule();
+    }
+
+
+    /**
+     * Appends a block of samples to the given series. The values are copied so that the caller
+     * may reuse the arrays. May be called from any thread.
+     *
+     * @param series The series receiving the samples.
+     * @param xs The x values.
+     * @param ys The y values.
+     * @param count The number of samples to append from the arrays.
+     */
+    public void append(XYDoubleSeries series, double[] xs, double[] ys, int count) {
+        Objects.requireNonNull(series, getClass().getSimpleName() + ": series must not be null");
+        if (count > xs.length || count > ys.length) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + ": count exceeds the array lengths.");
+        }
+        synchronized (lock) {
+            final Buffer buffer = getBuffer(series);
+            buffer.ensureCapacity(buffer.count + count);
+            System.arraycopy(xs, 0, buffer.xs, buffer.count, count);
+            System.arraycopy(ys, 0, buffer.ys, buffer.count, count);
+            buffer.count += count;
+            hasPending = true;
+        }
+        schedule();
+    }
+
+
+    /**
+     * Gets the pending buffer of a series. The caller must hold the lock.
+     */
+    private Buffer getBuffer(XYDoubleSeries series) {
+        Buffer buffer = pending.get(series);
+        if (buffer == null) {
+            buffer = new Buffer();
+            pending.put(series, buffer);
+        }
+        return buffer;
+    }
+
+
+    /**
+     * Starts the pulse timer if it isn't already running.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(pulse::start);
+        }
+    }
+
+
+    /**
+     * Drains the buffers into the series. Invoked once per pulse on the JavaFX Application Thread.
+     */
+    private void drain() {
+        synchronized (lock) {
+            if (hasPending) {
+                final Map<XYDoubleSeries, Buffer> filled = pending;
+                pending = draining;
+                draining = filled;
+                hasPending = false;
+            }
+            else {
+                draining.clear();
+            }
+        }
+        if (draining.isEmpty()) {
+            // Idle for a pulse: stop the timer, then re-check for a sample that raced the stop.
+            pulse.stop();
+            scheduled.set(false);
+            synchronized (lock) {
+                if (hasPending) {
+                    schedule();
+                }
+            }
+            return;
+        }
+        for (Iterator<Map.Entry<XYDoubleSeries, Buffer>> it = draining.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<XYDoubleSeries, Buffer> entry = it.next();
+            final Buffer buffer = entry.getValue();
+            if (buffer.count == 0) {
+                // No samples since the series was last drained; release its buffer
+                it.remove();
+                continue;
+            }
+            // One notification per series
+            entry.getKey().addAll(buffer.xs, buffer.ys, buffer.count);
+            buffer.count = 0;
+        }
+    }
+
+}
@@ -30,7 +30,9 @@
 package com.emxsys.chart.extension;
 
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.chart.ValueAxis;
 import javafx.scene.control.Label;
 
@@ -48,6 +50,7 @@ public class XYTextAnnotation implements XYAnnotation {
     private double displayX;
     private double displayY;
     private Pos textAnchor = Pos.CENTER;
+    private int priority;
 
 
     /**
@@ -119,6 +122,36 @@ public class XYTextAnnotation implements XYAnnotation {
     }
 
 
+    /**
+     * Gets the anchor point of the annotation in data coordinates.
+     *
+     * @return A zero-size rectangle at the anchor point.
+     */
+    @Override
+    public Rectangle2D getDataBounds() {
+        return new Rectangle2D(x, y, 0, 0);
+    }
+
+
+    /**
+     * Draws the text with the chart-annotation-text style.
+     *
+     * @param gc
+     * @param xAxis
+     * @param yAxis
+     * @param canvas
+     * @return True.
+     */
+    @Override
+    public boolean drawAnnotation(GraphicsContext gc, ValueAxis xAxis, ValueAxis yAxis, XYAnnotationCanvas canvas) {
+        displayX = xAxis.getDisplayPosition(x);
+        displayY = yAxis.getDisplayPosition(y);
+        XYAnnotationCanvas.drawText(gc, label.getText(), displayX, displayY, textAnchor,
+            canvas.getLabelStyle("chart-annotation-text"));
+        return true;
+    }
+
+
     protected void layoutText() {
         // Note: initially, the label width and height are 0 so we have to recompute
         // the layout after the first rendering.  See the width and height property listeners.
@@ -193,4 +226,35 @@ public class XYTextAnnotation implements XYAnnotation {
         this.textAnchor = textAnchor;
     }
 
+
+    /**
+     * Gets the priority of the label when overlapping labels are decluttered.
+     *
+     * @return The current priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+
+    /**
+     * Sets the priority of the label when overlapping labels are decluttered. Labels with a
+     * higher priority are placed first and are the last to be hidden. The default is zero.
+     *
+     * @param priority The new priority.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+
+    /**
+     * Gets the label displaying the text.
+     *
+     * @return The label node.
+     */
+    Label getLabelNode() {
+        return label;
+    }
+
 }
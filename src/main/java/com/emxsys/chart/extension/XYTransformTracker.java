@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Objects;
+import javafx.scene.chart.Axis;
+import javafx.scene.chart.XYChart;
+
+
+/**
+ * Detects changes to the transform from data values to display positions of an XYChart's axes,
+ * i.e., changes to the axis bounds, scale or size. The chart extensions use a tracker to decide
+ * whether every item must be re-projected or only the items that have changed.
+ *
+ * @author Bruce Schubert
+ */
+public class XYTransformTracker {
+
+    private final XYChart<?, ?> chart;
+    private double width = Double.NaN;
+    private double height = Double.NaN;
+    private Object xAtStart;
+    private Object xAtEnd;
+    private Object yAtStart;
+    private Object yAtEnd;
+
+
+    /**
+     * Constructs a tracker for the axes of an XYChart.
+     *
+     * @param chart The chart whose axes are tracked.
+     */
+    public XYTransformTracker(XYChart<?, ?> chart) {
+        this.chart = Objects.requireNonNull(chart, getClass().getSimpleName() + ": chart must not be null");
+    }
+
+
+    /**
+     * Records the current transform.
+     *
+     * @return True if the transform has changed since the previous update, or since invalidate.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean update() {
+        final Axis<Object> xAxis = (Axis<Object>) chart.getXAxis();
+        final Axis<Object> yAxis = (Axis<Object>) chart.getYAxis();
+        final double w = xAxis.getWidth();
+        final double h = yAxis.getHeight();
+        // The values at both ends of an axis determine its linear or logarithmic transform
+        final Object x0 = xAxis.getValueForDisplay(0);
+        final Object x1 = xAxis.getValueForDisplay(w);
+        final Object y0 = yAxis.getValueForDisplay(0);
+        final Object y1 = yAxis.getValueForDisplay(h);
+        final boolean changed = w != width || h != height
+            || !Objects.equals(x0, xAtStart) || !Objects.equals(x1, xAtEnd)
+            || !Objects.equals(y0, yAtStart) || !Objects.equals(y1, yAtEnd);
+        width = w;
+        height = h;
+        xAtStart = x0;
+        xAtEnd = x1;
+        yAtStart = y0;
+        yAtEnd = y1;
+        return changed;
+    }
+
+
+    /**
+     * Forces the next update to report a change.
+     */
+    public void invalidate() {
+        width = Double.NaN;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * Primitive array kernels used to project coordinates and to scan the extents of a series. This
+ * is the Java 17 implementation packaged in the multi-release JAR. It uses the Vector API when
+ * the application is started with {@code --add-modules jdk.incubator.vector}, and falls back to
+ * the scalar loops otherwise.
+ *
+ * @author Bruce Schubert
+ */
+final class VectorOps {
+
+    /**
+     * True if the incubating Vector API module has been resolved.
+     */
+    private static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private VectorOps() {
+    }
+
+
+    static void affine(double[] values, double[] out, int count, double origin, double scale) {
+        int i = 0;
+        if (SIMD) {
+            i = Simd.affine(values, out, count, origin, scale);
+        }
+        for (; i < count; i++) {
+            out[i] = origin + values[i] * scale;
+        }
+    }
+
+
+    static void logAffine(double[] values, double[] out, int count, double origin, double scale) {
+        int i = 0;
+        if (SIMD) {
+            i = Simd.logAffine(values, out, count, origin, scale);
+        }
+        for (; i < count; i++) {
+            out[i] = origin + Math.log(values[i]) * scale;
+        }
+    }
+
+
+    static void minMax(double[] values, int from, int count, double[] result) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int i = from;
+        if (SIMD) {
+            i = Simd.minMax(values, from, count, result);
+            min = result[0];
+            max = result[1];
+        }
+        for (; i < from + count; i++) {
+            final double value = values[i];
+            // Note: NaN values fail both comparisons
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        result[0] = (min <= max) ? min : Double.NaN;
+        result[1] = (min <= max) ? max : Double.NaN;
+    }
+
+
+    /**
+     * The Vector API kernels. This class is only loaded when the module is present. Each kernel
+     * processes the whole vectors and returns the index of the first unprocessed element.
+     */
+    private static final class Simd {
+
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+
+        static int affine(double[] values, double[] out, int count, double origin, double scale) {
+            final int bound = SPECIES.loopBound(count);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector.fromArray(SPECIES, values, i)
+                    .fma(scale, origin)
+                    .intoArray(out, i);
+            }
+            return i;
+        }
+
+
+        static int logAffine(double[] values, double[] out, int count, double origin, double scale) {
+            final int bound = SPECIES.loopBound(count);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector.fromArray(SPECIES, values, i)
+                    .lanewise(VectorOperators.LOG)
+                    .fma(scale, origin)
+                    .intoArray(out, i);
+            }
+            return i;
+        }
+
+
+        static int minMax(double[] values, int from, int count, double[] result) {
+            final DoubleVector positiveInfinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+            final DoubleVector negativeInfinity = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+            DoubleVector min = positiveInfinity;
+            DoubleVector max = negativeInfinity;
+            final int bound = from + SPECIES.loopBound(count);
+            int i = from;
+            for (; i < bound; i += SPECIES.length()) {
+                final DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+                // Replace the NaN lanes so they are ignored, as in the scalar loop
+                final VectorMask<Double> nan = v.test(VectorOperators.IS_NAN);
+                min = min.min(v.blend(positiveInfinity, nan));
+                max = max.max(v.blend(negativeInfinity, nan));
+            }
+            result[0] = min.reduceLanes(VectorOperators.MIN);
+            result[1] = max.reduceLanes(VectorOperators.MAX);
+            return i;
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the spatial hash used by the LabelDeclutter to find overlapping labels.
+ *
+ * @author Bruce Schubert
+ */
+public class LabelDeclutterTest {
+
+    private static LabelDeclutter.SpatialHash createHash() {
+        final LabelDeclutter.SpatialHash hash = new LabelDeclutter.SpatialHash();
+        hash.reset(10, 10);
+        return hash;
+    }
+
+
+    @Test
+    public void testEmpty() {
+        assertFalse(createHash().intersects(0, 0, 100, 100));
+    }
+
+
+    @Test
+    public void testIntersects() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        hash.insert(0, 0, 15, 5);
+        hash.insert(12, 3, 30, 8);
+        assertTrue(hash.intersects(14, 4, 20, 20));
+        // The hit union spans both boxes
+        assertEquals(0, hash.hitMinX, 0);
+        assertEquals(0, hash.hitMinY, 0);
+        assertEquals(30, hash.hitMaxX, 0);
+        assertEquals(8, hash.hitMaxY, 0);
+
+        assertFalse(hash.intersects(0, 10, 30, 20));
+    }
+
+
+    @Test
+    public void testTouchingBoxesDoNotIntersect() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        hash.insert(0, 0, 10, 10);
+        assertFalse(hash.intersects(10, 0, 20, 10));
+        assertFalse(hash.intersects(0, 10, 10, 20));
+        assertTrue(hash.intersects(9.9, 9.9, 20, 20));
+    }
+
+
+    @Test
+    public void testNegativeCoordinates() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        hash.insert(-25, -25, -15, -15);
+        assertTrue(hash.intersects(-16, -16, -5, -5));
+        assertFalse(hash.intersects(-14, -14, 0, 0));
+    }
+
+
+    @Test
+    public void testBoxWiderThanCellCap() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        // Spans 100 cells, more than the cap on the cells a box is entered in
+        hash.insert(0, 0, 1000, 10);
+        assertTrue(hash.intersects(900, 0, 910, 10));
+        assertEquals(1000, hash.hitMaxX, 0);
+        assertFalse(hash.intersects(1001, 0, 1010, 10));
+    }
+
+
+    @Test
+    public void testQueryWiderThanCellCap() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        hash.insert(900, 0, 910, 10);
+        assertTrue(hash.intersects(0, 0, 1000, 10));
+        assertTrue(hash.intersects(0, -1e9, 1e9, 1e9));
+    }
+
+
+    @Test
+    public void testManyBoxes() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        // Enough cells to grow the table several times
+        for (int i = 0; i < 1000; i++) {
+            hash.insert(i * 20, (i % 10) * 20, i * 20 + 15, (i % 10) * 20 + 15);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(hash.intersects(i * 20 + 5, (i % 10) * 20 + 5, i * 20 + 6, (i % 10) * 20 + 6));
+            assertFalse(hash.intersects(i * 20 + 16, (i % 10) * 20 + 16, i * 20 + 19, (i % 10) * 20 + 19));
+        }
+    }
+
+
+    @Test
+    public void testReset() {
+        final LabelDeclutter.SpatialHash hash = createHash();
+        hash.insert(0, 0, 10, 10);
+        hash.insert(0, 0, 5000, 10);
+        hash.reset(10, 10);
+        assertFalse(hash.intersects(0, 0, 10, 10));
+        assertFalse(hash.intersects(0, 0, 5000, 10));
+    }
+
+}
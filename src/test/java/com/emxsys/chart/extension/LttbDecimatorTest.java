@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the LttbDecimator.
+ *
+ * @author Bruce Schubert
+ */
+public class LttbDecimatorTest {
+
+    @Test
+    public void testEmptyInput() {
+        assertEquals(0, new LttbDecimator().decimate(new double[0], new double[0], 0, 100));
+    }
+
+
+    @Test
+    public void testBelowThresholdIsUnchanged() {
+        final double[] xs = {0, 1, 2, 3, 4};
+        final double[] ys = {4, 3, 2, 1, 0};
+        assertEquals(5, new LttbDecimator().decimate(xs, ys, 5, 10));
+        assertArrayEquals(new double[]{4, 3, 2, 1, 0}, ys, 0);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPointsPerPixel() {
+        new LttbDecimator(0);
+    }
+
+
+    @Test
+    public void testRetainsThresholdPointsInOrder() {
+        final double[] xs = ramp(1000);
+        final double[] ys = new double[xs.length];
+        for (int i = 0; i < ys.length; i++) {
+            ys[i] = Math.cos(i * 0.05);
+        }
+        final double last = ys[ys.length - 1];
+
+        // 10 pixels at 2 points per pixel
+        final int count = new LttbDecimator().decimate(xs, ys, xs.length, 10);
+        assertEquals(20, count);
+        assertEquals(0, xs[0], 0);
+        assertEquals(999, xs[count - 1], 0);
+        assertEquals(last, ys[count - 1], 0);
+        for (int i = 1; i < count; i++) {
+            assertTrue("x out of order at " + i, xs[i] > xs[i - 1]);
+        }
+    }
+
+
+    @Test
+    public void testRetainsPeak() {
+        final double[] xs = ramp(1000);
+        final double[] ys = new double[xs.length];
+        ys[500] = 100;
+
+        final int count = new LttbDecimator().decimate(xs, ys, xs.length, 10);
+        assertTrue(contains(ys, count, 100));
+    }
+
+
+    @Test
+    public void testNaNValues() {
+        final double[] xs = ramp(1000);
+        final double[] ys = new double[xs.length];
+        for (int i = 3; i < ys.length; i += 7) {
+            ys[i] = Double.NaN;
+        }
+        ys[500] = 100;
+
+        // The NaN values in the following buckets do not hide the peak
+        final int count = new LttbDecimator().decimate(xs, ys, xs.length, 10);
+        assertEquals(20, count);
+        assertTrue(contains(ys, count, 100));
+    }
+
+
+    private static double[] ramp(int count) {
+        final double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+
+    private static boolean contains(double[] values, int count, double value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the M4Decimator.
+ *
+ * @author Bruce Schubert
+ */
+public class M4DecimatorTest {
+
+    private final M4Decimator decimator = new M4Decimator();
+
+
+    @Test
+    public void testEmptyInput() {
+        assertEquals(0, decimator.decimate(new double[0], new double[0], 0, 100));
+    }
+
+
+    @Test
+    public void testFewPointsAreRetained() {
+        final double[] xs = {0, 0.5, 0.7, 3};
+        final double[] ys = {1, 2, 3, 4};
+        assertEquals(4, decimator.decimate(xs, ys, 4, 100));
+        assertArrayEquals(new double[]{1, 2, 3, 4}, ys, 0);
+    }
+
+
+    @Test
+    public void testRetainsFirstMinMaxLastOfEachColumn() {
+        final double[] xs = {0.0, 0.2, 0.4, 0.6, 0.8, 1.0, 1.2, 1.4, 1.6, 1.8};
+        final double[] ys = {5, 1, 9, 3, 4, 2, 2, 2, 2, 2};
+        final int count = decimator.decimate(xs, ys, xs.length, 2);
+
+        // Column 0: first, min, max and last in their original order; column 1: first and last
+        assertEquals(6, count);
+        assertArrayEquals(new double[]{0.0, 0.2, 0.4, 0.8, 1.0, 1.8}, head(xs, count), 0);
+        assertArrayEquals(new double[]{5, 1, 9, 4, 2, 2}, head(ys, count), 0);
+    }
+
+
+    @Test
+    public void testSingleColumn() {
+        final double[] xs = new double[100];
+        final double[] ys = new double[100];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 5 + i / 1000.0;
+            ys[i] = Math.sin(i);
+        }
+        final double[] expected = minMax(ys, ys.length);
+        final double first = ys[0];
+        final double last = ys[ys.length - 1];
+
+        final int count = decimator.decimate(xs, ys, xs.length, 10);
+        assertEquals(4, count);
+        assertEquals(first, ys[0], 0);
+        assertEquals(last, ys[count - 1], 0);
+        assertArrayEquals(expected, minMax(ys, count), 0);
+    }
+
+
+    @Test
+    public void testCompactsInPlace() {
+        final int width = 100;
+        final double[] xs = new double[10000];
+        final double[] ys = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i * (double) width / xs.length;
+            ys[i] = Math.sin(i * 0.01) * i;
+        }
+        final double[] expected = minMax(ys, ys.length);
+
+        final int count = decimator.decimate(xs, ys, xs.length, width);
+        assertTrue(count <= 4 * width);
+        for (int i = 1; i < count; i++) {
+            assertTrue("x out of order at " + i, xs[i] >= xs[i - 1]);
+        }
+        assertArrayEquals(expected, minMax(ys, count), 0);
+    }
+
+
+    @Test
+    public void testNaNValues() {
+        final double[] xs = {0.0, 0.1, 0.2, 0.3, 0.4, 1.0};
+        final double[] ys = {Double.NaN, 3, -2, 7, 1, 0};
+        final int count = decimator.decimate(xs, ys, xs.length, 2);
+
+        // A leading NaN does not mask the extremes of its column
+        assertArrayEquals(new double[]{-2, 7}, minMax(ys, count), 0);
+        assertTrue(Double.isNaN(ys[0]));
+        assertEquals(0, ys[count - 1], 0);
+    }
+
+
+    private static double[] head(double[] values, int count) {
+        final double[] result = new double[count];
+        System.arraycopy(values, 0, result, 0, count);
+        return result;
+    }
+
+
+    private static double[] minMax(double[] values, int count) {
+        final double[] result = new double[2];
+        VectorOps.minMax(values, 0, count, result);
+        return result;
+    }
+
+}
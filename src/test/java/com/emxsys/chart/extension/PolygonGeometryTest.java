@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the PolygonGeometry simplification and clipping.
+ *
+ * @author Bruce Schubert
+ */
+public class PolygonGeometryTest {
+
+    @Test
+    public void testSimplifyFewerThanFourVertices() {
+        assertArrayEquals(new int[0], PolygonGeometry.simplify(new double[0], new double[0], 0, 1));
+        assertArrayEquals(new int[]{0}, PolygonGeometry.simplify(new double[]{1}, new double[]{1}, 1, 1));
+        assertArrayEquals(new int[]{0, 1, 2},
+            PolygonGeometry.simplify(new double[]{0, 1, 0.5}, new double[]{0, 0, 0.01}, 3, 100));
+    }
+
+
+    @Test
+    public void testSimplifyRemovesCollinearVertices() {
+        // A square with a vertex at the middle of each side
+        final double[] xs = {0, 5, 10, 10, 10, 5, 0, 0};
+        final double[] ys = {0, 0, 0, 5, 10, 10, 10, 5};
+        assertArrayEquals(new int[]{0, 2, 4, 6, 7}, PolygonGeometry.simplify(xs, ys, xs.length, 0.5));
+    }
+
+
+    @Test
+    public void testSimplifyKeepsVerticesBeyondTolerance() {
+        final double[] xs = {0, 5, 10, 10, 0};
+        final double[] ys = {0, 2, 0, 10, 10};
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, PolygonGeometry.simplify(xs, ys, xs.length, 1));
+        assertArrayEquals(new int[]{0, 2, 3, 4}, PolygonGeometry.simplify(xs, ys, xs.length, 3));
+    }
+
+
+    @Test
+    public void testClipInside() {
+        final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+        final double[] xs = {1, 9, 9, 1};
+        final double[] ys = {1, 1, 9, 9};
+        final int count = clipper.clip(xs, ys, xs.length, 0, 0, 10, 10);
+        assertEquals(4, count);
+        assertEquals(64, area(clipper.getX(), clipper.getY(), count), 1e-9);
+    }
+
+
+    @Test
+    public void testClipPartiallyOutside() {
+        final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+        final double[] xs = {-5, 5, 5, -5};
+        final double[] ys = {-5, -5, 5, 5};
+        final int count = clipper.clip(xs, ys, xs.length, 0, 0, 10, 10);
+        assertEquals(25, area(clipper.getX(), clipper.getY(), count), 1e-9);
+        // The input is not modified
+        assertArrayEquals(new double[]{-5, 5, 5, -5}, xs, 0);
+    }
+
+
+    @Test
+    public void testClipTriangle() {
+        final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+        final double[] xs = {0, 15, 0};
+        final double[] ys = {0, 0, 15};
+        final int count = clipper.clip(xs, ys, xs.length, 0, 0, 10, 10);
+        // The rectangle less the corner beyond the hypotenuse
+        assertEquals(5, count);
+        assertEquals(100 - 12.5, area(clipper.getX(), clipper.getY(), count), 1e-9);
+    }
+
+
+    @Test
+    public void testClipOutside() {
+        final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+        final double[] xs = {20, 30, 30};
+        final double[] ys = {20, 20, 30};
+        assertEquals(0, clipper.clip(xs, ys, xs.length, 0, 0, 10, 10));
+    }
+
+
+    @Test
+    public void testClipperIsReusable() {
+        final PolygonGeometry.Clipper clipper = new PolygonGeometry.Clipper();
+        final double[] xs = new double[100];
+        final double[] ys = new double[100];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 5 + 10 * Math.cos(2 * Math.PI * i / xs.length);
+            ys[i] = 5 + 10 * Math.sin(2 * Math.PI * i / xs.length);
+        }
+        clipper.clip(xs, ys, xs.length, 0, 0, 10, 10);
+        final int count = clipper.clip(new double[]{1, 2, 2}, new double[]{1, 1, 2}, 3, 0, 0, 10, 10);
+        assertEquals(3, count);
+        assertEquals(0.5, area(clipper.getX(), clipper.getY(), count), 1e-9);
+    }
+
+
+    /**
+     * Computes the unsigned area of a polygon with the shoelace formula.
+     */
+    private static double area(double[] xs, double[] ys, int count) {
+        double sum = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            sum += xs[j] * ys[i] - xs[i] * ys[j];
+        }
+        return Math.abs(sum) / 2;
+    }
+
+}
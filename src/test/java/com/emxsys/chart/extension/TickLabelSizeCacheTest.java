@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import javafx.geometry.Dimension2D;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the TickLabelSizeCache. The labels are keyed with a null font, so the tests do not need
+ * the JavaFX toolkit.
+ *
+ * @author Bruce Schubert
+ */
+public class TickLabelSizeCacheTest {
+
+    private int measured;
+
+
+    private Dimension2D measure(String text, double rotation) {
+        measured++;
+        return new Dimension2D(text.length() * 7, rotation == 0 ? 12 : text.length() * 7);
+    }
+
+
+    @Test
+    public void testHitsAndMisses() {
+        final TickLabelSizeCache cache = new TickLabelSizeCache(10);
+        final Dimension2D size = cache.getSize("100", null, 0, this::measure);
+        assertEquals(21, size.getWidth(), 0);
+        assertSame(size, cache.getSize("100", null, 0, this::measure));
+        assertNotSame(size, cache.getSize("100", null, 90, this::measure));
+        assertEquals(2, measured);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+
+    @Test
+    public void testNullText() {
+        final TickLabelSizeCache cache = new TickLabelSizeCache(10);
+        assertEquals(0, cache.getSize(null, null, 0, this::measure).getWidth(), 0);
+        cache.getSize("", null, 0, this::measure);
+        assertEquals(1, measured);
+    }
+
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final TickLabelSizeCache cache = new TickLabelSizeCache(2);
+        cache.getSize("a", null, 0, this::measure);
+        cache.getSize("b", null, 0, this::measure);
+        cache.getSize("a", null, 0, this::measure);
+        cache.getSize("c", null, 0, this::measure);
+        assertEquals(2, cache.size());
+        assertEquals(3, measured);
+
+        // "b" was evicted, "a" was retained
+        cache.getSize("a", null, 0, this::measure);
+        assertEquals(3, measured);
+        cache.getSize("b", null, 0, this::measure);
+        assertEquals(4, measured);
+    }
+
+
+    @Test
+    public void testInvalidateAndClear() {
+        final TickLabelSizeCache cache = new TickLabelSizeCache(10);
+        cache.getSize("a", null, 0, this::measure);
+        cache.getSize("b", null, 0, this::measure);
+        cache.invalidate(null);
+        assertEquals(0, cache.size());
+
+        cache.getSize("a", null, 0, this::measure);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new TickLabelSizeCache(0);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the TickUnitSource lookups.
+ *
+ * @author Bruce Schubert
+ */
+public class TickUnitSourceTest {
+
+    private static TickUnitSource createSource(double... sizes) {
+        final TickUnitSource source = new TickUnitSource();
+        for (double size : sizes) {
+            source.add(new NumberTickUnit(size));
+        }
+        return source;
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmpty() {
+        new TickUnitSource().getCeilingTickUnit(1);
+    }
+
+
+    @Test
+    public void testUnitsAreSorted() {
+        final TickUnitSource source = createSource(5, 0.1, 100, 1, 20);
+        assertEquals(5, source.size());
+        assertEquals(0.1, source.getCeilingTickUnit(0).getSize(), 0);
+        assertEquals(1, source.getLargerTickUnit(new NumberTickUnit(0.1)).getSize(), 0);
+        assertEquals(5, source.getLargerTickUnit(new NumberTickUnit(1)).getSize(), 0);
+    }
+
+
+    @Test
+    public void testCeiling() {
+        final TickUnitSource source = createSource(1, 2, 5, 10, 20, 50);
+        assertEquals(1, source.getCeilingTickUnit(0.001).getSize(), 0);
+        assertEquals(2, source.getCeilingTickUnit(2).getSize(), 0);
+        assertEquals(5, source.getCeilingTickUnit(2.0001).getSize(), 0);
+        assertEquals(10, source.getCeilingTickUnit(9.99).getSize(), 0);
+        assertEquals(50, source.getCeilingTickUnit(1e6).getSize(), 0);
+        assertEquals(1, source.getCeilingTickUnit(Double.NaN).getSize(), 0);
+        assertEquals(50, source.getLargerTickUnit(new NumberTickUnit(50)).getSize(), 0);
+    }
+
+
+    @Test
+    public void testAddInvalidatesIndex() {
+        final TickUnitSource source = createSource(1, 10);
+        assertEquals(10, source.getCeilingTickUnit(3).getSize(), 0);
+        source.add(new NumberTickUnit(3));
+        assertEquals(3, source.getCeilingTickUnit(3).getSize(), 0);
+    }
+
+
+    @Test
+    public void testCeilingMatchesLinearScan() {
+        final double[] sizes = new double[60];
+        for (int i = 0; i < sizes.length; i++) {
+            // 1, 2.5 and 5 times the powers of ten from 1e-10 to 1e9
+            sizes[i] = new double[]{1, 2.5, 5}[i % 3] * Math.pow(10, i / 3 - 10);
+        }
+        final TickUnitSource source = createSource(sizes);
+        final Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            final double size = Math.pow(10, random.nextDouble() * 22 - 11);
+            double expected = sizes[sizes.length - 1];
+            for (double candidate : sizes) {
+                if (candidate >= size) {
+                    expected = candidate;
+                    break;
+                }
+            }
+            assertEquals("size " + size, expected, source.getCeilingTickUnit(size).getSize(), 0);
+        }
+    }
+
+}
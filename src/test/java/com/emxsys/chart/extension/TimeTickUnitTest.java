@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the TimeTickUnit calendar alignment.
+ *
+ * @author Bruce Schubert
+ */
+public class TimeTickUnitTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+
+    private static long millis(ZonedDateTime time) {
+        return time.toInstant().toEpochMilli();
+    }
+
+
+    /**
+     * Generates the ticks of a range the same way as the TimeAxis.
+     */
+    private static List<ZonedDateTime> ticks(TimeTickUnit unit, ZonedDateTime from, ZonedDateTime to) {
+        final ZoneId zone = from.getZone();
+        final List<ZonedDateTime> ticks = new ArrayList<>();
+        for (ZonedDateTime tick = unit.ceil(millis(from), zone); !tick.isAfter(to);
+             tick = unit.ceil(millis(tick) + 1, zone)) {
+            ticks.add(tick);
+        }
+        return ticks;
+    }
+
+
+    @Test
+    public void testFloor() {
+        final ZonedDateTime time = ZonedDateTime.of(2015, 8, 27, 13, 47, 38, 123_000_000, ZoneOffset.UTC);
+        final long t = millis(time);
+        assertEquals(time.withNano(100_000_000), new TimeTickUnit(ChronoUnit.MILLIS, 50).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withSecond(30).withNano(0), new TimeTickUnit(ChronoUnit.SECONDS, 15).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withMinute(45).withSecond(0).withNano(0),
+            new TimeTickUnit(ChronoUnit.MINUTES, 5).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withHour(12).truncatedTo(ChronoUnit.HOURS),
+            new TimeTickUnit(ChronoUnit.HOURS, 6).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withDayOfMonth(27).truncatedTo(ChronoUnit.DAYS),
+            new TimeTickUnit(ChronoUnit.DAYS, 2).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withDayOfMonth(24).truncatedTo(ChronoUnit.DAYS),
+            new TimeTickUnit(ChronoUnit.WEEKS, 1).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withMonth(7).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS),
+            new TimeTickUnit(ChronoUnit.MONTHS, 3).floor(t, ZoneOffset.UTC));
+        assertEquals(time.withYear(2010).withDayOfYear(1).truncatedTo(ChronoUnit.DAYS),
+            new TimeTickUnit(ChronoUnit.YEARS, 10).floor(t, ZoneOffset.UTC));
+    }
+
+
+    @Test
+    public void testFloorIsIdempotent() {
+        final TimeTickUnit unit = new TimeTickUnit(ChronoUnit.HOURS, 3);
+        final ZonedDateTime tick = unit.floor(millis(ZonedDateTime.of(2015, 1, 1, 5, 0, 0, 0, NEW_YORK)), NEW_YORK);
+        assertEquals(tick, unit.floor(millis(tick), NEW_YORK));
+        assertEquals(tick, unit.ceil(millis(tick), NEW_YORK));
+    }
+
+
+    @Test
+    public void testFloorAcrossSpringForward() {
+        // 2015-03-08 02:00 EST skips to 03:00 EDT
+        final ZonedDateTime time = ZonedDateTime.of(2015, 3, 8, 4, 30, 0, 0, NEW_YORK);
+        final ZonedDateTime tick = new TimeTickUnit(ChronoUnit.HOURS, 3).floor(millis(time), NEW_YORK);
+        assertEquals(3, tick.getHour());
+        assertEquals(ZoneOffset.ofHours(-4), tick.getOffset());
+
+        final ZonedDateTime day = new TimeTickUnit(ChronoUnit.DAYS, 1).floor(millis(time), NEW_YORK);
+        assertEquals(ZonedDateTime.of(2015, 3, 8, 0, 0, 0, 0, NEW_YORK), day);
+        assertEquals(ZoneOffset.ofHours(-5), day.getOffset());
+    }
+
+
+    @Test
+    public void testFloorAcrossFallBack() {
+        // 2015-11-01 01:00 to 02:00 occurs twice; the second time in EST
+        final ZonedDateTime time = ZonedDateTime.of(2015, 11, 1, 1, 30, 0, 0, NEW_YORK).withLaterOffsetAtOverlap();
+        final ZonedDateTime tick = new TimeTickUnit(ChronoUnit.HOURS, 1).floor(millis(time), NEW_YORK);
+        assertEquals(1, tick.getHour());
+        assertEquals(ZoneOffset.ofHours(-5), tick.getOffset());
+        assertEquals(millis(time) - 30 * 60 * 1000, millis(tick));
+    }
+
+
+    @Test
+    public void testCeil() {
+        final TimeTickUnit days = new TimeTickUnit(ChronoUnit.DAYS, 2);
+        // The 2 day ticks restart on the first of the month
+        final ZonedDateTime time = ZonedDateTime.of(2015, 1, 31, 10, 0, 0, 0, ZoneOffset.UTC);
+        assertEquals(ZonedDateTime.of(2015, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC), days.ceil(millis(time), ZoneOffset.UTC));
+
+        final TimeTickUnit hours = new TimeTickUnit(ChronoUnit.HOURS, 3);
+        final ZonedDateTime night = ZonedDateTime.of(2015, 3, 8, 1, 30, 0, 0, NEW_YORK);
+        assertEquals(ZonedDateTime.of(2015, 3, 8, 3, 0, 0, 0, NEW_YORK), hours.ceil(millis(night), NEW_YORK));
+    }
+
+
+    @Test
+    public void testTicksAcrossMonthEnd() {
+        final TimeTickUnit days = new TimeTickUnit(ChronoUnit.DAYS, 2);
+        final List<ZonedDateTime> ticks = ticks(days,
+            ZonedDateTime.of(2015, 1, 28, 12, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2015, 2, 6, 0, 0, 0, 0, ZoneOffset.UTC));
+        assertEquals(Arrays.asList(
+            ZonedDateTime.of(2015, 1, 29, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2015, 1, 31, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2015, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2015, 2, 3, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2015, 2, 5, 0, 0, 0, 0, ZoneOffset.UTC)), ticks);
+    }
+
+
+    @Test
+    public void testTicksAcrossSpringForward() {
+        // 2015-03-08 02:00 EST skips to 03:00 EDT in New York
+        final List<ZonedDateTime> ticks = ticks(new TimeTickUnit(ChronoUnit.HOURS, 3),
+            ZonedDateTime.of(2015, 3, 7, 22, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 3, 8, 12, 0, 0, 0, NEW_YORK));
+        assertEquals(Arrays.asList(
+            ZonedDateTime.of(2015, 3, 8, 0, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 3, 8, 3, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 3, 8, 6, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 3, 8, 9, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 3, 8, 12, 0, 0, 0, NEW_YORK)), ticks);
+    }
+
+
+    @Test
+    public void testTicksAcrossFallBack() {
+        // 2015-11-01 02:00 EDT falls back to 01:00 EST in New York
+        final ZonedDateTime from = ZonedDateTime.of(2015, 11, 1, 0, 0, 0, 0, NEW_YORK);
+        final ZonedDateTime to = ZonedDateTime.of(2015, 11, 1, 18, 0, 0, 0, NEW_YORK);
+        assertEquals(Arrays.asList(
+            from,
+            ZonedDateTime.of(2015, 11, 1, 6, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 11, 1, 12, 0, 0, 0, NEW_YORK),
+            to), ticks(new TimeTickUnit(ChronoUnit.HOURS, 6), from, to));
+        assertEquals(Arrays.asList(
+            from,
+            ZonedDateTime.of(2015, 11, 1, 12, 0, 0, 0, NEW_YORK)),
+            ticks(new TimeTickUnit(ChronoUnit.HOURS, 12), from, to));
+
+        // The repeated hour has a tick of its own
+        final List<ZonedDateTime> hourly = ticks(new TimeTickUnit(ChronoUnit.HOURS, 1), from,
+            ZonedDateTime.of(2015, 11, 1, 3, 0, 0, 0, NEW_YORK));
+        assertEquals(Arrays.asList(
+            from,
+            ZonedDateTime.of(2015, 11, 1, 1, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 11, 1, 1, 0, 0, 0, NEW_YORK).withLaterOffsetAtOverlap(),
+            ZonedDateTime.of(2015, 11, 1, 2, 0, 0, 0, NEW_YORK),
+            ZonedDateTime.of(2015, 11, 1, 3, 0, 0, 0, NEW_YORK)), hourly);
+    }
+
+
+    @Test
+    public void testIsFixedLength() {
+        assertTrue(new TimeTickUnit(ChronoUnit.MINUTES, 30).isFixedLength(NEW_YORK));
+        assertFalse(new TimeTickUnit(ChronoUnit.HOURS, 3).isFixedLength(NEW_YORK));
+        assertTrue(new TimeTickUnit(ChronoUnit.HOURS, 3).isFixedLength(ZoneOffset.UTC));
+        assertFalse(new TimeTickUnit(ChronoUnit.DAYS, 1).isFixedLength(ZoneOffset.UTC));
+    }
+
+
+    @Test
+    public void testTickMarkLabel() {
+        final TimeTickUnit unit = new TimeTickUnit(ChronoUnit.MINUTES, 1);
+        final long t = millis(ZonedDateTime.of(2015, 8, 27, 13, 47, 0, 0, ZoneOffset.UTC));
+        assertEquals("13:47", unit.getTickMarkLabel(t, ZoneOffset.UTC));
+        assertEquals("09:47", unit.getTickMarkLabel(t, NEW_YORK));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedUnit() {
+        new TimeTickUnit(ChronoUnit.FOREVER, 1, "yyyy");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMultiple() {
+        new TimeTickUnit(ChronoUnit.DAYS, 0);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the VectorOps kernels.
+ *
+ * @author Bruce Schubert
+ */
+public class VectorOpsTest {
+
+    @Test
+    public void testAffine() {
+        final double[] values = {0, 1, 2, 3, 4};
+        final double[] out = new double[5];
+        VectorOps.affine(values, out, 5, 10, -2);
+        assertArrayEquals(new double[]{10, 8, 6, 4, 2}, out, 0);
+
+        // In place, and only the given count
+        VectorOps.affine(values, values, 3, 1, 1);
+        assertArrayEquals(new double[]{1, 2, 3, 3, 4}, values, 0);
+    }
+
+
+    @Test
+    public void testLogAffine() {
+        final double[] values = {1, Math.E, Math.E * Math.E, 0, -1};
+        VectorOps.logAffine(values, values, values.length, 5, 2);
+        assertEquals(5, values[0], 1e-12);
+        assertEquals(7, values[1], 1e-12);
+        assertEquals(9, values[2], 1e-12);
+        assertEquals(Double.NEGATIVE_INFINITY, values[3], 0);
+        assertTrue(Double.isNaN(values[4]));
+    }
+
+
+    @Test
+    public void testEmpty() {
+        final double[] result = new double[2];
+        VectorOps.minMax(new double[0], 0, 0, result);
+        assertTrue(Double.isNaN(result[0]));
+        assertTrue(Double.isNaN(result[1]));
+        VectorOps.affine(new double[0], new double[0], 0, 1, 1);
+    }
+
+
+    @Test
+    public void testMinMax() {
+        final double[] values = {100, 3, -7, Double.NaN, 12, -100};
+        final double[] result = new double[2];
+        VectorOps.minMax(values, 1, 4, result);
+        assertArrayEquals(new double[]{-7, 12}, result, 0);
+    }
+
+
+    @Test
+    public void testMinMaxOfNaN() {
+        final double[] result = new double[2];
+        VectorOps.minMax(new double[]{Double.NaN, Double.NaN}, 0, 2, result);
+        assertTrue(Double.isNaN(result[0]));
+        assertTrue(Double.isNaN(result[1]));
+    }
+
+
+    @Test
+    public void testMinMaxOfLargeArray() {
+        final double[] values = new double[1003];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i);
+        }
+        values[1001] = 5;
+        values[2] = -5;
+        final double[] result = new double[2];
+        VectorOps.minMax(values, 0, values.length, result);
+        assertArrayEquals(new double[]{-5, 5}, result, 0);
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the XYAggregatePyramid.
+ *
+ * @author Bruce Schubert
+ */
+public class XYAggregatePyramidTest {
+
+    @Test
+    public void testEmpty() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        assertEquals(0, pyramid.size());
+        assertEquals(0, pyramid.getLevelCount());
+        assertEquals(-1, pyramid.findLevel(1000));
+        assertTrue(Double.isNaN(pyramid.getMinY()));
+        assertTrue(Double.isNaN(pyramid.getMaxY()));
+    }
+
+
+    @Test
+    public void testSingleBucket() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        final double[] values = {3, 1, 4, 1, 5, 9, 2, 6};
+        for (double value : values) {
+            pyramid.append(value);
+        }
+        assertEquals(values.length, pyramid.size());
+        assertEquals(1, pyramid.getLevelCount());
+        assertEquals(1, pyramid.getBucketCount(0));
+        assertEquals(1, pyramid.getMinY(0, 0), 0);
+        assertEquals(9, pyramid.getMaxY(0, 0), 0);
+        assertEquals(31 / 8.0, pyramid.getMeanY(0, 0), 1e-12);
+        assertEquals(1, pyramid.getMinIndex(0, 0));
+        assertEquals(5, pyramid.getMaxIndex(0, 0));
+        assertEquals(1, pyramid.getMinY(), 0);
+        assertEquals(9, pyramid.getMaxY(), 0);
+    }
+
+
+    @Test
+    public void testCoarserLevels() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        final int count = 4 << XYAggregatePyramid.BASE_SHIFT;
+        for (int i = 0; i < count; i++) {
+            pyramid.append(i == 77 ? -5 : i == 200 ? 1000 : i % 10);
+        }
+        // Levels of 64, 128 and 256 points per bucket
+        assertEquals(3, pyramid.getLevelCount());
+        assertEquals(4, pyramid.getBucketCount(0));
+        assertEquals(2, pyramid.getBucketCount(1));
+        assertEquals(1, pyramid.getBucketCount(2));
+        assertEquals(XYAggregatePyramid.BASE_SHIFT + 2, pyramid.getBucketShift(2));
+
+        assertEquals(77, pyramid.getMinIndex(2, 0));
+        assertEquals(200, pyramid.getMaxIndex(2, 0));
+        assertEquals(77, pyramid.getMinIndex(1, 0));
+        assertEquals(200, pyramid.getMaxIndex(1, 1));
+        assertEquals(-5, pyramid.getMinY(), 0);
+        assertEquals(1000, pyramid.getMaxY(), 0);
+    }
+
+
+    @Test
+    public void testFindLevel() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        for (int i = 0; i < 1000; i++) {
+            pyramid.append(i);
+        }
+        assertEquals(-1, pyramid.findLevel(32));
+        assertEquals(0, pyramid.findLevel(100));
+        assertEquals(1, pyramid.findLevel(200));
+        assertEquals(pyramid.getLevelCount() - 1, pyramid.findLevel(1e9));
+    }
+
+
+    @Test
+    public void testNaNValues() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid(1);
+        pyramid.append(Double.NaN);
+        pyramid.append(Double.NaN);
+        pyramid.append(Double.NaN);
+        pyramid.append(7);
+
+        // The first bucket holds only NaN values; the second has one value
+        assertFalse(pyramid.hasValues(0, 0));
+        assertTrue(Double.isNaN(pyramid.getMeanY(0, 0)));
+        assertEquals(-1, pyramid.getMinIndex(0, 0));
+        assertEquals(-1, pyramid.getMaxIndex(0, 0));
+        assertTrue(pyramid.hasValues(0, 1));
+        assertEquals(7, pyramid.getMeanY(0, 1), 0);
+        assertEquals(3, pyramid.getMinIndex(0, 1));
+        assertEquals(7, pyramid.getMinY(), 0);
+        assertEquals(7, pyramid.getMaxY(), 0);
+    }
+
+
+    @Test
+    public void testOnlyNaNValues() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        for (int i = 0; i < 200; i++) {
+            pyramid.append(Double.NaN);
+        }
+        assertEquals(200, pyramid.size());
+        assertTrue(Double.isNaN(pyramid.getMinY()));
+        assertTrue(Double.isNaN(pyramid.getMaxY()));
+    }
+
+
+    @Test
+    public void testPointBuckets() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid(0);
+        for (int i = 0; i < 5; i++) {
+            pyramid.append(i * 2);
+        }
+        assertEquals(5, pyramid.getBucketCount(0));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i * 2, pyramid.getMeanY(0, i), 0);
+            assertEquals(i, pyramid.getMinIndex(0, i));
+        }
+    }
+
+
+    @Test
+    public void testClear() {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid();
+        for (int i = 0; i < 500; i++) {
+            pyramid.append(i);
+        }
+        pyramid.clear();
+        assertEquals(0, pyramid.size());
+        assertEquals(0, pyramid.getLevelCount());
+        pyramid.append(42);
+        assertEquals(42, pyramid.getMinY(), 0);
+    }
+
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final XYAggregatePyramid pyramid = new XYAggregatePyramid(2);
+        final XYAggregatePyramid expected = new XYAggregatePyramid(2);
+        for (int i = 0; i < 100; i++) {
+            final double y = (i % 7 == 0) ? Double.NaN : Math.sin(i) * i;
+            pyramid.append(y);
+            expected.append(y);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        pyramid.write(new DataOutputStream(bytes));
+        final XYAggregatePyramid copy = XYAggregatePyramid.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        // Appending after a read extends the rebuilt levels as usual
+        for (int i = 100; i < 300; i++) {
+            copy.append(i);
+            expected.append(i);
+        }
+        assertEquals(expected.size(), copy.size());
+        assertEquals(expected.getLevelCount(), copy.getLevelCount());
+        for (int level = 0; level < expected.getLevelCount(); level++) {
+            assertEquals(expected.getBucketCount(level), copy.getBucketCount(level));
+            for (int bucket = 0; bucket < expected.getBucketCount(level); bucket++) {
+                assertEquals(expected.getMinY(level, bucket), copy.getMinY(level, bucket), 0);
+                assertEquals(expected.getMaxY(level, bucket), copy.getMaxY(level, bucket), 0);
+                assertEquals(expected.getMeanY(level, bucket), copy.getMeanY(level, bucket), 1e-9);
+                assertEquals(expected.getMinIndex(level, bucket), copy.getMinIndex(level, bucket));
+                assertEquals(expected.getMaxIndex(level, bucket), copy.getMaxIndex(level, bucket));
+            }
+        }
+    }
+
+
+    @Test(expected = IOException.class)
+    public void testReadInconsistent() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(2);
+        out.writeInt(100);
+        out.writeInt(3);
+        XYAggregatePyramid.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBaseShift() {
+        new XYAggregatePyramid(31);
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.chart.ValueAxis;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the XYAnnotationIndex.
+ *
+ * @author Bruce Schubert
+ */
+public class XYAnnotationIndexTest {
+
+    /**
+     * An annotation with settable data bounds.
+     */
+    private static final class BoundedAnnotation implements XYAnnotation {
+
+        Rectangle2D bounds;
+
+
+        BoundedAnnotation(Rectangle2D bounds) {
+            this.bounds = bounds;
+        }
+
+
+        BoundedAnnotation(double x, double y) {
+            this(new Rectangle2D(x, y, 0, 0));
+        }
+
+
+        @Override
+        public Node getNode() {
+            return null;
+        }
+
+
+        @Override
+        public void layoutAnnotation(ValueAxis xAxis, ValueAxis yAxis) {
+        }
+
+
+        @Override
+        public Rectangle2D getDataBounds() {
+            return bounds;
+        }
+    }
+
+
+    @Test
+    public void testEmpty() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        assertTrue(query(index, -1e9, -1e9, 1e9, 1e9).isEmpty());
+    }
+
+
+    @Test
+    public void testQuery() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final BoundedAnnotation inside = new BoundedAnnotation(5, 5);
+        final BoundedAnnotation outside = new BoundedAnnotation(50, 50);
+        final BoundedAnnotation overlapping = new BoundedAnnotation(new Rectangle2D(-10, -10, 12, 12));
+        index.add(inside);
+        index.add(outside);
+        index.add(overlapping);
+        assertEquals(Arrays.asList(inside, overlapping), query(index, 0, 0, 10, 10));
+        assertTrue(index.intersects(inside, 0, 0, 10, 10));
+        assertFalse(index.intersects(outside, 0, 0, 10, 10));
+    }
+
+
+    @Test
+    public void testUnboundedAnnotationsAreAlwaysFound() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final BoundedAnnotation unbounded = new BoundedAnnotation(null);
+        final BoundedAnnotation nan = new BoundedAnnotation(Double.NaN, 5);
+        index.add(unbounded);
+        index.add(nan);
+        assertEquals(Arrays.asList(unbounded, nan), query(index, 100, 100, 200, 200));
+        assertFalse(index.isPoint(nan));
+    }
+
+
+    @Test
+    public void testPackedTreeRetainsOrder() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final List<XYAnnotation> expected = new ArrayList<>();
+        // Enough annotations to bulk load a tree of several levels, added in a scattered order
+        for (int i = 0; i < 5000; i++) {
+            final double x = (i * 7919) % 5000;
+            final BoundedAnnotation annotation = new BoundedAnnotation(x, i % 100);
+            index.add(annotation);
+            if (x >= 1000 && x <= 1100 && i % 100 <= 50) {
+                expected.add(annotation);
+            }
+        }
+        assertEquals(expected, query(index, 1000, 0, 1100, 50));
+        // A second query uses the packed tree
+        assertEquals(expected, query(index, 1000, 0, 1100, 50));
+    }
+
+
+    @Test
+    public void testRemoveAndUpdate() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final List<BoundedAnnotation> annotations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final BoundedAnnotation annotation = new BoundedAnnotation(i, 0);
+            annotations.add(annotation);
+            index.add(annotation);
+        }
+        query(index, 0, 0, 1, 1);
+
+        // Remove most of the packed annotations, and move one
+        for (int i = 0; i < 900; i++) {
+            index.remove(annotations.get(i));
+        }
+        assertFalse(index.contains(annotations.get(0)));
+        final BoundedAnnotation moved = annotations.get(950);
+        moved.bounds = new Rectangle2D(5, 0, 0, 0);
+        index.update(moved);
+
+        assertEquals(Arrays.asList(moved), query(index, 0, 0, 10, 10));
+        assertEquals(99, query(index, 900, 0, 999, 0).size());
+    }
+
+
+    @Test
+    public void testRemovePending() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final List<BoundedAnnotation> annotations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final BoundedAnnotation annotation = new BoundedAnnotation(i % 2 == 0 ? null : new Rectangle2D(i, 0, 1, 1));
+            annotations.add(annotation);
+            index.add(annotation);
+        }
+        for (int i = 0; i < 490; i++) {
+            index.remove(annotations.get(i));
+        }
+        assertEquals(annotations.subList(490, 500), query(index, -1e9, -1e9, 1e9, 1e9));
+    }
+
+
+    @Test
+    public void testIsPoint() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final BoundedAnnotation point = new BoundedAnnotation(1, 2);
+        final BoundedAnnotation box = new BoundedAnnotation(new Rectangle2D(1, 2, 3, 4));
+        index.add(point);
+        index.add(box);
+        assertTrue(index.isPoint(point));
+        assertFalse(index.isPoint(box));
+        assertFalse(index.isPoint(new BoundedAnnotation(1, 2)));
+    }
+
+
+    @Test
+    public void testClear() {
+        final XYAnnotationIndex index = new XYAnnotationIndex();
+        final BoundedAnnotation annotation = new BoundedAnnotation(1, 1);
+        index.add(annotation);
+        index.clear();
+        assertFalse(index.contains(annotation));
+        assertTrue(query(index, 0, 0, 2, 2).isEmpty());
+    }
+
+
+    private static List<XYAnnotation> query(XYAnnotationIndex index, double minX, double minY, double maxX, double maxY) {
+        final List<XYAnnotation> result = new ArrayList<>();
+        index.query(minX, minY, maxX, maxY, result);
+        return result;
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2015, Bruce Schubert <bruce@emxsys.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *
+ *     - Neither the name of Bruce Schubert, Emxsys nor the names of its 
+ *       contributors may be used to endorse or promote products derived
+ *       from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.emxsys.chart.extension;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the XYPointIndex.
+ *
+ * @author Bruce Schubert
+ */
+public class XYPointIndexTest {
+
+    @Test
+    public void testEmpty() {
+        final XYPointIndex index = new XYPointIndex();
+        assertNull(index.findNearest(10, 10, 50));
+        index.setTraceCount(2);
+        assertNull(index.findNearest(10, 10, 50));
+        index.setTrace(0, new double[0], new double[0], new int[0], 0, 100, 100);
+        assertNull(index.findNearest(10, 10, 50));
+    }
+
+
+    @Test
+    public void testFindNearest() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(2);
+        index.setTrace(0, new double[]{10, 50, 90}, new double[]{10, 50, 90}, new int[]{0, 1, 2}, 3, 100, 100);
+        index.setTrace(1, new double[]{52, 20}, new double[]{47, 80}, new int[]{7, 8}, 2, 100, 100);
+
+        final XYPointIndex.Hit hit = index.findNearest(53, 46, 10);
+        assertNotNull(hit);
+        assertEquals(1, hit.getTrace());
+        assertEquals(7, hit.getIndex());
+        assertEquals(52, hit.getX(), 0);
+        assertEquals(47, hit.getY(), 0);
+
+        assertEquals(0, index.findNearest(49, 51, 10).getTrace());
+    }
+
+
+    @Test
+    public void testFindsNearestInAdjacentCell() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        // The query point lies in the first cell; the nearer point lies in the next cell
+        index.setTrace(0, new double[]{1, 17}, new double[]{1, 1}, new int[]{0, 1}, 2, 100, 100);
+        assertEquals(1, index.findNearest(15, 1, 20).getIndex());
+    }
+
+
+    @Test
+    public void testMaxDistance() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        index.setTrace(0, new double[]{50}, new double[]{50}, new int[]{0}, 1, 100, 100);
+        assertNull(index.findNearest(60, 60, 10));
+        assertNotNull(index.findNearest(60, 60, 15));
+    }
+
+
+    @Test
+    public void testIgnoresPointsOutsidePlotAndNaN() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        final double[] xs = {-5, 150, Double.NaN, 40};
+        final double[] ys = {10, 10, 10, Double.NaN};
+        index.setTrace(0, xs, ys, new int[]{0, 1, 2, 3}, 4, 100, 100);
+        assertNull(index.findNearest(0, 10, 1000));
+    }
+
+
+    @Test
+    public void testDensePile() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        // Nearly all the points share one pixel, as in a zoomed-out dense series
+        final int count = 100_000;
+        final double[] xs = new double[count];
+        final double[] ys = new double[count];
+        final int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = 50;
+            ys[i] = 50;
+            indices[i] = i;
+        }
+        xs[count / 3] = 53;
+        ys[count / 3] = 52;
+        index.setTrace(0, xs, ys, indices, count, 100, 100);
+        assertEquals(count / 3, index.findNearest(54, 53, 5).getIndex());
+        assertEquals(50, index.findNearest(49, 49, 5).getX(), 0);
+    }
+
+
+    @Test
+    public void testMatchesLinearScan() {
+        final Random random = new Random(7);
+        final int count = 5000;
+        final double[] xs = new double[count];
+        final double[] ys = new double[count];
+        final int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            // Clustered positions with many duplicates
+            xs[i] = Math.floor(random.nextGaussian() * 40 + 200);
+            ys[i] = Math.floor(random.nextGaussian() * 20 + 100);
+            indices[i] = i;
+        }
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        index.setTrace(0, xs, ys, indices, count, 400, 200);
+        for (int q = 0; q < 500; q++) {
+            final double x = random.nextDouble() * 400;
+            final double y = random.nextDouble() * 200;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                if (xs[i] >= 0 && xs[i] <= 400 && ys[i] >= 0 && ys[i] <= 200) {
+                    best = Math.min(best, Math.hypot(xs[i] - x, ys[i] - y));
+                }
+            }
+            final XYPointIndex.Hit hit = index.findNearest(x, y, 30);
+            if (best > 30) {
+                assertNull(hit);
+            }
+            else {
+                assertEquals(best, Math.hypot(hit.getX() - x, hit.getY() - y), 1e-9);
+                assertEquals(xs[hit.getIndex()], hit.getX(), 0);
+                assertEquals(ys[hit.getIndex()], hit.getY(), 0);
+            }
+        }
+    }
+
+
+    @Test
+    public void testReplaceAndClearTrace() {
+        final XYPointIndex index = new XYPointIndex();
+        index.setTraceCount(1);
+        index.setTrace(0, new double[]{10}, new double[]{10}, new int[]{0}, 1, 100, 100);
+        index.setTrace(0, new double[]{80}, new double[]{80}, new int[]{5}, 1, 100, 100);
+        assertNull(index.findNearest(10, 10, 5));
+        assertEquals(5, index.findNearest(80, 80, 5).getIndex());
+
+        index.clearTrace(0);
+        assertNull(index.findNearest(80, 80, 5));
+    }
+
+}